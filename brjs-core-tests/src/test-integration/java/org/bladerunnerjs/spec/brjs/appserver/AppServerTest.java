@@ -3,11 +3,17 @@ package org.bladerunnerjs.spec.brjs.appserver;
 import static org.bladerunnerjs.appserver.BRJSApplicationServer.Messages.*;
 import static org.bladerunnerjs.appserver.ApplicationServerUtils.Messages.*;
 
+import static org.junit.Assert.*;
+
 import java.io.File;
 import java.io.IOException;
+import java.net.HttpURLConnection;
 import java.net.ServerSocket;
+import java.net.SocketTimeoutException;
+import java.net.URL;
 
 import javax.servlet.Servlet;
+import javax.servlet.http.HttpServletResponse;
 
 import org.bladerunnerjs.api.App;
 import org.bladerunnerjs.api.AppConf;
@@ -21,6 +27,9 @@ import org.bladerunnerjs.api.DirNode;
 import org.bladerunnerjs.model.TemplateGroup;
 import org.bladerunnerjs.plugin.appdeployer.AppDeploymentObserverPlugin;
 import org.bladerunnerjs.utility.FileUtils;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.nio.SelectChannelConnector;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -46,13 +55,14 @@ public class AppServerTest extends SpecTest
 	Aspect aspect;
 	StringBuffer response = new StringBuffer();
 	File secondaryTempFolder;
+	MockContentPlugin mockContentPlugin = new MockContentPlugin();
 	
 	@Before
 	public void initTestObjects() throws Exception {
 		given(brjs).automaticallyFindsBundlerPlugins()
 			.and(brjs).automaticallyFindsMinifierPlugins()
 			.and(brjs).hasModelObserverPlugins(new AppDeploymentObserverPlugin())
-			.and(brjs).hasContentPlugins(new MockContentPlugin())
+			.and(brjs).hasContentPlugins(mockContentPlugin)
 			.and(brjs).hasBeenCreated()
 			.and(brjs).localeSwitcherHasContents("locale-forwarder.js")
 			.and(brjs).containsFolder("apps")
@@ -381,4 +391,127 @@ public class AppServerTest extends SpecTest
 		then(appServer).requestForUrlReturns("/app1/giveme404", "that's a 404!");
 	}
 	
+	@Test
+	public void theServerCanBeTunedUsingTheBrjsConf() throws Exception {
+		given(brjs).containsFileWithContents("conf/brjs.conf", "jettyPort: " + appServerPort + "\n" +
+				"jettyMinThreads: 4\njettyMaxThreads: 20\njettyAcceptQueueSize: 50\njettyRequestBufferSize: 8192\njettyResponseBufferSize: 16384\n" +
+				"jettyMaxIdleTime: 10000\njettyLowResourcesMaxIdleTime: 1000\nmaxConcurrentBundleGenerations: 2")
+			.and(templates).templateGroupCreated()
+			.and(templates.template("app")).containsFile("fileForApp.txt")
+			.and(app1).hasBeenPopulated("default")
+			.and(app1).containsFileWithContents("app.conf", "localeCookieName: BRJS.LOCALE\n"
+					+ "locales: en\n"
+					+ "requirePrefix: app1")
+			.and(app1.defaultAspect()).indexPageHasContent("index page");
+		when(appServer).started();
+		then(appServer).requestForUrlReturns("/app1/", "index page");
+		
+		Server jettyServer = ((BRJSApplicationServer) appServer).getJettyServer();
+		QueuedThreadPool threadPool = (QueuedThreadPool) jettyServer.getThreadPool();
+		assertEquals(4, threadPool.getMinThreads());
+		assertEquals(20, threadPool.getMaxThreads());
+		
+		SelectChannelConnector connector = (SelectChannelConnector) jettyServer.getConnectors()[0];
+		assertEquals(50, connector.getAcceptQueueSize());
+		assertEquals(8192, connector.getRequestBufferSize());
+		assertEquals(16384, connector.getResponseBufferSize());
+		assertEquals(10000, connector.getMaxIdleTime());
+		assertEquals(1000, connector.getLowResourcesMaxIdleTime());
+	}
+	
+	@Test
+	public void bundleGenerationsAreRejectedOnceTheGenerationPoolAndItsQueueAreFull() throws Exception {
+		given(brjs).containsFileWithContents("conf/brjs.conf", "jettyPort: " + appServerPort + "\n" +
+				"maxConcurrentBundleGenerations: 1\nbundleGenerationQueueSize: 1")
+			.and(brjs).usedForServletModel()
+			.and(brjs).hasVersion("123")
+			.and(templates).templateGroupCreated()
+			.and(templates.template("app")).containsFile("fileForApp.txt")
+			.and(app1).hasBeenPopulated("default")
+			.and(app1).containsFileWithContents("app.conf", "localeCookieName: BRJS.LOCALE\n"
+					+ "locales: en\n"
+					+ "requirePrefix: app1")
+			.and(appServer).started();
+		
+		String blockingRequestUrl = "http://localhost:" + appServerPort + "/app1/v/123/mock-content-plugin/blocking/";
+		Thread blockingRequestThread = new Thread(() -> {
+			try {
+				getResponseCode(blockingRequestUrl + "generating.js", 0);
+			}
+			catch (IOException e) {
+				// the request is only made to occupy the generation pool
+			}
+		});
+		blockingRequestThread.start();
+		
+		try {
+			assertTrue(mockContentPlugin.awaitBlockingRequest(10000));
+			
+			// the first of these requests is queued (and times out), since only one generation can wait for the generation pool, and each of
+			// them is for a different path since concurrent requests for the same path wait for a single generation rather than being queued
+			int responseCode = -1;
+			for (int i = 0; i < 5 && responseCode != HttpServletResponse.SC_SERVICE_UNAVAILABLE; i++) {
+				try {
+					responseCode = getResponseCode(blockingRequestUrl + "queued" + i + ".js", 1000);
+				}
+				catch (SocketTimeoutException e) {
+				}
+			}
+			assertEquals(HttpServletResponse.SC_SERVICE_UNAVAILABLE, responseCode);
+		}
+		finally {
+			mockContentPlugin.releaseBlockingRequests();
+			blockingRequestThread.join();
+		}
+	}
+	
+	@Test
+	public void devServletResponsesCanBeGeneratedUsingAGenerationPool() throws Exception {
+		given(app1).hasBeenCreated()
+			.and(app1.defaultAspect()).indexPageHasContent("index page")
+			.and(app1Conf).supportsLocales("en")
+			.and(app1).containsFileWithContents("WEB-INF/web.xml", 
+					"<?xml version='1.0'?>\n"+
+			"<web-app xmlns='http://java.sun.com/xml/ns/javaee' xmlns:xsi='http://www.w3.org/2001/XMLSchema-instance'\n"+
+			"	xsi:schemaLocation='http://java.sun.com/xml/ns/javaee http://java.sun.com/xml/ns/javaee/web-app_2_5.xsd' version='2.5'>\n"+
+			"	<servlet>\n"+
+			"		<servlet-name>BRJSDevServlet</servlet-name>\n"+
+			"		<servlet-class>org.bladerunnerjs.appserver.BRJSDevServlet</servlet-class>\n"+
+			"		<init-param>\n"+
+			"			<param-name>generationPoolSize</param-name>\n"+
+			"			<param-value>2</param-value>\n"+
+			"		</init-param>\n"+
+			"		<load-on-startup>1</load-on-startup>\n"+
+			"	</servlet>\n"+
+			"	<servlet-mapping>\n"+
+			"		<servlet-name>BRJSDevServlet</servlet-name>\n"+
+			"		<url-pattern>/brjs/*</url-pattern>\n"+
+			"	</servlet-mapping>\n"+
+			"	<filter>\n"+
+			"		<filter-name>BRJSDevServletFilter</filter-name>\n"+ 
+			"		<filter-class>org.bladerunnerjs.appserver.BRJSDevServletFilter</filter-class>\n"+
+			"	</filter>\n"+
+			"	<filter-mapping>\n"+
+			"		<filter-name>BRJSDevServletFilter</filter-name>\n"+ 
+			"		<url-pattern>/*</url-pattern> \n"+
+			"		<dispatcher>REQUEST</dispatcher>\n"+
+			"		<dispatcher>FORWARD</dispatcher>\n"+
+			"	</filter-mapping>\n"+
+			"</web-app>");
+		when(appServer).started();
+		then(appServer).requestForUrlReturns("/app1/", "index page")
+			.and(appServer).requestForUrlReturns("/app1/", "index page");
+	}
+	
+	private int getResponseCode(String url, int readTimeout) throws IOException {
+		HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+		connection.setReadTimeout(readTimeout);
+		try {
+			return connection.getResponseCode();
+		}
+		finally {
+			connection.disconnect();
+		}
+	}
+	
 }
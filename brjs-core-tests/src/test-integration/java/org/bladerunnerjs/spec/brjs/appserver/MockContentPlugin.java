@@ -3,6 +3,8 @@ package org.bladerunnerjs.spec.brjs.appserver;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import org.bladerunnerjs.api.BRJS;
 import org.bladerunnerjs.api.BundleSet;
@@ -24,6 +26,8 @@ public class MockContentPlugin extends AbstractContentPlugin implements Routable
 {
 	private ContentPathParser contentPathParser;
 	private List<String> prodRequestPaths = new ArrayList<>();
+	private final CountDownLatch blockingRequestStarted = new CountDownLatch(1);
+	private final CountDownLatch blockingRequestReleased = new CountDownLatch(1);
 	
 	{
 		try {
@@ -31,7 +35,9 @@ public class MockContentPlugin extends AbstractContentPlugin implements Routable
 			contentPathParserBuilder
 				.accepts("mock-content-plugin/").as("request")
 					.and("mock-content-plugin/some/other/path/").as("long-request")
-					.and("/mock-content-plugin/unversioned/url").as("unversioned-request");
+					.and("/mock-content-plugin/unversioned/url").as("unversioned-request")
+					.and("mock-content-plugin/blocking/<name>.js").as("blocking-request")
+				.where("name").hasForm(ContentPathParserBuilder.NAME_TOKEN);
 			
 			contentPathParser = contentPathParserBuilder.build();
 			prodRequestPaths.add(contentPathParser.createRequest("request"));
@@ -61,9 +67,28 @@ public class MockContentPlugin extends AbstractContentPlugin implements Routable
 	@Override
 	public ResponseContent handleRequest(String contentPath, BundleSet bundleSet, UrlContentAccessor contentAccessor, String version) throws MalformedRequestException, ContentProcessingException
 	{
+		if (contentPathParser.parse(contentPath).formName.equals("blocking-request")) {
+			blockingRequestStarted.countDown();
+			try {
+				blockingRequestReleased.await();
+			}
+			catch (InterruptedException e) {
+				throw new ContentProcessingException(e);
+			}
+		}
 		return new CharResponseContent( bundleSet.bundlableNode().root(), this.getClass().getCanonicalName() );
 	}
 
+	public boolean awaitBlockingRequest(long timeoutMillis) throws InterruptedException
+	{
+		return blockingRequestStarted.await(timeoutMillis, TimeUnit.MILLISECONDS);
+	}
+	
+	public void releaseBlockingRequests()
+	{
+		blockingRequestReleased.countDown();
+	}
+	
 	@Override
 	public List<String> getValidContentPaths(BundleSet bundleSet, RequestMode requestMode, Locale... locales) throws ContentProcessingException
 	{
@@ -108,6 +108,20 @@ public class ServedAppTest extends SpecTest
 		then(appServer).requestForUrlReturns("/app/", "aspect index.html");
 	}
 	
+	@Test
+	public void changesToTheIndexPageAreServedOnceTheFileHasChanged() throws Exception
+	{
+		given(app).hasBeenPopulated("default")
+			.and(app).containsFileWithContents("app.conf", "localeCookieName: BRJS.LOCALE\n"
+					+ "locales: en\n"
+					+ "requirePrefix: appns")
+			.and(aspect).containsFileWithContents("index.html", "aspect index.html")
+			.and(appServer).started();
+		when(appServer).requestIsMadeFor("/app/", response)
+			.and(aspect).indexPageHasContent("updated index.html");
+		then(appServer).requestForUrlReturns("/app/", "updated index.html");
+	}
+	
 	@Test
 	public void tokensInIndexJspAreReplaced() throws Exception
 	{
@@ -380,6 +394,19 @@ public class ServedAppTest extends SpecTest
 		then(appServer).requestForUrlReturns("/app/unbundled-resources/file.txt", "unbundled resources file content");
 	}
 	
+	@Test
+	public void unbundledResourcesAreServedWithTheirContentLength() throws Exception
+	{
+		given(app).hasBeenPopulated("default")
+			.and(app).containsFileWithContents("app.conf", "localeCookieName: BRJS.LOCALE\n"
+				+ "locales: en\n"
+				+ "requirePrefix: appns")
+			.and(aspect).containsFileWithContents("unbundled-resources/file.txt", "unbundled resources file content")
+			.and(appServer).started();
+		then(appServer).requestForUrlReturns("/app/v/123/unbundled-resources/file.txt", "unbundled resources file content")
+			.and(appServer).contentLengthForRequestIs("/app/v/123/unbundled-resources/file.txt", "unbundled resources file content".getBytes().length);
+	}
+	
 	@Test
 	public void optionalAspectCanBeUsedAsDefaultAspect() throws Exception
 	{
@@ -81,6 +81,17 @@ public class FileModificationRegistryTest
 		assertEquals(1, fileModificationRegistry.getFileVersion(secondRootDir));
 	}
 	
+	@Test
+	public void changesWithinIgnoredDirsDontUpdateAnyVersions() throws Exception
+	{
+		fileModificationRegistry.ignoreFilesWithin(dirInRoot);
+		fileModificationRegistry.incrementFileVersion(fileInChildDir);
+		fileModificationRegistry.incrementFileVersion(dirInRoot);
+		assertEquals(0, fileModificationRegistry.getFileVersion(fileInChildDir));
+		assertEquals(0, fileModificationRegistry.getFileVersion(dirInRoot));
+		assertEquals(0, fileModificationRegistry.getFileVersion(testRootDir));
+	}
+	
 	
 	
 	private class MatchFileFilter extends AbstractFileFilter implements IOFileFilter {
@@ -0,0 +1,77 @@
+package org.bladerunnerjs.api.plugin;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.bladerunnerjs.model.BRJSTestModelFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class FileResponseContentTest
+{
+	private File testRootDir;
+	private File file;
+	private File outputFile;
+	private FileResponseContent fileResponseContent;
+	
+	@Before
+	public void setup() throws Exception {
+		testRootDir = BRJSTestModelFactory.createRootTestDir();
+		file = new File(testRootDir, "file.txt");
+		outputFile = new File(testRootDir, "output.txt");
+		FileUtils.write(file, "0123456789", "UTF-8");
+		fileResponseContent = new FileResponseContent(file);
+	}
+	
+	@After
+	public void tearDown() {
+		FileUtils.deleteQuietly(testRootDir);
+	}
+	
+	@Test
+	public void theWholeFileIsWrittenToAStream() throws Exception {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		fileResponseContent.write(outputStream);
+		assertEquals("0123456789", outputStream.toString("UTF-8"));
+	}
+	
+	@Test
+	public void aRangeOfTheFileIsWrittenToAStream() throws Exception {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		fileResponseContent.write(outputStream, 2, 5);
+		assertEquals("23456", outputStream.toString("UTF-8"));
+	}
+	
+	@Test
+	public void theWholeFileIsWrittenToAFile() throws Exception {
+		try (FileOutputStream outputStream = new FileOutputStream(outputFile)) {
+			fileResponseContent.write(outputStream);
+		}
+		assertEquals("0123456789", FileUtils.readFileToString(outputFile, "UTF-8"));
+	}
+	
+	@Test
+	public void aRangeOfTheFileIsAppendedToAFile() throws Exception {
+		try (FileOutputStream outputStream = new FileOutputStream(outputFile)) {
+			outputStream.write("range: ".getBytes("UTF-8"));
+			fileResponseContent.write(outputStream, 2, 5);
+			outputStream.write(" end".getBytes("UTF-8"));
+		}
+		assertEquals("range: 23456 end", FileUtils.readFileToString(outputFile, "UTF-8"));
+	}
+	
+	@Test
+	public void rangesBeyondTheEndOfATruncatedFileStopAtTheEndOfTheFile() throws Exception {
+		try (FileOutputStream outputStream = new FileOutputStream(outputFile)) {
+			fileResponseContent.write(outputStream, 8, 5);
+		}
+		assertEquals("89", FileUtils.readFileToString(outputFile, "UTF-8"));
+	}
+	
+}
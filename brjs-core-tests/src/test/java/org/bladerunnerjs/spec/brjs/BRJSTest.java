@@ -13,12 +13,17 @@ import static org.bladerunnerjs.api.BRJS.Messages.*;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.filefilter.TrueFileFilter;
+import org.bladerunnerjs.api.memoization.FileModificationRegistry;
 import org.bladerunnerjs.model.NamedDirNode;
 import org.bladerunnerjs.model.engine.ValidAppDirFileFilter;
 import org.bladerunnerjs.model.events.CommandExecutedEvent;
 import org.bladerunnerjs.plugin.brjsconformant.BRJSConformantAssetPlugin;
+import org.bladerunnerjs.utility.DependencyExtractionIndex;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -308,4 +313,23 @@ public class BRJSTest extends SpecTest {
 		assertEquals(sdkFileVersion, brjs.getFileModificationRegistry().getFileVersion(testRootDirectory));
 	}
 	
+	@Test
+	public void dependencyIndexWritesDontIncrementTheBrjsOrGeneratedDirVersions() throws Exception
+	{
+		FileModificationRegistry fileModificationRegistry = brjs.getFileModificationRegistry();
+		File generatedDir = brjs.file("generated");
+		long brjsDirVersion = fileModificationRegistry.getFileVersion(brjs.dir());
+		long generatedDirVersion = fileModificationRegistry.getFileVersion(generatedDir);
+		
+		DependencyExtractionIndex dependencyExtractionIndex = brjs.dependencyExtractionIndex();
+		dependencyExtractionIndex.putEntry(dependencyExtractionIndex.contentKey("extractor", "content"), Collections.singletonMap("section", Arrays.asList("value")));
+		// notify the registry of each of the index's files, as the file observer would
+		for (File indexFile : FileUtils.listFilesAndDirs(brjs.storageDir(DependencyExtractionIndex.INDEX_DIR_NAME), TrueFileFilter.INSTANCE, TrueFileFilter.INSTANCE)) {
+			fileModificationRegistry.incrementFileVersion(indexFile);
+		}
+		
+		assertEquals(brjsDirVersion, fileModificationRegistry.getFileVersion(brjs.dir()));
+		assertEquals(generatedDirVersion, fileModificationRegistry.getFileVersion(generatedDir));
+	}
+	
 }
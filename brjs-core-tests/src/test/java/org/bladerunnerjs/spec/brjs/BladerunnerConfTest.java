@@ -1,5 +1,7 @@
 package org.bladerunnerjs.spec.brjs;
 
+import static org.junit.Assert.assertEquals;
+
 import org.bladerunnerjs.api.model.exception.ConfigException;
 import org.bladerunnerjs.api.spec.engine.SpecTest;
 import org.junit.Before;
@@ -104,6 +106,45 @@ public class BladerunnerConfTest extends SpecTest {
 		then(exceptions).verifyException(ConfigException.class, brjs.file("conf/brjs.conf").getPath(), unquoted("Unable to convert value to required type \"int\""));
 	}
 	
+	@Test
+	public void serverTuningSettingsCanBeReadFromTheConf() throws Exception {
+		given(brjs).containsFileWithContents("conf/brjs.conf", "jettyPort: 7070\njettyMinThreads: 5\njettyMaxThreads: 50\njettyAcceptQueueSize: 100\n" +
+				"jettyRequestBufferSize: 8192\njettyResponseBufferSize: 16384\njettyMaxIdleTime: 30000\njettyLowResourcesMaxIdleTime: 5000\n" +
+				"maxConcurrentBundleGenerations: 4\nbundleGenerationQueueSize: 10");
+		assertEquals(5, brjs.bladerunnerConf().getJettyMinThreads());
+		assertEquals(50, brjs.bladerunnerConf().getJettyMaxThreads());
+		assertEquals(100, brjs.bladerunnerConf().getJettyAcceptQueueSize());
+		assertEquals(8192, brjs.bladerunnerConf().getJettyRequestBufferSize());
+		assertEquals(16384, brjs.bladerunnerConf().getJettyResponseBufferSize());
+		assertEquals(30000, brjs.bladerunnerConf().getJettyMaxIdleTime());
+		assertEquals(5000, brjs.bladerunnerConf().getJettyLowResourcesMaxIdleTime());
+		assertEquals(4, brjs.bladerunnerConf().getMaxConcurrentBundleGenerations());
+		assertEquals(10, brjs.bladerunnerConf().getBundleGenerationQueueSize());
+	}
+	
+	@Test
+	public void serverTuningSettingsDefaultToZeroSoTheJettyDefaultsAreUsed() throws Exception {
+		given(brjs).containsFileWithContents("conf/brjs.conf", "jettyPort: 7070");
+		assertEquals(0, brjs.bladerunnerConf().getJettyMaxThreads());
+		assertEquals(0, brjs.bladerunnerConf().getJettyMaxIdleTime());
+		assertEquals(0, brjs.bladerunnerConf().getMaxConcurrentBundleGenerations());
+		assertEquals(0, brjs.bladerunnerConf().getBundleGenerationQueueSize());
+	}
+	
+	@Test
+	public void negativeServerTuningValuesCauseAnException() throws Exception {
+		given(brjs).containsFileWithContents("conf/brjs.conf", "jettyPort: 7070\njettyMaxIdleTime: -1");
+		when(brjs).bladerunnerConf();
+		then(exceptions).verifyException(ConfigException.class, brjs.file("conf/brjs.conf").getPath(), unquoted("jettyMaxIdleTime' must be greater than or equal to 0"));
+	}
+	
+	@Test
+	public void jettyMaxThreadsLessThanJettyMinThreadsCauseAnException() throws Exception {
+		given(brjs).containsFileWithContents("conf/brjs.conf", "jettyPort: 7070\njettyMinThreads: 20\njettyMaxThreads: 10");
+		when(brjs).bladerunnerConf();
+		then(exceptions).verifyException(ConfigException.class, brjs.file("conf/brjs.conf").getPath(), "jettyMaxThreads", "10", "jettyMinThreads", "20");
+	}
+	
 	@Test
 	public void invalidEncodingValuesWillCauseAnException() throws Exception {
 		given(brjs).containsFileWithContents("conf/brjs.conf", "defaultFileCharacterEncoding: ZZZ-8\njettyPort: 7070\nloginRealm: BladeRunnerLoginRealm");
@@ -50,6 +50,26 @@ public class AspectBundlingOfAspectSource extends SpecTest {
 		then(response).containsText("£$€");
 	}
 	
+	@Test
+	public void largeDependencyTreesAreBundledInDependencyOrderWhenDependenciesAreCalculatedInParallel() throws Exception {
+		given(brjs.bladerunnerConf()).dependencyScanThreadsIs(4)
+			.and(aspect).indexPageRequires("appns/Class0");
+		for (int i = 0; i < 127; i++) {
+			String classContent = (i < 63) ? "require('appns/Class" + (2 * i + 1) + "'); require('appns/Class" + (2 * i + 2) + "');" : "";
+			given(aspect).containsFileWithContents("src/Class" + i + ".js", classContent);
+		}
+		when(aspect).requestReceivedInDev("js/dev/combined/bundle.js", response);
+		then(response).containsDefinedClasses("appns/Class0", "appns/Class62", "appns/Class63", "appns/Class126")
+			.and(response).containsOrderedTextFragments(
+				"define('appns/Class63', ",
+				"define('appns/Class31', ",
+				"define('appns/Class15', ",
+				"define('appns/Class7', ",
+				"define('appns/Class3', ",
+				"define('appns/Class1', ",
+				"define('appns/Class0', ");
+	}
+	
 	@Test
 	public void weBundleAnAspectClassIfItIsReferredToInTheIndexPage() throws Exception {
 		given(aspect).hasClass("appns/Class1")
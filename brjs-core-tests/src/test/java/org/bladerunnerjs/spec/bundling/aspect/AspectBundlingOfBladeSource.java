@@ -61,6 +61,23 @@ public class AspectBundlingOfBladeSource extends SpecTest {
 		then(response).containsText("Class2 = function(){};");
 	}
 	
+	@Test
+	public void classesFromManyBladesAreBundledWhenAssetsAreDiscoveredInParallel() throws Exception {
+		StringBuilder aspectClassContent = new StringBuilder();
+		given(brjs.bladerunnerConf()).dependencyScanThreadsIs(4)
+			.and(aspect).indexPageRequires("appns/App");
+		for (int i = 0; i < 10; i++) {
+			given(bladeset.blade("b" + i)).containsFileWithContents("src/appns/bs/b" + i + "/Class1.js", "module.exports = 'blade " + i + "';");
+			aspectClassContent.append("require('appns/bs/b" + i + "/Class1');\n");
+		}
+		given(aspect).containsFileWithContents("src/appns/App.js", aspectClassContent.toString());
+		when(aspect).requestReceivedInDev("js/dev/combined/bundle.js", response);
+		then(response).containsDefinedClasses("appns/bs/b0/Class1", "appns/bs/b5/Class1", "appns/bs/b9/Class1", "appns/App")
+			.and(response).containsOrderedTextFragments(
+				"define('appns/bs/b9/Class1', ",
+				"define('appns/App', ");
+	}
+	
 	@Test
 	public void weBundleABladeClassIfItIsReferredToInTheIndexPage() throws Exception {
 		given(blade).hasClass("appns/bs/b1/Class1")
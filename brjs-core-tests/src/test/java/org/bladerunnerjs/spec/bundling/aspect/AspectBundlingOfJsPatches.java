@@ -73,5 +73,15 @@ public class AspectBundlingOfJsPatches extends SpecTest {
     		.and(aspect).requestReceivedInDev("js/dev/combined/bundle.js", response);
     	then(response).containsCommonJsClasses("sdkLib.Class2");
 	}
-	
+
+	@Test
+	public void patchesCreatedAfterTheBundleHasBeenRequestedAreIncludedInTheBundle() throws Exception {
+		given(sdkJsLib).hasClasses("sdkLib/Class")
+			.and(aspect).indexPageRequires("sdkLib/Class")
+			.and(aspect).hasReceivedRequest("js/dev/combined/bundle.js");
+		when(brjs).containsFileWithContents("js-patches/sdkLib/Class.js", "sdkLib.Class.patch = function() {}")
+			.and(aspect).requestReceivedInDev("js/dev/combined/bundle.js", response);
+		then(response).containsText("sdkLib.Class.patch = function() {}");
+	}
+
 }
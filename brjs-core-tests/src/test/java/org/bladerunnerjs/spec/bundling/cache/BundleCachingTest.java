@@ -5,6 +5,8 @@ import org.bladerunnerjs.api.Aspect;
 import org.bladerunnerjs.api.Blade;
 import org.bladerunnerjs.api.Bladeset;
 import org.bladerunnerjs.api.JsLib;
+import org.bladerunnerjs.api.model.exception.UnresolvableRequirePathException;
+import org.bladerunnerjs.api.model.exception.request.ContentProcessingException;
 import org.bladerunnerjs.api.spec.engine.SpecTest;
 import org.bladerunnerjs.model.SdkJsLib;
 import org.junit.Before;
@@ -86,6 +88,19 @@ public class BundleCachingTest extends SpecTest
 			.and(response).containsCommonJsClasses("appns.Class2");
 	}
 	
+	@Test
+	public void filesWithTheSameContentInAppsWithDifferentClassesHaveTheirOwnDependencies() throws Exception {
+		App app2 = brjs.app("app2");
+		Aspect app2Aspect = app2.aspect("default");
+		given(aspect).hasClasses("appns/Class1")
+			.and(aspect).resourceFileRefersTo("html/view.html", "appns.Class1 appns.Class2")
+			.and(app2Aspect).hasClasses("appns/Class1", "appns/Class2")
+			.and(app2Aspect).resourceFileRefersTo("html/view.html", "appns.Class1 appns.Class2")
+			.and(aspect).hasReceivedRequest("js/dev/combined/bundle.js");
+		when(app2Aspect).requestReceivedInDev("js/dev/combined/bundle.js", response);
+		then(response).containsCommonJsClasses("appns.Class1", "appns.Class2");
+	}
+	
 	@Test
 	public void weDetectWhenResourceSubDirectoriesHaveNewResourcesAddedToBundle() throws Exception {
 		given(aspect).containsResourceFileWithContents("html/view.html", "<div id='appns.view'>TESTCONTENT</div>")
@@ -215,6 +230,21 @@ public class BundleCachingTest extends SpecTest
     		.and(secondResponse).doesNotContainText("lib.Lib = require(");
 	}
 	
+	@Test
+	public void jsStyleFilesAddedToAPackageWithinALibraryDuringRuntimeOverrideTheLibraryJsStyle() throws Exception {
+		given(aspect).hasCommonJsPackageStyle()
+			.and(library).hasBeenCreated()
+			.and(library).hasCommonJsPackageStyle()
+			.and(library).hasClass("lib/Lib")
+			.and(aspect).classFileHasContent("appns.Class1", "require('lib/Lib');")
+			.and(aspect).indexPageRefersTo("appns.Class1")
+			.and(app).hasReceivedRequest("v/dev/js/dev/combined/bundle.js", initialResponse);
+		when(library).hasNamespacedJsPackageStyle("src/lib")
+			.and(aspect).requestReceivedInDev("js/dev/combined/bundle.js", secondResponse);
+		then(initialResponse).doesNotContainText("lib.Lib =")
+			.and(secondResponse).containsText("lib.Lib =");
+	}
+
 	@Test
 	public void jsStyleChangesAreProperlyDetectedIfTheFileChangesDirectlyOnDisk() throws Exception {
 		given(aspect).hasCommonJsPackageStyle()
@@ -233,4 +263,58 @@ public class BundleCachingTest extends SpecTest
     		.and(secondResponse).doesNotContainText("lib.Lib = require(");
 	}	
 	
+	@Test
+	public void changesToTheDependenciesOfAClassInOneBladeAreReflectedWithoutOtherClassesChanging() throws Exception {
+		given(aspect).classFileHasContent("appns/Class1", "require('appns/widget/time/Class1');")
+			.and(blade).classFileHasContent("appns/widget/time/Class1", "require('appns/widget/time/Class2');")
+			.and(blade).classFileHasContent("appns/widget/time/Class2", "this is class2")
+			.and(blade).classFileHasContent("appns/widget/time/Class3", "this is class3")
+			.and(aspect).indexPageRequires("appns/Class1")
+			.and(app).hasReceivedRequest("v/dev/js/dev/combined/bundle.js", initialResponse);
+		when(blade).containsFileWithContents("src/appns/widget/time/Class1.js", "require('appns/widget/time/Class3');")
+			.and(aspect).requestReceivedInDev("js/dev/combined/bundle.js", secondResponse);
+		then(initialResponse).containsDefinedClasses("appns/Class1", "appns/widget/time/Class1", "appns/widget/time/Class2")
+			.and(secondResponse).containsOrderedTextFragments(
+				"define('appns/widget/time/Class3', ",
+				"define('appns/widget/time/Class1', ",
+				"define('appns/Class1', ")
+			.and(secondResponse).doesNotContainText("this is class2");
+	}
+	
+	@Test
+	public void filesChangedAfterAFailedBuildAreStillRebuilt() throws Exception {
+		given(aspect).classFileHasContent("appns/Class1", "require('appns/Class2');")
+			.and(aspect).classFileHasContent("appns/Class2", "require('appns/Class3');")
+			.and(aspect).classFileHasContent("appns/Class3", "this is class3")
+			.and(aspect).classFileHasContent("appns/Class4", "this is class4")
+			.and(aspect).indexPageRequires("appns/Class1")
+			.and(app).hasReceivedRequest("v/dev/js/dev/combined/bundle.js", initialResponse);
+		when(aspect).containsFileWithContents("src/appns/Class1.js", "require('appns/NonExistentClass');")
+			.and(aspect).requestReceivedInDev("js/dev/combined/bundle.js", response)
+			.and(aspect).containsFileWithContents("src/appns/Class1.js", "require('appns/Class2');")
+			.and(aspect).containsFileWithContents("src/appns/Class2.js", "require('appns/Class4');")
+			.and(aspect).requestReceivedInDev("js/dev/combined/bundle.js", secondResponse);
+		then(exceptions).verifyException(UnresolvableRequirePathException.class, "appns/NonExistentClass")
+			.whereTopLevelExceptionIs(ContentProcessingException.class)
+			.and(initialResponse).containsText("this is class3")
+			.and(secondResponse).containsOrderedTextFragments(
+				"define('appns/Class4', ",
+				"define('appns/Class2', ",
+				"define('appns/Class1', ")
+			.and(secondResponse).doesNotContainText("this is class3");
+	}
+	
+	@Test
+	public void orderingIsRecalculatedWhenARequireChangesFromUseTimeToDefineTime() throws Exception {
+		given(aspect).classFileHasContent("appns/Class1", "function f() { require('appns/Class2'); }")
+			.and(aspect).classFileHasContent("appns/Class2", "require('appns/Class1');")
+			.and(aspect).indexPageRequires("appns/Class2")
+			.and(app).hasReceivedRequest("v/dev/js/dev/combined/bundle.js", initialResponse);
+		when(aspect).containsFileWithContents("src/appns/Class1.js", "require('appns/Class2');")
+			.and(aspect).containsFileWithContents("src/appns/Class2.js", "function f() { require('appns/Class1'); }")
+			.and(aspect).requestReceivedInDev("js/dev/combined/bundle.js", secondResponse);
+		then(initialResponse).containsOrderedTextFragments("define('appns/Class1', ", "define('appns/Class2', ")
+			.and(secondResponse).containsOrderedTextFragments("define('appns/Class2', ", "define('appns/Class1', ");
+	}
+	
 }
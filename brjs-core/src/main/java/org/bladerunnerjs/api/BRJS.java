@@ -6,6 +6,7 @@ import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 import javax.naming.InvalidNameException;
 
@@ -42,6 +43,8 @@ import org.bladerunnerjs.model.engine.NodeList;
 import org.bladerunnerjs.plugin.utility.CommandList;
 import org.bladerunnerjs.plugin.utility.PluginAccessor;
 import org.bladerunnerjs.utility.CommandRunner;
+import org.bladerunnerjs.utility.DependencyExtractionIndex;
+import org.bladerunnerjs.utility.JsPatchesIndex;
 import org.bladerunnerjs.utility.JsStyleAccessor;
 import org.bladerunnerjs.utility.FileObserverFactory;
 import org.bladerunnerjs.utility.LoggerFactory;
@@ -93,6 +96,9 @@ public class BRJS extends AbstractBRJSRootNode
 	private final FileModificationRegistry fileModificationRegistry;
 	private FileObserver fileObserver;
 	private final JsStyleAccessor jsStyleAccessor = new JsStyleAccessor(this);
+	private final JsPatchesIndex jsPatchesIndex = new JsPatchesIndex(this);
+	private DependencyExtractionIndex dependencyExtractionIndex;
+	private ForkJoinPool dependencyScanPool;
 
 	private BladerunnerConf bladerunnerConf;
 	private TestRunnerConf testRunnerConf;
@@ -132,6 +138,7 @@ public class BRJS extends AbstractBRJSRootNode
 			logger.info(Messages.PERFORMING_NODE_DISCOVERY_LOG_MSG);
 			registerNode(this);
 			fileModificationRegistryRootFileFilter.addRootFile(rootStorageDir());
+			fileModificationRegistry.ignoreFilesWithin(storageDir(DependencyExtractionIndex.INDEX_DIR_NAME));
 		}
 		catch (NodeAlreadyRegisteredException e)
 		{
@@ -212,6 +219,12 @@ public class BRJS extends AbstractBRJSRootNode
 		if (fileObserver != null) {
 			fileObserver.stop();
 		}
+		synchronized (this) {
+			if (dependencyScanPool != null) {
+				dependencyScanPool.shutdown();
+				dependencyScanPool = null;
+			}
+		}
 		closed  = true;
 	}
 	
@@ -244,6 +257,26 @@ public class BRJS extends AbstractBRJSRootNode
 		return jsStyleAccessor;
 	}
 	
+	public JsPatchesIndex jsPatchesIndex() {
+		return jsPatchesIndex;
+	}
+	
+	public synchronized DependencyExtractionIndex dependencyExtractionIndex() {
+		if (dependencyExtractionIndex == null) {
+			dependencyExtractionIndex = new DependencyExtractionIndex( storageDir(DependencyExtractionIndex.INDEX_DIR_NAME).getUnderlyingFile(), versionInfo().getVersionNumber() );
+			dependencyExtractionIndex.pruneUnusedEntriesIfDue();
+		}
+		return dependencyExtractionIndex;
+	}
+	
+	public synchronized ForkJoinPool dependencyScanPool() throws ConfigException {
+		if (dependencyScanPool == null) {
+			int dependencyScanThreads = bladerunnerConf().getDependencyScanThreads();
+			dependencyScanPool = new ForkJoinPool( (dependencyScanThreads == 0) ? Runtime.getRuntime().availableProcessors() : dependencyScanThreads );
+		}
+		return dependencyScanPool;
+	}
+	
 	public List<App> apps()
 	{
 		Map<String,App> apps = new LinkedHashMap<>();
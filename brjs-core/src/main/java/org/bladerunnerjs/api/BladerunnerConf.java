@@ -35,6 +35,51 @@ public class BladerunnerConf extends ConfFile<YamlBladerunnerConf> {
 		verifyAndAutoWrite();
 	}
 
+	public int getDependencyScanThreads() throws ConfigException {
+		return getConf().dependencyScanThreads;
+	}
+	
+	public void setDependencyScanThreads(int dependencyScanThreads) throws ConfigException {
+		getConf().dependencyScanThreads = dependencyScanThreads;
+		verifyAndAutoWrite();
+	}
+
+	public int getJettyMinThreads() throws ConfigException {
+		return getConf().jettyMinThreads;
+	}
+	
+	public int getJettyMaxThreads() throws ConfigException {
+		return getConf().jettyMaxThreads;
+	}
+	
+	public int getJettyAcceptQueueSize() throws ConfigException {
+		return getConf().jettyAcceptQueueSize;
+	}
+	
+	public int getJettyRequestBufferSize() throws ConfigException {
+		return getConf().jettyRequestBufferSize;
+	}
+	
+	public int getJettyResponseBufferSize() throws ConfigException {
+		return getConf().jettyResponseBufferSize;
+	}
+	
+	public int getJettyMaxIdleTime() throws ConfigException {
+		return getConf().jettyMaxIdleTime;
+	}
+	
+	public int getJettyLowResourcesMaxIdleTime() throws ConfigException {
+		return getConf().jettyLowResourcesMaxIdleTime;
+	}
+	
+	public int getMaxConcurrentBundleGenerations() throws ConfigException {
+		return getConf().maxConcurrentBundleGenerations;
+	}
+	
+	public int getBundleGenerationQueueSize() throws ConfigException {
+		return getConf().bundleGenerationQueueSize;
+	}
+	
 	public String getLoginRealm() throws ConfigException
 	{
 		return getConf().loginRealm;
@@ -27,6 +27,16 @@ public interface BundlableNode extends Node, AssetContainer {
 	 */
 	LinkedAsset getLinkedAsset(String requirePath) throws RequirePathException;
 	
+	/**
+	 * The method retrieves the {@link Asset} available via the given require path from the asset containers within the scope of the
+	 * current BundlableNode.
+	 * 
+	 * @param requirePath the canonical require path of the asset
+	 * @return the Asset available via the require path, or null if no asset container in scope provides it
+	 * @throws RequirePathException if more than one asset container in scope provides the require path
+	 */
+	Asset scopeAsset(String requirePath) throws RequirePathException;
+	
 	/**
 	 * The method retrieves the a List of {@link LinkedAsset} that are located within the current BundableNode.
 	 * 
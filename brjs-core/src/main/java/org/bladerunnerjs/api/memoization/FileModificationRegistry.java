@@ -11,6 +11,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.apache.commons.io.filefilter.AndFileFilter;
 import org.apache.commons.io.filefilter.DelegateFileFilter;
@@ -29,6 +30,7 @@ public class FileModificationRegistry
 	private Map<String,FileVersion> lastModifiedMap = new ConcurrentHashMap<>();
 	private FileFilter rootFileFilter;
 	private FileFilter globalFileFilter;
+	private List<String> ignoredDirPaths = new CopyOnWriteArrayList<>();
 
 	public FileModificationRegistry(FileFilter rootFileFilter, FileFilter globalFileFilter) {
 		this.rootFileFilter = rootFileFilter;
@@ -43,7 +45,20 @@ public class FileModificationRegistry
 		return getOrCreateVersionValue(file);
 	}
 	
+	/**
+	 * Causes changes to the given directory, or to anything beneath it, to be ignored. This is used for directories that BRJS itself writes
+	 * to (e.g. the dependency extraction index) and that nothing is memoized against, so that writing to them doesn't invalidate memoized
+	 * values scoped to their parent directories.
+	 */
+	public void ignoreFilesWithin(File dir) {
+		ignoredDirPaths.add(dir.getAbsolutePath());
+	}
+	
 	public void incrementFileVersion(File file) {
+		if (isIgnored(file)) {
+			return;
+		}
+		
 		if (globalFileFilter.accept(file)) {
 			incrementAllFileVersions();
 		} else {
@@ -82,6 +97,16 @@ public class FileModificationRegistry
 		} while (nextFile != null && !rootFileFilter.accept(file));
 	}
 	
+	private boolean isIgnored(File file) {
+		String filePath = file.getAbsolutePath();
+		for (String ignoredDirPath : ignoredDirPaths) {
+			if (filePath.equals(ignoredDirPath) || filePath.startsWith(ignoredDirPath + File.separator)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
 	private FileVersion getOrCreateVersionValue(File file)
 	{
 		if (file instanceof MemoizedFile) {
@@ -4,14 +4,14 @@ import java.io.File;
 import java.io.FileFilter;
 import java.io.FilenameFilter;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
 import org.apache.commons.io.FilenameUtils;
-import org.apache.commons.io.filefilter.DirectoryFileFilter;
-import org.apache.commons.io.filefilter.FileFileFilter;
 import org.apache.commons.io.filefilter.FileFilterUtils;
 import org.apache.commons.io.filefilter.IOFileFilter;
 import org.apache.commons.io.filefilter.TrueFileFilter;
@@ -37,7 +37,7 @@ public class MemoizedFile extends File implements Comparable<File>
 	private MemoizedValue<Boolean> isFile;
 	private MemoizedValue<Boolean> isDirectory;
 	private MemoizedValue<Boolean> exists;
-	private MemoizedValue<List<MemoizedFile>> filesAndDirs;
+	private MemoizedValue<DirectoryListing> directoryListing;
 	
 	
 	public MemoizedFile(RootNode rootNode, String file) {
@@ -50,7 +50,7 @@ public class MemoizedFile extends File implements Comparable<File>
 		isFile = new MemoizedValue<>(className+"_"+wrappedFile.getAbsolutePath()+" isFile()", rootNode, this);
 		isDirectory = new MemoizedValue<>(className+"_"+wrappedFile.getAbsolutePath()+" isDirectory()", rootNode, this);
 		exists = new MemoizedValue<>(className+"_"+wrappedFile.getAbsolutePath()+" exists()", rootNode, this);
-		filesAndDirs = new MemoizedValue<>(className+"_"+wrappedFile.getAbsolutePath()+" filesAndDirs()", rootNode, this);
+		directoryListing = new MemoizedValue<>(className+"_"+wrappedFile.getAbsolutePath()+" filesAndDirs()", rootNode, this);
 	}	
 	
 	// ---- Methods Using Memoized Values ----
@@ -86,24 +86,16 @@ public class MemoizedFile extends File implements Comparable<File>
 	}
 	
 	public List<MemoizedFile> filesAndDirs() {		
-		List<MemoizedFile> filesAndDirsList = filesAndDirs.value(() -> {
-			File[] wrappedListFiles = wrappedFile.listFiles();
-			if (!wrappedFile.isDirectory() || wrappedListFiles == null) {
-				return Collections.emptyList();
-			}
-			List<File> listedFiles = Arrays.asList(wrappedListFiles);
-			Collections.sort(listedFiles);
-			List<MemoizedFile> memoizedFileList = new ArrayList<>();
-			for (File file : listedFiles) {
-				memoizedFileList.add( rootNode.getMemoizedFile(file) );
-			}
-			return memoizedFileList;
-		});
-		
-		List<MemoizedFile> wrappedFilesAndDirs = new ArrayList<>();
-		wrappedFilesAndDirs.addAll( filesAndDirsList ); // return a copy so multiple callers dont have the same object by reference
-		return wrappedFilesAndDirs;
-		
+		// return a copy so multiple callers dont have the same object by reference
+		return new ArrayList<>( directoryListing().filesAndDirs );
+	}
+	
+	public List<MemoizedFile> files() {
+		return new ArrayList<>( directoryListing().files );
+	}
+	
+	public List<MemoizedFile> dirs() {
+		return new ArrayList<>( directoryListing().dirs );
 	}
 	
 	// ---- End Methods Using Memoized Values ----
@@ -163,14 +155,6 @@ public class MemoizedFile extends File implements Comparable<File>
 		return returnedFilesAndDirsCopy;
 	}
 	
-	public List<MemoizedFile> files() {
-		return filesAndDirs(FileFileFilter.FILE);
-	}
-	
-	public List<MemoizedFile> dirs() {
-		return filesAndDirs(DirectoryFileFilter.DIRECTORY);
-	}
-	
 	public List<MemoizedFile> nestedFilesAndDirs() {
 		List<MemoizedFile> nestedFilesAndDirs = new ArrayList<>();
 		populateNestedFilesAndDirs(this, nestedFilesAndDirs);
@@ -189,21 +173,13 @@ public class MemoizedFile extends File implements Comparable<File>
 	
 	public List<MemoizedFile> nestedFiles() {
 		List<MemoizedFile> nestedFiles = new ArrayList<>();
-		for(MemoizedFile file : nestedFilesAndDirs()) {
-			if(file.isFile()) {
-				nestedFiles.add(file);
-			}
-		}
+		populateNestedFiles(this, nestedFiles);
 		return nestedFiles;
 	}
 	
 	public List<MemoizedFile> nestedDirs() {
 		List<MemoizedFile> nestedDirs = new ArrayList<>();
-		for(MemoizedFile file : nestedFilesAndDirs()) {
-			if(file.isDirectory()) {
-				nestedDirs.add(file);
-			}
-		}
+		populateNestedDirs(this, nestedDirs);
 		return nestedDirs;
 	}	
 	
@@ -269,13 +245,38 @@ public class MemoizedFile extends File implements Comparable<File>
 	
 	// -- Private Stuff --
 	
+	private DirectoryListing directoryListing() {
+		return directoryListing.value(() -> {
+			return new DirectoryListing(rootNode, wrappedFile);
+		});
+	}
+	
 	private void populateNestedFilesAndDirs(MemoizedFile file, List<MemoizedFile> nestedFilesAndDirs) {
-		nestedFilesAndDirs.addAll(file.filesAndDirs());
+		DirectoryListing listing = file.directoryListing();
+		nestedFilesAndDirs.addAll(listing.filesAndDirs);
 		
-		for(MemoizedFile dir : file.dirs()) {
+		for(MemoizedFile dir : listing.dirs) {
 			populateNestedFilesAndDirs(dir, nestedFilesAndDirs);
 		}
 	}
+	
+	private void populateNestedFiles(MemoizedFile file, List<MemoizedFile> nestedFiles) {
+		DirectoryListing listing = file.directoryListing();
+		nestedFiles.addAll(listing.files);
+		
+		for(MemoizedFile dir : listing.dirs) {
+			populateNestedFiles(dir, nestedFiles);
+		}
+	}
+	
+	private void populateNestedDirs(MemoizedFile file, List<MemoizedFile> nestedDirs) {
+		DirectoryListing listing = file.directoryListing();
+		nestedDirs.addAll(listing.dirs);
+		
+		for(MemoizedFile dir : listing.dirs) {
+			populateNestedDirs(dir, nestedDirs);
+		}
+	}
 
 	public boolean isEmpty() {
 		return filesAndDirs().isEmpty();
@@ -296,4 +297,41 @@ public class MemoizedFile extends File implements Comparable<File>
 		return StringUtils.substringBeforeLast(getName(), ".");
 	}
 	
+	/*
+	 * A single pass over a directory that records which of its entries are files and which are directories, so that the entries don't
+	 * need to be checked again each time the directory is listed.
+	 */
+	private static class DirectoryListing {
+		private final List<MemoizedFile> filesAndDirs = new ArrayList<>();
+		private final List<MemoizedFile> files = new ArrayList<>();
+		private final List<MemoizedFile> dirs = new ArrayList<>();
+		
+		public DirectoryListing(RootNode rootNode, File dir) {
+			File[] listedFileArray = dir.listFiles();
+			if (!dir.isDirectory() || listedFileArray == null) {
+				return;
+			}
+			
+			List<File> listedFiles = Arrays.asList(listedFileArray);
+			Collections.sort(listedFiles);
+			for (File listedFile : listedFiles) {
+				MemoizedFile memoizedFile = rootNode.getMemoizedFile(listedFile);
+				filesAndDirs.add(memoizedFile);
+				
+				try {
+					BasicFileAttributes attributes = Files.readAttributes(listedFile.toPath(), BasicFileAttributes.class);
+					if (attributes.isRegularFile()) {
+						files.add(memoizedFile);
+					}
+					else if (attributes.isDirectory()) {
+						dirs.add(memoizedFile);
+					}
+				}
+				catch (IOException e) {
+					// the entry has been removed since the directory was listed, or can't be read, so it's neither a file or a directory
+				}
+			}
+		}
+	}
+	
 }
@@ -18,7 +18,7 @@ public class MemoizedFileAccessor
 		this.rootNode = rootNode;
 	}
 	
-	public MemoizedFile getMemoizedFile(File file) {
+	public synchronized MemoizedFile getMemoizedFile(File file) {
 		if (file == null) return null;
 		
 		MemoizedFile memoizedFile;
@@ -3,7 +3,10 @@ package org.bladerunnerjs.api.memoization;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
 
 import org.bladerunnerjs.api.logging.Logger;
 import org.bladerunnerjs.model.FileAccessLimitScope;
@@ -21,6 +24,12 @@ public class MemoizedValue<T extends Object> {
 	public static final String RECALCULATING_VALUE_MSG = "Recalculating memoized value for '%s'";
 	public static final String USING_MEMOIZED_VALUE_MSG = "Using memoized value for '%s' as no files have changed";
 	
+	/* the in-flight computation each thread is waiting for, so that threads that would end up waiting for each other compute the value themselves */
+	private static final Map<Thread, Computation> awaitedComputations = new HashMap<>();
+	/* worker threads doing part of another thread's computation, which treat that thread's in-flight computations as their own */
+	private static final Map<Thread, Thread> delegatingThreads = new HashMap<>();
+	
+	private final Object lock = new Object();
 	private final List<FileModifiedChecker> watchList = new ArrayList<>();
 	private final File[] watchItems;
 	private boolean exceptionThrownOnLastCompute;
@@ -28,6 +37,7 @@ public class MemoizedValue<T extends Object> {
 	private final RootNode rootNode;
 	private final String valueIdentifier;
 	private Logger logger;
+	private Computation computation;
 	
 	
 	public MemoizedValue(String valueIdentifier, Node node) {
@@ -79,23 +89,79 @@ public class MemoizedValue<T extends Object> {
 	 */
 	@SuppressWarnings({ "unchecked", "javadoc" })
 	public <E extends Exception> T value(Getter<E> getter) throws E {
-		if (valueNeedsToBeRecomputed()) {
-			
-			logger.debug(RECALCULATING_VALUE_MSG, valueIdentifier);
-			
-			try (FileAccessLimitScope scope = rootNode.io().limitAccessToWithin(valueIdentifier, watchItems)) {
-				exceptionThrownOnLastCompute = false;
-				value = (T) getter.get();
+		/* the value is computed without holding the lock, since computing it can need other memoized values (possibly on other threads),
+		 * and holding one monitor while waiting for others would be a lock ordering deadlock waiting to happen. Threads that need the
+		 * value while it's being computed wait for that computation rather than computing it again */
+		Computation currentComputation;
+		boolean ownsComputation = false;
+		synchronized (lock) {
+			if (computation != null && computation.startAwaiting()) {
+				currentComputation = computation;
 			}
-			catch(Throwable e) {
-				exceptionThrownOnLastCompute = true;
-				throw e;
+			else if (computation == null && !valueNeedsToBeRecomputed()) {
+				logger.debug(USING_MEMOIZED_VALUE_MSG, valueIdentifier);
+				return value;
 			}
-		} else {
-			logger.debug(USING_MEMOIZED_VALUE_MSG, valueIdentifier);
+			else {
+				// a value that's needed again while it's being computed on the same thread (or by a thread waiting for this one) is simply computed again, as it always was
+				currentComputation = null;
+				if (computation == null) {
+					computation = new Computation();
+					ownsComputation = true;
+				}
+			}
+		}
+		
+		if (currentComputation != null) {
+			return (T) currentComputation.<E>await();
 		}
 		
-		return value;
+		logger.debug(RECALCULATING_VALUE_MSG, valueIdentifier);
+		T computedValue = null;
+		Throwable computeException = null;
+		try (FileAccessLimitScope scope = rootNode.io().limitAccessToWithin(valueIdentifier, watchItems)) {
+			computedValue = (T) getter.get();
+			return computedValue;
+		}
+		catch(Throwable e) {
+			computeException = e;
+			throw e;
+		}
+		finally {
+			if (ownsComputation) {
+				completeComputation(computedValue, computeException);
+			}
+		}
+	}
+	
+	private void completeComputation(T computedValue, Throwable computeException) {
+		Computation completedComputation;
+		synchronized (lock) {
+			completedComputation = computation;
+			computation = null;
+			exceptionThrownOnLastCompute = (computeException != null);
+			if (computeException == null) {
+				value = computedValue;
+			}
+		}
+		completedComputation.complete(computedValue, computeException);
+	}
+	
+	/**
+	 * Used by work handed to other threads while a value is being computed, so that a worker needing a value the delegating thread is
+	 * part-way through computing computes it itself, rather than waiting for a computation that's waiting for the worker.
+	 * 
+	 * @param delegatingThread the thread the current thread is doing work for
+	 * @return a scope that must be closed once the work is complete
+	 */
+	public static DelegatedWorkScope delegatedWorkScope(Thread delegatingThread) {
+		Thread workerThread = Thread.currentThread();
+		synchronized (awaitedComputations) {
+			if (workerThread != delegatingThread) {
+				delegatingThreads.put(workerThread, delegatingThread);
+			}
+		}
+		return new DelegatedWorkScope(workerThread);
 	}
 	
 	private boolean valueNeedsToBeRecomputed() {
@@ -109,4 +175,84 @@ public class MemoizedValue<T extends Object> {
 		
 		return valueNeedsToBeRecomputed;
 	}
+	
+	private static class Computation {
+		private final Thread thread = Thread.currentThread();
+		private final CountDownLatch completed = new CountDownLatch(1);
+		private Object value;
+		private Throwable exception;
+		
+		public void complete(Object value, Throwable exception) {
+			this.value = value;
+			this.exception = exception;
+			completed.countDown();
+		}
+		
+		/* returns false, rather than waiting, if this computation is (indirectly) waiting for the current thread */
+		public boolean startAwaiting() {
+			Thread waitingThread = Thread.currentThread();
+			synchronized (awaitedComputations) {
+				for (Computation awaitedComputation = this; awaitedComputation != null; awaitedComputation = awaitedComputations.get(awaitedComputation.thread)) {
+					for (Thread thread = waitingThread; thread != null; thread = delegatingThreads.get(thread)) {
+						if (awaitedComputation.thread == thread) {
+							return false;
+						}
+					}
+				}
+				awaitedComputations.put(waitingThread, this);
+				return true;
+			}
+		}
+		
+		@SuppressWarnings("unchecked")
+		public <E extends Exception> Object await() throws E {
+			Thread waitingThread = Thread.currentThread();
+			boolean interrupted = false;
+			try {
+				while (true) {
+					try {
+						completed.await();
+						break;
+					}
+					catch (InterruptedException e) {
+						interrupted = true;
+					}
+				}
+			}
+			finally {
+				synchronized (awaitedComputations) {
+					awaitedComputations.remove(waitingThread);
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+			
+			if (exception instanceof RuntimeException) {
+				throw (RuntimeException) exception;
+			}
+			else if (exception instanceof Error) {
+				throw (Error) exception;
+			}
+			else if (exception != null) {
+				throw (E) exception;
+			}
+			return value;
+		}
+	}
+	
+	public static class DelegatedWorkScope implements AutoCloseable {
+		private final Thread workerThread;
+		
+		private DelegatedWorkScope(Thread workerThread) {
+			this.workerThread = workerThread;
+		}
+		
+		@Override
+		public void close() {
+			synchronized (awaitedComputations) {
+				delegatingThreads.remove(workerThread);
+			}
+		}
+	}
 }
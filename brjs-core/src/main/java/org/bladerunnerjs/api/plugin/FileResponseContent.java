@@ -0,0 +1,97 @@
+package org.bladerunnerjs.api.plugin;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Response content that is the unchanged contents of a file. Unlike {@link BinaryResponseContent} the length of the content is known before
+ * it is written, so that servers can set the <code>Content-Length</code> and answer <code>Range</code> requests, and the file is never read
+ * into memory. Outputs that are backed by a channel (e.g. the files written when an app is built) are handed the file using
+ * {@link FileChannel#transferTo}, so that the OS can copy it without it passing through the heap. Servlet output streams aren't channels,
+ * and the servlet API has no portable way of handing a file to the container, so files are streamed to them through a buffer instead.
+ */
+public class FileResponseContent implements ResponseContent
+{
+
+	private final File file;
+
+	public FileResponseContent(File file) {
+		this.file = file;
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	public long getContentLength() {
+		return file.length();
+	}
+
+	public long getLastModified() {
+		return file.lastModified();
+	}
+
+	@Override
+	public void write(OutputStream outputStream) throws IOException
+	{
+		write(outputStream, 0, getContentLength());
+	}
+
+	/**
+	 * Writes <code>length</code> bytes of the file, starting from <code>start</code>, to the specified OutputStream.
+	 */
+	public void write(OutputStream outputStream, long start, long length) throws IOException
+	{
+		try (FileInputStream fileInputStream = new FileInputStream(file))
+		{
+			WritableByteChannel outputChannel = getOutputChannel(outputStream);
+			if (outputChannel == null) {
+				// fewer bytes are copied if the file has been truncated since its length was read
+				IOUtils.copyLarge(fileInputStream, outputStream, start, length);
+			}
+			else {
+				transferTo(fileInputStream.getChannel(), outputChannel, outputStream, start, length);
+			}
+		}
+		outputStream.flush();
+	}
+
+	private static WritableByteChannel getOutputChannel(OutputStream outputStream)
+	{
+		if (outputStream instanceof FileOutputStream) {
+			return ((FileOutputStream) outputStream).getChannel();
+		}
+		return (outputStream instanceof WritableByteChannel) ? (WritableByteChannel) outputStream : null;
+	}
+	
+	private void transferTo(FileChannel fileChannel, WritableByteChannel outputChannel, OutputStream outputStream, long start, long length) throws IOException
+	{
+		long position = start;
+		long end = Math.min(start + length, fileChannel.size());
+		while (position < end) {
+			long bytesTransferred = fileChannel.transferTo(position, end - position, outputChannel);
+			if (bytesTransferred == 0) {
+				// nothing could be transferred, so the rest of the range is copied through a buffer instead
+				fileChannel.position(position);
+				IOUtils.copyLarge(Channels.newInputStream(fileChannel), outputStream, 0, end - position);
+				return;
+			}
+			position += bytesTransferred;
+		}
+	}
+	
+	@Override
+	public void close()
+	{
+		// the file is only opened while it's being written
+	}
+
+}
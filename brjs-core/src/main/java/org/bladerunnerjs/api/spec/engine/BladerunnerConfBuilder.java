@@ -32,4 +32,12 @@ public class BladerunnerConfBuilder {
 		
 		return builderChainer;
 	}
+	
+	public BuilderChainer dependencyScanThreadsIs(int dependencyScanThreads) throws Exception
+	{
+		bladerunnerConf.setDependencyScanThreads(dependencyScanThreads);
+		bladerunnerConf.write();
+		
+		return builderChainer;
+	}
 }
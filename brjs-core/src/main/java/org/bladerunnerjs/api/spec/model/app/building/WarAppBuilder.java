@@ -2,16 +2,20 @@ package org.bladerunnerjs.api.spec.model.app.building;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.regex.Pattern;
 
 import org.bladerunnerjs.api.App;
 import org.bladerunnerjs.api.memoization.MemoizedFile;
 import org.bladerunnerjs.api.model.exception.ModelOperationException;
+import org.bladerunnerjs.appserver.util.CompressionUtils;
+import org.bladerunnerjs.appserver.util.TokenReplacingReader;
 import org.bladerunnerjs.utility.ZipUtility;
 
 
 
 public class WarAppBuilder implements AppBuilder
 {
+	private static final Pattern TOKEN_PATTERN = Pattern.compile(TokenReplacingReader.TOKEN_START + "[A-Z.]+" + TokenReplacingReader.TOKEN_END);
 
 	public void build(App app, MemoizedFile appWarFile) throws ModelOperationException {
 		if (!appWarFile.getParentFile().exists()) throw new ModelOperationException("'" + appWarFile.getParentFile().getPath() + "' does not exist");
@@ -22,6 +26,7 @@ public class WarAppBuilder implements AppBuilder
 		
 		try
 		{
+			writePrecompressedFiles(exportDir, exportDir);
 			ZipUtility.zipFolder(exportDir, appWarFile, true);
 			appWarFile.incrementFileVersion();
 			org.apache.commons.io.FileUtils.deleteQuietly(exportDir);
@@ -32,4 +37,23 @@ public class WarAppBuilder implements AppBuilder
 		}
 	}
 	
+	/* files containing tokens aren't precompressed since the tokens are replaced when the file is served */
+	private void writePrecompressedFiles(File exportDir, File dir) throws IOException
+	{
+		for (File file : dir.listFiles()) {
+			if (file.isDirectory()) {
+				if (!file.equals(new File(exportDir, "WEB-INF"))) {
+					writePrecompressedFiles(exportDir, file);
+				}
+			}
+			else if (CompressionUtils.isCompressibleFileName(file.getName()) && file.length() >= CompressionUtils.MIN_COMPRESSIBLE_SIZE) {
+				byte[] content = org.apache.commons.io.FileUtils.readFileToByteArray(file);
+				if (!TOKEN_PATTERN.matcher(new String(content, "UTF-8")).find()) {
+					File compressedFile = new File(file.getParentFile(), file.getName() + CompressionUtils.GZIP_FILE_SUFFIX);
+					org.apache.commons.io.FileUtils.writeByteArrayToFile(compressedFile, CompressionUtils.gzip(content));
+				}
+			}
+		}
+	}
+	
 }
@@ -88,7 +88,11 @@ public class RequirePathUtility
 		StringWriter stringWriter = new StringWriter();
 		IOUtils.copy(reader, stringWriter);
 		
-		Matcher m = matcherPattern.matcher(stringWriter.toString());
+		addRequirePathsFromContent(stringWriter.toString(), dependencies, aliases);
+	}
+	
+	public static void addRequirePathsFromContent(String content, Set<String> dependencies, List<String> aliases) {
+		Matcher m = matcherPattern.matcher(content);
 		while (m.find()) {
 			String methodArgument = m.group(2);
 			
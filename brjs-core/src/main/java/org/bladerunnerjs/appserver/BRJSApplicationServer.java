@@ -7,13 +7,16 @@ import javax.servlet.Servlet;
 
 import org.bladerunnerjs.api.App;
 import org.bladerunnerjs.api.BRJS;
+import org.bladerunnerjs.api.BladerunnerConf;
 import org.bladerunnerjs.api.appserver.ApplicationServer;
 import org.bladerunnerjs.api.logging.Logger;
+import org.bladerunnerjs.api.model.exception.ConfigException;
 import org.bladerunnerjs.utility.ServerUtility;
 import org.eclipse.jetty.server.Server;
 import org.eclipse.jetty.server.handler.ContextHandlerCollection;
 import org.eclipse.jetty.server.nio.SelectChannelConnector;
 import org.eclipse.jetty.servlet.ServletHolder;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
 import org.eclipse.jetty.webapp.WebAppContext;
 
 import static org.bladerunnerjs.appserver.BRJSApplicationServer.Messages.*;
@@ -35,6 +38,7 @@ public class BRJSApplicationServer implements ApplicationServer
 	private Logger logger;
 	private int port;
 	private Server server;
+	private SelectChannelConnector connector;
 	private ContextHandlerCollection contexts;
 	private Map<App,WebAppContext> contextMap;
 	private AppDeploymentFileWatcher fileWatcher;
@@ -47,7 +51,7 @@ public class BRJSApplicationServer implements ApplicationServer
 		logger = brjs.logger(ApplicationServer.class);
 		
 		server = new Server();
-		SelectChannelConnector connector = new SelectChannelConnector();
+		connector = new SelectChannelConnector();
 		connector.setPort(port);
 		server.addConnector(connector);
 		
@@ -71,6 +75,7 @@ public class BRJSApplicationServer implements ApplicationServer
 		
 		if(!brjs.appJars().dirExists()) throw new IllegalStateException( "The directory containing the app jars, located at '" + brjs.appJars().dir().getPath() + "', is not present");
 		
+		configureServer(brjs.bladerunnerConf());
 		ApplicationServerUtils.addAuthRealmToWebServer(brjs, server);
 		ApplicationServerUtils.addRootContext(brjs, contexts);
 		contextMap = ApplicationServerUtils.addAppContexts(brjs, contexts);
@@ -82,6 +87,45 @@ public class BRJSApplicationServer implements ApplicationServer
 		logger.info(SERVER_STARTED_LOG_MESSAGE, getPort());
 	}
 
+	/* only the settings that have been configured in brjs.conf are applied, so that Jetty's defaults are used for everything else */
+	private void configureServer(BladerunnerConf bladerunnerConf) throws ConfigException
+	{
+		if (bladerunnerConf.getJettyMinThreads() > 0 || bladerunnerConf.getJettyMaxThreads() > 0)
+		{
+			QueuedThreadPool threadPool = new QueuedThreadPool();
+			if (bladerunnerConf.getJettyMaxThreads() > 0)
+			{
+				threadPool.setMaxThreads(bladerunnerConf.getJettyMaxThreads());
+			}
+			if (bladerunnerConf.getJettyMinThreads() > 0)
+			{
+				threadPool.setMinThreads(bladerunnerConf.getJettyMinThreads());
+			}
+			server.setThreadPool(threadPool);
+		}
+		
+		if (bladerunnerConf.getJettyAcceptQueueSize() > 0)
+		{
+			connector.setAcceptQueueSize(bladerunnerConf.getJettyAcceptQueueSize());
+		}
+		if (bladerunnerConf.getJettyRequestBufferSize() > 0)
+		{
+			connector.setRequestBufferSize(bladerunnerConf.getJettyRequestBufferSize());
+		}
+		if (bladerunnerConf.getJettyResponseBufferSize() > 0)
+		{
+			connector.setResponseBufferSize(bladerunnerConf.getJettyResponseBufferSize());
+		}
+		if (bladerunnerConf.getJettyMaxIdleTime() > 0)
+		{
+			connector.setMaxIdleTime(bladerunnerConf.getJettyMaxIdleTime());
+		}
+		if (bladerunnerConf.getJettyLowResourcesMaxIdleTime() > 0)
+		{
+			connector.setLowResourcesMaxIdleTime(bladerunnerConf.getJettyLowResourcesMaxIdleTime());
+		}
+	}
+	
 	@Override
 	public void stop() throws Exception
 	{
@@ -118,6 +162,14 @@ public class BRJSApplicationServer implements ApplicationServer
 		servletHolder.start();
 	}
 	
+	/**
+	 * This method should only be used for testing. Allows the configuration of the underlying Jetty server to be verified.
+	 */
+	public Server getJettyServer()
+	{
+		return server;
+	}
+	
 	public void setAppDeploymentWatcherInterval(long interval) {
 		this.fileWatcherInterval = interval;
 	}
@@ -1,7 +1,12 @@
 package org.bladerunnerjs.appserver;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 
 import javax.servlet.ServletConfig;
 import javax.servlet.ServletContext;
@@ -13,25 +18,54 @@ import javax.servlet.http.HttpServletResponse;
 import org.apache.commons.lang3.StringUtils;
 import org.bladerunnerjs.api.App;
 import org.bladerunnerjs.api.BRJS;
+import org.bladerunnerjs.api.model.exception.ConfigException;
 import org.bladerunnerjs.api.model.exception.InvalidSdkDirectoryException;
 import org.bladerunnerjs.api.model.exception.ModelOperationException;
 import org.bladerunnerjs.api.model.exception.request.ContentProcessingException;
 import org.bladerunnerjs.api.model.exception.request.MalformedRequestException;
 import org.bladerunnerjs.api.model.exception.request.ResourceNotFoundException;
+import org.bladerunnerjs.api.plugin.FileResponseContent;
 import org.bladerunnerjs.api.plugin.ResponseContent;
+import org.bladerunnerjs.appserver.ResponseCache.CachedResponse;
+import org.bladerunnerjs.appserver.ResponseCache.ResponseRenderer;
+import org.bladerunnerjs.appserver.ResponseGenerationPool.Priority;
+import org.bladerunnerjs.appserver.filter.TokenisingServletFilter;
+import org.bladerunnerjs.appserver.util.ByteRange;
+import org.bladerunnerjs.appserver.util.CompressionUtils;
+import org.bladerunnerjs.appserver.util.ConditionalGetUtils;
 import org.bladerunnerjs.model.RequestMode;
-import org.bladerunnerjs.model.UrlContentAccessor;
 import org.bladerunnerjs.model.ThreadSafeStaticBRJSAccessor;
+import org.bladerunnerjs.utility.TokenReplacingResponseContentWrapper;
 
 
+/**
+ * Serves the content generated by the model during development. Responses are generated on the request thread unless the
+ * <code>generationPoolSize</code> init parameter (or <code>maxConcurrentBundleGenerations</code> in brjs.conf) is set, in which case they
+ * are generated by a {@link ResponseGenerationPool} with a queue of <code>generationQueueSize</code> pending responses, and requests that
+ * can't be queued are sent a 503 response with a <code>Retry-After</code> of <code>generationRetryAfter</code> seconds.
+ * 
+ * The request thread still waits while its response is generated by the pool, since the Servlet 2.5 API has no asynchronous requests, so
+ * the pool deliberately limits and prioritises generation rather than freeing up the container's threads.
+ */
 public class BRJSDevServlet extends HttpServlet {
 	private static final long serialVersionUID = 1964608537461568895L;
 
 	private static final String CONTENT_TYPE = "Content-Type";
+	private static final String CONTENT_LENGTH = "Content-Length";
+	private static final String RETRY_AFTER = "Retry-After";
+	
+	public static final String GENERATION_POOL_SIZE_PARAM = "generationPoolSize";
+	public static final String GENERATION_QUEUE_SIZE_PARAM = "generationQueueSize";
+	public static final String GENERATION_RETRY_AFTER_PARAM = "generationRetryAfter";
+	private static final int DEFAULT_GENERATION_QUEUE_SIZE = 50;
+	private static final int DEFAULT_GENERATION_RETRY_AFTER = 5;
 	
 	private App app;
 	private ServletContext servletContext;
 	private BRJS brjs;
+	private ResponseCache responseCache;
+	private ResponseGenerationPool generationPool;
+	private int generationRetryAfter;
 	
 	@Override
 	public void init(ServletConfig config) throws ServletException
@@ -47,17 +81,39 @@ public class BRJSDevServlet extends HttpServlet {
 			throw new ServletException(e);
 		}
 		
+		int maxConcurrentBundleGenerations;
+		int bundleGenerationQueueSize;
 		try {
 			brjs = ThreadSafeStaticBRJSAccessor.aquireModel();
 			app = BRJSServletUtils.localeAppForContext(brjs, servletContext);
+			responseCache = new ResponseCache(app);
+			maxConcurrentBundleGenerations = brjs.bladerunnerConf().getMaxConcurrentBundleGenerations();
+			bundleGenerationQueueSize = brjs.bladerunnerConf().getBundleGenerationQueueSize();
+		}
+		catch (ConfigException e) {
+			throw new ServletException(e);
 		}
 		finally {
 			ThreadSafeStaticBRJSAccessor.releaseModel();
 		}
+		
+		/* by default responses are generated on the request thread, but a generation pool can be configured (in the web.xml or using the
+		 * 'maxConcurrentBundleGenerations' and 'bundleGenerationQueueSize' in brjs.conf) so that slow bundle generation can't use up all of
+		 * the server's threads, in which case requests that can't be queued are rejected with a 503 */
+		int generationPoolSize = getIntInitParameter(config, GENERATION_POOL_SIZE_PARAM, maxConcurrentBundleGenerations);
+		if (generationPoolSize > 0) {
+			int generationQueueSize = getIntInitParameter(config, GENERATION_QUEUE_SIZE_PARAM, (bundleGenerationQueueSize > 0) ? bundleGenerationQueueSize : DEFAULT_GENERATION_QUEUE_SIZE);
+			generationRetryAfter = getIntInitParameter(config, GENERATION_RETRY_AFTER_PARAM, DEFAULT_GENERATION_RETRY_AFTER);
+			generationPool = new ResponseGenerationPool(app.getName(), generationPoolSize, generationQueueSize);
+		}
 	}
 	
 	@Override
 	public void destroy() {
+		if (generationPool != null) {
+			generationPool.shutdown();
+		}
+		
 		try
 		{
 			ThreadSafeStaticBRJSAccessor.destroy();
@@ -72,21 +128,26 @@ public class BRJSDevServlet extends HttpServlet {
 	protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
 		String requestPath = request.getRequestURI().replaceFirst("^" + request.getContextPath() + request.getServletPath() + "/", "");
 		
+		String mimeType = null;
 		if (!requestPath.endsWith("/")) {
 			String fileName = (requestPath.contains("/")) ? StringUtils.substringAfterLast(requestPath, "/") : requestPath;
-			String mimeType = servletContext.getMimeType(fileName);
+			mimeType = servletContext.getMimeType(fileName);
 			if (mimeType != null) {
 				response.setHeader(CONTENT_TYPE, mimeType);
 			}
 		}
 		
-		ThreadSafeStaticBRJSAccessor.aquireModel();
-		UrlContentAccessor contentAccessor = new ServletContentAccessor(app, servletContext, request, response);
-		try ( ResponseContent content = app.requestHandler().handleLogicalRequest(requestPath, contentAccessor, RequestMode.Dev); )
+		// the content is rendered (or retrieved from the response cache) while holding the read lock, but is only sent to the client once the
+		// lock has been released so that slow clients don't hold up requests that need exclusive access to the model
+		CachedResponse cachedResponse = null;
+		DevResponseRenderer responseRenderer = new DevResponseRenderer(requestPath, request, response);
+		try
 		{
-			if (!response.isCommitted()) { // check the ServletContentAccessor hasnt been used to handle a request and sent headers
-				content.write( response.getOutputStream() );
-			}
+			cachedResponse = (generationPool == null || mayForwardRequest(requestPath)) ? renderResponse(requestPath, responseRenderer) : generateResponse(requestPath, responseRenderer);
+		}
+		catch (RejectedExecutionException e) {
+			response.setHeader(RETRY_AFTER, String.valueOf(generationRetryAfter));
+			response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "The server is too busy to generate '" + requestPath + "', please try again later.");
 		}
 		catch (MalformedRequestException e) {
 			response.sendError(400, e.getMessage());
@@ -100,9 +161,216 @@ public class BRJSDevServlet extends HttpServlet {
 		catch (ModelOperationException e) {
 			throw new ServletException(e);
 		}
+		
+		if (cachedResponse != null && !response.isCommitted()) {
+			writeResponse(request, response, cachedResponse, mimeType);
+		}
+		else if (responseRenderer.getFileContent() != null && !response.isCommitted()) {
+			writeFileResponse(request, response, responseRenderer.getFileContent());
+		}
+	}
+	
+	private CachedResponse renderResponse(String requestPath, DevResponseRenderer responseRenderer) throws MalformedRequestException, ResourceNotFoundException, ContentProcessingException, ModelOperationException, IOException {
+		ThreadSafeStaticBRJSAccessor.aquireModelForReading();
+		try
+		{
+			return responseCache.getResponse(requestPath, responseRenderer);
+		}
 		finally {
-			ThreadSafeStaticBRJSAccessor.releaseModel();
-		} 
+			ThreadSafeStaticBRJSAccessor.releaseModelForReading();
+		}
+	}
+	
+	/* responses that are already cached are returned straight away, and only those that need rendering are handed to the generation pool */
+	private CachedResponse generateResponse(String requestPath, DevResponseRenderer responseRenderer) throws MalformedRequestException, ResourceNotFoundException, ContentProcessingException, ModelOperationException, IOException {
+		ThreadSafeStaticBRJSAccessor.aquireModelForReading();
+		try
+		{
+			CachedResponse cachedResponse = responseCache.getCachedResponse(requestPath);
+			if (cachedResponse != null) {
+				return cachedResponse;
+			}
+		}
+		finally {
+			ThreadSafeStaticBRJSAccessor.releaseModelForReading();
+		}
+		
+		Future<CachedResponse> generatedResponse = generationPool.submit(getGenerationPriority(requestPath), () -> renderResponse(requestPath, responseRenderer));
+		try {
+			return generatedResponse.get();
+		}
+		catch (InterruptedException e) {
+			generatedResponse.cancel(false);
+			Thread.currentThread().interrupt();
+			throw (IOException) new InterruptedIOException("Interrupted while waiting for '" + requestPath + "' to be generated").initCause(e);
+		}
+		catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof MalformedRequestException) {
+				throw (MalformedRequestException) cause;
+			}
+			else if (cause instanceof ResourceNotFoundException) {
+				throw (ResourceNotFoundException) cause;
+			}
+			else if (cause instanceof ContentProcessingException) {
+				throw (ContentProcessingException) cause;
+			}
+			else if (cause instanceof ModelOperationException) {
+				throw (ModelOperationException) cause;
+			}
+			else if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			else if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new ModelOperationException((Exception) cause);
+		}
+	}
+	
+	/* pages (e.g. an index.jsp) and JSPs are rendered by forwarding the request to the servlet container, which can only be done on the
+	 * request thread, so they are never handed to the generation pool */
+	private boolean mayForwardRequest(String requestPath) {
+		return getGenerationPriority(requestPath) == Priority.PAGE || requestPath.endsWith(".jsp");
+	}
+	
+	/* pages and small resources are generated ahead of bundles, and minified bundles, which are the slowest to generate, come last */
+	private Priority getGenerationPriority(String requestPath) {
+		String fileName = (requestPath.contains("/")) ? StringUtils.substringAfterLast(requestPath, "/") : requestPath;
+		if (fileName.isEmpty() || fileName.endsWith(".html") || !fileName.contains(".")) {
+			return Priority.PAGE;
+		}
+		if (requestPath.contains("js/prod/")) {
+			return Priority.MINIFIED_BUNDLE;
+		}
+		if (requestPath.endsWith("/bundle.js") || requestPath.endsWith("/bundle.css")) {
+			return Priority.BUNDLE;
+		}
+		return Priority.RESOURCE;
+	}
+	
+	private int getIntInitParameter(ServletConfig config, String paramName, int defaultValue) throws ServletException {
+		String paramValue = config.getInitParameter(paramName);
+		if (paramValue == null) {
+			return defaultValue;
+		}
+		try {
+			return Integer.parseInt(paramValue.trim());
+		}
+		catch (NumberFormatException e) {
+			throw new ServletException("The '" + paramName + "' init parameter must be a number, but was '" + paramValue + "'.", e);
+		}
+	}
+	
+	private void writeResponse(HttpServletRequest request, HttpServletResponse response, CachedResponse cachedResponse, String mimeType) throws IOException {
+		// responses that are being tokenised are compressed by the TokenisingServletFilter once the tokens have been replaced
+		boolean isTokenised = request.getAttribute(TokenisingServletFilter.IGNORE_REQUEST_ATTRIBUTE) != null;
+		boolean isCompressible = !isTokenised && CompressionUtils.isCompressibleContentType(mimeType) &&
+			cachedResponse.getContent().length >= CompressionUtils.MIN_COMPRESSIBLE_SIZE;
+		boolean compressResponse = isCompressible && CompressionUtils.acceptsGzip(request);
+		
+		if (isCompressible) {
+			CompressionUtils.setVaryHeader(response);
+		}
+		
+		String contentHash = (compressResponse) ? cachedResponse.getContentHash() + CompressionUtils.GZIP_ENTITY_TAG_SUFFIX : cachedResponse.getContentHash();
+		if (ConditionalGetUtils.sendNotModifiedIfUnchanged(request, response, ConditionalGetUtils.entityTag(contentHash))) {
+			return;
+		}
+		
+		if (compressResponse) {
+			CompressionUtils.setGzipHeaders(response);
+			response.getOutputStream().write( cachedResponse.getCompressedContent() );
+		}
+		else {
+			response.getOutputStream().write( cachedResponse.getContent() );
+		}
+	}
+	
+	private void writeFileResponse(HttpServletRequest request, HttpServletResponse response, FileResponseContent fileContent) throws IOException {
+		long contentLength = fileContent.getContentLength();
+		String entityTag = ConditionalGetUtils.entityTag(contentLength + "-" + fileContent.getLastModified());
+		if (ConditionalGetUtils.sendNotModifiedIfUnchanged(request, response, entityTag)) {
+			return;
+		}
+		
+		// responses that are being tokenised are replaced by the TokenisingServletFilter, so ranges of them can't be served
+		boolean isTokenised = request.getAttribute(TokenisingServletFilter.IGNORE_REQUEST_ATTRIBUTE) != null;
+		if (isTokenised) {
+			fileContent.write( response.getOutputStream() );
+			return;
+		}
+		
+		response.setHeader(ByteRange.ACCEPT_RANGES, ByteRange.BYTES_UNIT);
+		ByteRange byteRange = ByteRange.getRequestedRange(request, contentLength, entityTag);
+		if (byteRange == null) {
+			response.setHeader(CONTENT_LENGTH, String.valueOf(contentLength));
+			fileContent.write( response.getOutputStream() );
+		}
+		else if (byteRange == ByteRange.UNSATISFIABLE_RANGE) {
+			response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+			response.setHeader(ByteRange.CONTENT_RANGE, ByteRange.getUnsatisfiableContentRange(contentLength));
+			response.setHeader(CONTENT_LENGTH, "0");
+		}
+		else {
+			response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+			response.setHeader(ByteRange.CONTENT_RANGE, byteRange.getContentRange());
+			response.setHeader(CONTENT_LENGTH, String.valueOf(byteRange.getLength()));
+			fileContent.write( response.getOutputStream(), byteRange.getStart(), byteRange.getLength() );
+		}
+	}
+	
+	private class DevResponseRenderer implements ResponseRenderer {
+		private final String requestPath;
+		private final HttpServletRequest request;
+		private final HttpServletResponse response;
+		private boolean cacheable;
+		private FileResponseContent fileContent;
+		
+		public DevResponseRenderer(String requestPath, HttpServletRequest request, HttpServletResponse response) {
+			this.requestPath = requestPath;
+			this.request = request;
+			this.response = response;
+		}
+		
+		@Override
+		public byte[] render() throws MalformedRequestException, ResourceNotFoundException, ContentProcessingException, ModelOperationException, IOException {
+			ServletContentAccessor contentAccessor = new ServletContentAccessor(app, servletContext, request, response);
+			try ( ResponseContent content = app.requestHandler().handleLogicalRequest(requestPath, contentAccessor, RequestMode.Dev); )
+			{
+				if (response.isCommitted()) { // the ServletContentAccessor has been used to handle the request and has sent headers
+					return null;
+				}
+				
+				// unchanged files are written directly to the client once the read lock has been released, rather than being buffered and cached
+				ResponseContent unwrappedContent = content;
+				while (unwrappedContent instanceof TokenReplacingResponseContentWrapper) {
+					unwrappedContent = ((TokenReplacingResponseContentWrapper) unwrappedContent).getWrappedResponse();
+				}
+				if (unwrappedContent instanceof FileResponseContent) {
+					fileContent = (FileResponseContent) unwrappedContent;
+					return null;
+				}
+				
+				ByteArrayOutputStream contentBytes = new ByteArrayOutputStream();
+				content.write( contentBytes );
+				cacheable = !contentAccessor.hasForwardedRequests();
+				
+				return contentBytes.toByteArray();
+			}
+		}
+		
+		@Override
+		public boolean isCacheable() {
+			return cacheable;
+		}
+		
+		public FileResponseContent getFileContent() {
+			return fileContent;
+		}
 	}
 	
 }
@@ -0,0 +1,253 @@
+package org.bladerunnerjs.appserver;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.bladerunnerjs.api.App;
+import org.bladerunnerjs.api.memoization.FileModificationRegistry;
+import org.bladerunnerjs.api.memoization.FileModifiedChecker;
+import org.bladerunnerjs.api.model.exception.ModelOperationException;
+import org.bladerunnerjs.api.model.exception.request.ContentProcessingException;
+import org.bladerunnerjs.api.model.exception.request.MalformedRequestException;
+import org.bladerunnerjs.api.model.exception.request.ResourceNotFoundException;
+import org.bladerunnerjs.appserver.util.CompressionUtils;
+import org.bladerunnerjs.utility.ContentHasher;
+
+/**
+ * Caches the rendered bytes of the responses served by {@link BRJSDevServlet}, together with a hash of the content, so that a request for
+ * content that hasn't changed since it was last rendered doesn't cause the bundle to be re-generated.
+ *
+ * Responses are keyed by the app version and the request path (which identifies the aspect, content path and locale), and are invalidated
+ * using the same watch list as the bundle set, i.e. the BRJS and app directories. Concurrent requests for the same content wait for a single
+ * rendering rather than each rendering the content themselves. The gzip compressed variant of a response is cached alongside it.
+ * 
+ * The cache is bounded both by the number of responses and by the total size of their content (including the compressed variants), with
+ * the least recently used responses being evicted first. Responses for previous app versions are discarded once the version changes.
+ */
+public class ResponseCache {
+	public static final int MAX_CACHED_RESPONSES = 500;
+	public static final long DEFAULT_MAX_CACHE_SIZE = 64 * 1024 * 1024;
+	
+	private final App app;
+	private final long maxCacheSize;
+	private final Map<String, CacheEntry> cacheEntries = new LinkedHashMap<String, CacheEntry>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+		
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+			if (size() > MAX_CACHED_RESPONSES) {
+				evict(eldest.getValue());
+				return true;
+			}
+			return false;
+		}
+	};
+	private long cacheSize = 0;
+	private String appVersion;
+	
+	public ResponseCache(App app) {
+		this(app, DEFAULT_MAX_CACHE_SIZE);
+	}
+	
+	public ResponseCache(App app, long maxCacheSize) {
+		this.app = app;
+		this.maxCacheSize = maxCacheSize;
+	}
+	
+	/**
+	 * Returns the cached response for the given request path, or uses the renderer to render the response if it has not been rendered before,
+	 * or if any of the files the response could depend on have changed since it was rendered. <code>null</code> is returned if the renderer
+	 * handled the request without producing any content.
+	 */
+	public CachedResponse getResponse(String requestPath, ResponseRenderer renderer) throws MalformedRequestException, ResourceNotFoundException, ContentProcessingException, ModelOperationException, IOException {
+		CacheEntry cacheEntry = getCacheEntry(requestPath);
+		
+		synchronized (cacheEntry) {
+			boolean hasChanged = cacheEntry.hasChanged();
+			if (cacheEntry.response != null && !hasChanged) {
+				return cacheEntry.response;
+			}
+			setResponse(cacheEntry, null);
+			
+			byte[] content = renderer.render();
+			if (content == null) {
+				return null;
+			}
+			
+			CachedResponse response = new CachedResponse(content, ContentHasher.hash(content));
+			if (renderer.isCacheable()) {
+				setResponse(cacheEntry, response);
+			}
+			return response;
+		}
+	}
+	
+	/**
+	 * Returns the cached response for the given request path if it's still valid, or <code>null</code> if the response needs to be rendered.
+	 */
+	public CachedResponse getCachedResponse(String requestPath) {
+		CacheEntry cacheEntry = getCacheEntry(requestPath);
+		
+		synchronized (cacheEntry) {
+			if (cacheEntry.response != null && cacheEntry.hasChanged()) {
+				setResponse(cacheEntry, null);
+			}
+			return cacheEntry.response;
+		}
+	}
+	
+	/**
+	 * Returns the total size of the cached content, including the compressed variants that have been created so far.
+	 */
+	public long getCacheSize() {
+		synchronized (cacheEntries) {
+			return cacheSize;
+		}
+	}
+	
+	private CacheEntry getCacheEntry(String requestPath) {
+		String version = app.root().getAppVersionGenerator().getVersion();
+		
+		synchronized (cacheEntries) {
+			if (!version.equals(appVersion)) {
+				for (CacheEntry cacheEntry : cacheEntries.values()) {
+					evict(cacheEntry);
+				}
+				cacheEntries.clear();
+				appVersion = version;
+			}
+			
+			CacheEntry cacheEntry = cacheEntries.get(requestPath);
+			if (cacheEntry == null) {
+				cacheEntry = new CacheEntry(app);
+				cacheEntries.put(requestPath, cacheEntry);
+			}
+			return cacheEntry;
+		}
+	}
+	
+	private void setResponse(CacheEntry cacheEntry, CachedResponse response) {
+		if (cacheEntry.response != null) {
+			cacheEntry.response.cacheEntry = null;
+		}
+		cacheEntry.response = response;
+		if (response != null) {
+			response.responseCache = this;
+			response.cacheEntry = cacheEntry;
+		}
+		updateSize(cacheEntry, (response == null) ? 0 : response.getSize());
+	}
+	
+	private void updateSize(CacheEntry cacheEntry, long size) {
+		synchronized (cacheEntries) {
+			if (cacheEntry.evicted) {
+				return;
+			}
+			cacheSize += size - cacheEntry.size;
+			cacheEntry.size = size;
+			
+			Iterator<CacheEntry> cacheEntryIterator = cacheEntries.values().iterator();
+			while (cacheSize > maxCacheSize && cacheEntryIterator.hasNext()) {
+				evict(cacheEntryIterator.next());
+				cacheEntryIterator.remove();
+			}
+		}
+	}
+	
+	/* must be called while holding the cacheEntries lock; responses that are still being rendered for an evicted entry are simply not cached */
+	private void evict(CacheEntry cacheEntry) {
+		cacheSize -= cacheEntry.size;
+		cacheEntry.size = 0;
+		cacheEntry.evicted = true;
+	}
+	
+	public interface ResponseRenderer {
+		/**
+		 * Renders the response, returning <code>null</code> if the request was handled without producing any content to cache (e.g. a redirect,
+		 * or a file that is written directly to the client).
+		 */
+		byte[] render() throws MalformedRequestException, ResourceNotFoundException, ContentProcessingException, ModelOperationException, IOException;
+		
+		/**
+		 * Whether the last rendered response only depends on the model, and can therefore be re-used for subsequent requests.
+		 */
+		boolean isCacheable();
+	}
+	
+	public static class CachedResponse {
+		private final byte[] content;
+		private final String contentHash;
+		private byte[] compressedContent;
+		private volatile ResponseCache responseCache;
+		private volatile CacheEntry cacheEntry;
+		
+		public CachedResponse(byte[] content, String contentHash) {
+			this.content = content;
+			this.contentHash = contentHash;
+		}
+		
+		public byte[] getContent() {
+			return content;
+		}
+		
+		public String getContentHash() {
+			return contentHash;
+		}
+		
+		/**
+		 * Returns the gzip compressed content, which is only compressed the first time it's needed.
+		 */
+		public byte[] getCompressedContent() {
+			CacheEntry compressedEntry;
+			synchronized (this) {
+				if (compressedContent != null) {
+					return compressedContent;
+				}
+				compressedContent = CompressionUtils.gzip(content);
+				compressedEntry = cacheEntry;
+			}
+			
+			// the entry's lock is taken before this one when the response is cached, so the compressed content is counted after releasing it
+			if (compressedEntry != null) {
+				synchronized (compressedEntry) {
+					if (compressedEntry.response == this) {
+						responseCache.updateSize(compressedEntry, getSize());
+					}
+				}
+			}
+			return compressedContent;
+		}
+		
+		private synchronized long getSize() {
+			return content.length + ((compressedContent == null) ? 0 : compressedContent.length);
+		}
+	}
+	
+	private static class CacheEntry {
+		private final FileModifiedChecker[] watchList;
+		private CachedResponse response;
+		private long size = 0;
+		private boolean evicted = false;
+		
+		public CacheEntry(App app) {
+			FileModificationRegistry fileModificationRegistry = app.root().getFileModificationRegistry();
+			watchList = new FileModifiedChecker[] {
+				new FileModifiedChecker(fileModificationRegistry, app.root(), app.root().dir()),
+				new FileModifiedChecker(fileModificationRegistry, app.root(), app.dir())
+			};
+		}
+		
+		/* the checkers are all consulted, since each of them records the version it has seen */
+		public boolean hasChanged() {
+			boolean hasChanged = false;
+			for (FileModifiedChecker fileModifiedChecker : watchList) {
+				if (fileModifiedChecker.hasChangedSinceLastCheck()) {
+					hasChanged = true;
+				}
+			}
+			return hasChanged;
+		}
+	}
+}
@@ -0,0 +1,117 @@
+package org.bladerunnerjs.appserver;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A fixed size pool of threads that generates the responses served by {@link BRJSDevServlet}, so that only a bounded number of slow bundle
+ * generations (e.g. Closure minification) run at once.
+ *
+ * This is deliberately a limiter rather than a way of releasing the container's threads: the Servlet 2.5 API has no asynchronous requests,
+ * so each request thread waits on the {@link Future} for its response. What the pool adds over generating on the request thread is that
+ * pending work is queued by {@link Priority}, so that pages and small resources are generated ahead of bundles, and that the number of
+ * pending responses is limited: once the pool and its queue are full a {@link RejectedExecutionException} is thrown, which the servlet
+ * reports with a 503, rather than requests piling up on the container's threads. A response counts as pending until its generator has
+ * finished running, even if it's been cancelled while running.
+ */
+public class ResponseGenerationPool {
+	public enum Priority {
+		PAGE,
+		RESOURCE,
+		BUNDLE,
+		MINIFIED_BUNDLE
+	}
+
+	private final ThreadPoolExecutor executor;
+	private final Semaphore pendingResponses;
+	private final AtomicLong submissionCount = new AtomicLong();
+
+	public ResponseGenerationPool(String name, int poolSize, int queueSize) {
+		pendingResponses = new Semaphore(poolSize + queueSize);
+		AtomicInteger threadCount = new AtomicInteger();
+		executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<Runnable>(), (runnable) -> {
+			Thread thread = new Thread(runnable, name + "-response-generator-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Queues the generator to be run once the pool has a free thread and there is no higher priority work pending.
+	 *
+	 * @throws RejectedExecutionException if the pool and its queue are already full
+	 */
+	public <T> Future<T> submit(Priority priority, Callable<T> generator) {
+		if (!pendingResponses.tryAcquire()) {
+			throw new RejectedExecutionException("The response generation pool is full");
+		}
+
+		PrioritisedTask<T> task = new PrioritisedTask<T>(priority, submissionCount.getAndIncrement(), generator);
+		try {
+			executor.execute(task);
+		}
+		catch (RejectedExecutionException e) {
+			pendingResponses.release();
+			throw e;
+		}
+		return task;
+	}
+
+	/**
+	 * Stops the pool's threads, cancelling any responses that are still queued.
+	 */
+	public void shutdown() {
+		for (Runnable queuedTask : executor.shutdownNow()) {
+			((Future<?>) queuedTask).cancel(false);
+			pendingResponses.release();
+		}
+	}
+
+	private class PrioritisedTask<T> extends FutureTask<T> implements Comparable<PrioritisedTask<?>> {
+		private final Priority priority;
+		private final long submissionNumber;
+
+		public PrioritisedTask(Priority priority, long submissionNumber, Callable<T> generator) {
+			super(generator);
+			this.priority = priority;
+			this.submissionNumber = submissionNumber;
+		}
+
+		/* the response stops being pending once the generator has run, rather than when the future completes, since a task that's cancelled
+		 * while it's running completes straight away even though its generator carries on running */
+		@Override
+		public void run() {
+			try {
+				super.run();
+			}
+			finally {
+				pendingResponses.release();
+			}
+		}
+		
+		/* tasks that are cancelled while they're queued are removed from the queue, since they will never be run */
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			boolean cancelled = super.cancel(mayInterruptIfRunning);
+			if (cancelled && executor.remove(this)) {
+				pendingResponses.release();
+			}
+			return cancelled;
+		}
+
+		/* tasks with the same priority are run in the order they were submitted */
+		@Override
+		public int compareTo(PrioritisedTask<?> otherTask) {
+			int priorityComparison = priority.compareTo(otherTask.priority);
+			return (priorityComparison != 0) ? priorityComparison : Long.compare(submissionNumber, otherTask.submissionNumber);
+		}
+	}
+}
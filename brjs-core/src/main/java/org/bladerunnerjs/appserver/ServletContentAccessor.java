@@ -20,6 +20,7 @@ public class ServletContentAccessor extends StaticContentAccessor
 	private final ServletContext servletContext;
 	private final HttpServletRequest request;
 	private final HttpServletResponse response;
+	private boolean requestsForwarded = false;
 	
 	public ServletContentAccessor(App app, ServletContext servletContext, HttpServletRequest request, HttpServletResponse response) throws IOException
 	{
@@ -39,6 +40,7 @@ public class ServletContentAccessor extends StaticContentAccessor
 		try {
 			if (urlPath.endsWith(".jsp")) {
 				urlPath = (!urlPath.startsWith("/")) ? "/"+urlPath : urlPath;
+				requestsForwarded = true;
 				request.setAttribute(BRJSDevServletFilter.IGNORE_REQUEST_ATTRIBUTE, true);
 				request.setAttribute(TokenisingServletFilter.IGNORE_REQUEST_ATTRIBUTE, true);
 				CharResponseWrapper responseWrapper = new CharResponseWrapper(response);
@@ -52,4 +54,17 @@ public class ServletContentAccessor extends StaticContentAccessor
 		}
 	}
 	
+	@Override
+	public boolean writesFileContentsUnchanged(String urlPath) {
+		return !urlPath.endsWith(".jsp");
+	}
+	
+	/**
+	 * Whether any requests were forwarded to the servlet container (e.g. to render a JSP), in which case the content may depend on more than
+	 * just the model.
+	 */
+	public boolean hasForwardedRequests() {
+		return requestsForwarded;
+	}
+	
 }
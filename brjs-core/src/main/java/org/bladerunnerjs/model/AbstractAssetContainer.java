@@ -5,7 +5,9 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.lang3.StringUtils;
 import org.bladerunnerjs.api.App;
@@ -22,6 +24,8 @@ import org.bladerunnerjs.model.engine.RootNode;
 public abstract class AbstractAssetContainer extends AbstractBRJSNode implements AssetContainer {
 	
 	private final MemoizedValue<AssetRegistry> assetDiscoveryResult;
+	/* keyed by the require prefix of the requiring asset and the relative require path, separated by a new line */
+	private final Map<String, String> canonicalRequirePaths = new ConcurrentHashMap<>();
 	
 	public AbstractAssetContainer(RootNode rootNode, Node parent, MemoizedFile dir) {
 		super(rootNode, parent, dir);
@@ -59,15 +63,27 @@ public abstract class AbstractAssetContainer extends AbstractBRJSNode implements
 	@Override
 	public String canonicaliseRequirePath(Asset asset, String requirePath) throws RequirePathException
 	{
+		if(!requirePath.contains("../") && !requirePath.contains("./")) {
+			return requirePath;
+		}
+		
 		String requirePrefix = StringUtils.substringBeforeLast(asset.getPrimaryRequirePath(), "/");
+		String canonicalRequirePathKey = requirePrefix + "\n" + requirePath;
+		String canonicalRequirePath = canonicalRequirePaths.get(canonicalRequirePathKey);
 		
+		if(canonicalRequirePath == null) {
+			canonicalRequirePath = canonicaliseRelativeRequirePath(requirePrefix, requirePath);
+			canonicalRequirePaths.put(canonicalRequirePathKey, canonicalRequirePath);
+		}
+		
+		return canonicalRequirePath;
+	}
+	
+	private String canonicaliseRelativeRequirePath(String requirePrefix, String requirePath) throws RequirePathException
+	{
 		List<String> requirePrefixParts = new LinkedList<String>( Arrays.asList(requirePrefix.split("/")) );
 		List<String> requirePathParts = new LinkedList<String>( Arrays.asList(requirePath.split("/")) );
 		
-		if(!requirePath.contains("../") && !requirePath.contains("./")) {
-			return requirePath;
-		}
-		
 		Iterator<String> requirePathPartsIterator = requirePathParts.iterator();
 		while(requirePathPartsIterator.hasNext()) {
 			String pathPart = requirePathPartsIterator.next();
@@ -36,6 +36,8 @@ import org.bladerunnerjs.utility.AppRequestHandler;
 public abstract class AbstractBundlableNode extends AbstractAssetContainer implements BundlableNode {
 
 	private final MemoizedValue<BundleSet> bundleSet;
+	private final MemoizedValue<RequirePathIndex> requirePathIndex;
+	private RequirePathIndex previousRequirePathIndex;
 	private RequirePlugin defaultRequirePlugin;
 	
 	// TODO: these messages need to be covered off in a spec test (a single test would be perfect)
@@ -49,6 +51,7 @@ public abstract class AbstractBundlableNode extends AbstractAssetContainer imple
 		super(rootNode, parent, dir);
 		defaultRequirePlugin = root().plugins().requirePlugin("default");
 		bundleSet = new MemoizedValue<>(this.getClass().getSimpleName()+" bundleSet", root(), root().dir(), app().dir());
+		requirePathIndex = new MemoizedValue<>(this.getClass().getSimpleName()+" requirePathIndex", root(), root().dir(), app().dir());
 	}
 	
 	@Override
@@ -100,6 +103,16 @@ public abstract class AbstractBundlableNode extends AbstractAssetContainer imple
 		return linkedAsset;
 	}
 	
+	@Override
+	public Asset scopeAsset(String requirePath) throws RequirePathException {
+		RequirePathIndex index = requirePathIndex.value(() -> {
+			previousRequirePathIndex = new RequirePathIndex(scopeAssetContainers(), previousRequirePathIndex);
+			return previousRequirePathIndex;
+		});
+		
+		return index.getAsset(requirePath);
+	}
+	
 	@Override 
 	public BundleSet getBundleSet() throws ModelOperationException {
 		return bundleSet.value(() -> {
@@ -9,23 +9,28 @@ import java.util.Map;
 import org.apache.commons.io.filefilter.IOFileFilter;
 
 public class BRJSSecurityManager extends SecurityManager {
-	private final Map<FileAccessLimitScope, File[]> activeScopes;
-	private boolean allowUnscopedFileAccess = false;
+	private final ThreadLocal<Map<FileAccessLimitScope, File[]>> activeScopes;
+	private final ThreadLocal<Boolean> allowUnscopedFileAccess = new ThreadLocal<Boolean>() {
+		@Override
+		protected Boolean initialValue() {
+			return false;
+		}
+	};
 	private IOFileFilter globalFileFilter;
 	
-	public BRJSSecurityManager(IOFileFilter globalFileFilter, Map<FileAccessLimitScope, File[]> activeScopes) {
+	public BRJSSecurityManager(IOFileFilter globalFileFilter, ThreadLocal<Map<FileAccessLimitScope, File[]>> activeScopes) {
 		this.activeScopes = activeScopes;
 		this.globalFileFilter = globalFileFilter;
 	}
 	
 	private void assertWithinScope(File file) throws BRJSMemoizationFileAccessException {
-		if(!allowUnscopedFileAccess) {
+		if(!allowUnscopedFileAccess.get()) {
 			try {
-				allowUnscopedFileAccess = true;
+				allowUnscopedFileAccess.set(true);
 				forceAssertWithinScope(file);
 			}
 			finally {
-				allowUnscopedFileAccess = false;
+				allowUnscopedFileAccess.set(false);
 			}
 		}
 	}
@@ -35,8 +40,9 @@ public class BRJSSecurityManager extends SecurityManager {
 			if (globalFileFilter.accept(file)) {
 				return;
 			}
-			for(FileAccessLimitScope limitScope : activeScopes.keySet()) {
-				File[] scopeFiles = activeScopes.get(limitScope);
+			Map<FileAccessLimitScope, File[]> threadActiveScopes = activeScopes.get();
+			for(FileAccessLimitScope limitScope : threadActiveScopes.keySet()) {
+				File[] scopeFiles = threadActiveScopes.get(limitScope);
 				boolean withinScope = false;
 				
 				for(File scopeFile : scopeFiles) {
@@ -0,0 +1,150 @@
+package org.bladerunnerjs.model;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.bladerunnerjs.api.Asset;
+
+/**
+ * An index of the assets within a bundle set, allowing them to be looked up by type and by require path prefix without scanning every
+ * asset. The assets are indexed by position so that lookups always return assets in bundle set order.
+ *
+ * <p>The index is built when the bundle set is created and is never modified afterwards, other than to cache the result of each
+ * distinct type query, so it can be shared between the threads serving requests for the bundle set.</p>
+ */
+public class BundleSetAssetIndex<AT extends Asset>
+{
+	private final List<AT> assets;
+	private final Map<Class<?>, BitSet> assetsByClass = new LinkedHashMap<>();
+	private final String[] sortedRequirePaths;
+	private final int[] sortedRequirePathPositions;
+	private final Map<Set<Class<? extends AT>>, BitSet> assetsByType = new ConcurrentHashMap<>();
+
+	public BundleSetAssetIndex(List<AT> assets)
+	{
+		this.assets = new ArrayList<>(assets);
+
+		List<Integer> requirePathPositions = new ArrayList<>();
+		for (int i = 0; i < this.assets.size(); i++) {
+			AT asset = this.assets.get(i);
+			BitSet classPositions = assetsByClass.get(asset.getClass());
+			if (classPositions == null) {
+				classPositions = new BitSet();
+				assetsByClass.put(asset.getClass(), classPositions);
+			}
+			classPositions.set(i);
+
+			if (asset.getPrimaryRequirePath() != null) {
+				requirePathPositions.add(i);
+			}
+		}
+
+		final List<AT> indexedAssets = this.assets;
+		Collections.sort(requirePathPositions, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer position1, Integer position2) {
+				return indexedAssets.get(position1).getPrimaryRequirePath().compareTo( indexedAssets.get(position2).getPrimaryRequirePath() );
+			}
+		});
+
+		sortedRequirePaths = new String[requirePathPositions.size()];
+		sortedRequirePathPositions = new int[requirePathPositions.size()];
+		for (int i = 0; i < requirePathPositions.size(); i++) {
+			sortedRequirePathPositions[i] = requirePathPositions.get(i);
+			sortedRequirePaths[i] = this.assets.get(sortedRequirePathPositions[i]).getPrimaryRequirePath();
+		}
+	}
+
+	public List<AT> getAssets(List<String> prefixes, List<Class<? extends AT>> assetTypes)
+	{
+		boolean filterByType = assetTypes != null && !assetTypes.isEmpty();
+		boolean filterByPrefix = prefixes != null && !prefixes.isEmpty();
+
+		if (!filterByType && !filterByPrefix) {
+			return new ArrayList<>(assets);
+		}
+
+		BitSet matchingAssets;
+		if (filterByType && filterByPrefix) {
+			matchingAssets = getPrefixPositions(prefixes);
+			matchingAssets.and( getTypePositions(assetTypes) );
+		}
+		else if (filterByType) {
+			matchingAssets = getTypePositions(assetTypes);
+		}
+		else {
+			matchingAssets = getPrefixPositions(prefixes);
+		}
+
+		List<AT> matchingAssetList = new ArrayList<>(matchingAssets.cardinality());
+		for (int i = matchingAssets.nextSetBit(0); i >= 0; i = matchingAssets.nextSetBit(i + 1)) {
+			matchingAssetList.add( assets.get(i) );
+		}
+		return matchingAssetList;
+	}
+
+	private BitSet getTypePositions(List<Class<? extends AT>> assetTypes)
+	{
+		Set<Class<? extends AT>> assetTypeSet = new HashSet<>(assetTypes);
+		BitSet typePositions = assetsByType.get(assetTypeSet);
+
+		if (typePositions == null) {
+			typePositions = new BitSet();
+			for (Class<?> assetClass : assetsByClass.keySet()) {
+				if (isOfType(assetClass, assetTypeSet)) {
+					typePositions.or( assetsByClass.get(assetClass) );
+				}
+			}
+			assetsByType.put(assetTypeSet, typePositions);
+		}
+
+		return typePositions;
+	}
+
+	private BitSet getPrefixPositions(List<String> prefixes)
+	{
+		BitSet prefixPositions = new BitSet();
+
+		for (String prefix : prefixes) {
+			for (int i = firstRequirePathNotBefore(prefix); i < sortedRequirePaths.length && sortedRequirePaths[i].startsWith(prefix); i++) {
+				prefixPositions.set( sortedRequirePathPositions[i] );
+			}
+		}
+
+		return prefixPositions;
+	}
+
+	private int firstRequirePathNotBefore(String prefix)
+	{
+		int low = 0;
+		int high = sortedRequirePaths.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (sortedRequirePaths[middle].compareTo(prefix) < 0) {
+				low = middle + 1;
+			}
+			else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	private static boolean isOfType(Class<?> assetClass, Set<? extends Class<?>> assetTypes)
+	{
+		for (Class<?> assetType : assetTypes) {
+			if (assetType.isAssignableFrom(assetClass)) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
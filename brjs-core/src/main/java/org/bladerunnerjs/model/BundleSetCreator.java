@@ -14,6 +14,7 @@ import org.bladerunnerjs.api.model.exception.ModelOperationException;
 import org.bladerunnerjs.model.engine.NamedNode;
 import org.bladerunnerjs.model.events.BundleSetCreatedEvent;
 import org.bladerunnerjs.utility.BundleSetBuilder;
+import org.bladerunnerjs.utility.ParallelAssetDiscoverer;
 
 import com.google.common.base.Joiner;
 
@@ -32,6 +33,7 @@ public class BundleSetCreator {
 		
 		Logger logger = bundlableNode.root().logger(BundleSetCreator.class);
 		
+		ParallelAssetDiscoverer.discoverScopeAssets(bundlableNode);
 		BundleSetBuilder bundleSetBuilder = new BundleSetBuilder(bundlableNode);
 		List<LinkedAsset> seedFiles = bundlableNode.seedAssets();
 		
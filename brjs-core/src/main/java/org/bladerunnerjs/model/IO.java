@@ -12,7 +12,13 @@ import org.apache.commons.io.filefilter.OrFileFilter;
 import org.apache.commons.io.filefilter.SuffixFileFilter;
 
 public class IO {
-	private final Map<FileAccessLimitScope, File[]> activeScopes = new LinkedHashMap<>();
+	// scopes are per thread since each thread that computes memoized values has its own stack of active scopes
+	private final ThreadLocal<Map<FileAccessLimitScope, File[]>> activeScopes = new ThreadLocal<Map<FileAccessLimitScope, File[]>>() {
+		@Override
+		protected Map<FileAccessLimitScope, File[]> initialValue() {
+			return new LinkedHashMap<>();
+		}
+	};
 	private final SecurityManager securityManager;
 	private final IOFileFilter classFileAndJarFileFilter = new SuffixFileFilter( new String[] { ".class", ".jar" } );
 	private final IOFileFilter jrePathFileFilter = new DelegateFileFilter(new FileFilter() {
@@ -26,7 +32,7 @@ public class IO {
 	}
 	
 	public FileAccessLimitScope limitAccessToWithin(String scopeIdentifier, File[] watchItems) {
-		return new FileAccessLimitScope(scopeIdentifier, activeScopes, watchItems);
+		return new FileAccessLimitScope(scopeIdentifier, activeScopes.get(), watchItems);
 	}
 	
 	public void installFileAccessChecker() {
@@ -12,7 +12,6 @@ import org.bladerunnerjs.api.BundlableNode;
 import org.bladerunnerjs.api.memoization.MemoizedFile;
 import org.bladerunnerjs.api.model.exception.ModelOperationException;
 import org.bladerunnerjs.api.model.exception.RequirePathException;
-import org.bladerunnerjs.api.utility.RequirePathUtility;
 import org.bladerunnerjs.utility.reader.JsCommentStrippingReader;
 
 public class IndexPageAsset extends LinkedFileAsset {
@@ -28,7 +27,7 @@ public class IndexPageAsset extends LinkedFileAsset {
 		Set<String> dependencies = new LinkedHashSet<String>();
 		List<String> aliases = new ArrayList<>();
 		try {
-			RequirePathUtility.addRequirePathsFromReader(getReader(), dependencies, aliases);
+			assetContainer().root().dependencyExtractionIndex().addRequirePathsFromReader(getReader(), dependencies, aliases);
 		} catch (IOException ex) {
 			throw new RuntimeException(ex);
 		}
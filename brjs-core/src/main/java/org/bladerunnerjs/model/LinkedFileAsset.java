@@ -16,7 +16,6 @@ import org.bladerunnerjs.api.model.exception.AmbiguousRequirePathException;
 import org.bladerunnerjs.api.model.exception.ConfigException;
 import org.bladerunnerjs.api.model.exception.ModelOperationException;
 import org.bladerunnerjs.api.model.exception.RequirePathException;
-import org.bladerunnerjs.api.utility.RequirePathUtility;
 import org.bladerunnerjs.utility.UnicodeReader;
 
 /**
@@ -74,7 +73,7 @@ public class LinkedFileAsset implements LinkedAsset {
 		Set<String> dependencies = new LinkedHashSet<String>();
 		List<String> aliases = new ArrayList<>();
 		try {
-			RequirePathUtility.addRequirePathsFromReader(getReader(), dependencies, aliases);
+			assetContainer().root().dependencyExtractionIndex().addRequirePathsFromReader(getReader(), dependencies, aliases);
 		} catch (IOException ex) {
 			throw new RuntimeException(ex);
 		}
@@ -0,0 +1,111 @@
+package org.bladerunnerjs.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bladerunnerjs.api.Asset;
+import org.bladerunnerjs.api.JsLib;
+import org.bladerunnerjs.api.model.exception.AmbiguousRequirePathException;
+import org.bladerunnerjs.api.plugin.AssetRegistry;
+
+/**
+ * An index of the require paths available to a bundlable node, mapping each require path directly to the asset it resolves to rather than
+ * asking every asset container in scope for the require path in turn.
+ *
+ * <p>The index is never modified once it's been created. When the assets in scope change a new index is created from the previous one,
+ * re-using the require paths of any asset container whose assets haven't been re-discovered since the previous index was created.</p>
+ */
+public class RequirePathIndex
+{
+	private final Map<AssetContainer, ContainerRequirePaths> containerRequirePaths = new IdentityHashMap<>();
+	private final Map<String, Asset> assets = new HashMap<>();
+	private final Map<String, Asset> ambiguousAssets = new HashMap<>();
+
+	public RequirePathIndex(List<AssetContainer> scopeAssetContainers, RequirePathIndex previousIndex)
+	{
+		for (AssetContainer assetContainer : scopeAssetContainers) {
+			ContainerRequirePaths requirePaths = getContainerRequirePaths(assetContainer, previousIndex);
+			containerRequirePaths.put(assetContainer, requirePaths);
+
+			for (int i = 0; i < requirePaths.requirePaths.size(); i++) {
+				String requirePath = requirePaths.requirePaths.get(i);
+				Asset asset = requirePaths.assets.get(i);
+				Asset existingAsset = assets.get(requirePath);
+
+				if (existingAsset == null) {
+					assets.put(requirePath, asset);
+				}
+				else if (!ambiguousAssets.containsKey(requirePath)) {
+					ambiguousAssets.put(requirePath, asset);
+				}
+			}
+		}
+	}
+
+	public Asset getAsset(String requirePath) throws AmbiguousRequirePathException
+	{
+		Asset asset = assets.get(requirePath);
+
+		if (asset != null) {
+			Asset ambiguousAsset = ambiguousAssets.get(requirePath);
+			if (ambiguousAsset != null) {
+				throw new AmbiguousRequirePathException("'" + asset.getAssetPath() + "' and '" +
+					ambiguousAsset.getAssetPath() + "' source files both available via require path '" +
+					requirePath + "'.");
+			}
+		}
+
+		return asset;
+	}
+
+	private ContainerRequirePaths getContainerRequirePaths(AssetContainer assetContainer, RequirePathIndex previousIndex)
+	{
+		AssetRegistry assetRegistry = assetRegistry(assetContainer);
+
+		if (assetRegistry != null && previousIndex != null) {
+			ContainerRequirePaths previousRequirePaths = previousIndex.containerRequirePaths.get(assetContainer);
+			if (previousRequirePaths != null && previousRequirePaths.assetRegistry == assetRegistry) {
+				return previousRequirePaths;
+			}
+		}
+
+		ContainerRequirePaths requirePaths = new ContainerRequirePaths(assetRegistry);
+		for (Asset asset : (assetRegistry != null) ? assetRegistry.getRegisteredAssets() : assetContainer.assets()) {
+			for (String requirePath : asset.getRequirePaths()) {
+				requirePaths.requirePaths.add(requirePath);
+				requirePaths.assets.add(asset);
+			}
+		}
+
+		return requirePaths;
+	}
+
+	/* the registry is re-created whenever the container's assets are re-discovered, so it identifies the set of assets we indexed */
+	private static AssetRegistry assetRegistry(AssetContainer assetContainer)
+	{
+		if (assetContainer instanceof AppSdkJsLib) {
+			JsLib wrappedJsLib = ((AppSdkJsLib) assetContainer).getWrappedJsLib();
+			return assetRegistry(wrappedJsLib);
+		}
+		else if (assetContainer instanceof AbstractAssetContainer) {
+			return ((AbstractAssetContainer) assetContainer).assetDiscoveryResult();
+		}
+
+		return null;
+	}
+
+	private static class ContainerRequirePaths
+	{
+		private final AssetRegistry assetRegistry;
+		private final List<String> requirePaths = new ArrayList<>();
+		private final List<Asset> assets = new ArrayList<>();
+
+		public ContainerRequirePaths(AssetRegistry assetRegistry)
+		{
+			this.assetRegistry = assetRegistry;
+		}
+	}
+}
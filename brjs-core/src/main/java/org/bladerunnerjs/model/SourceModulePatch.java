@@ -38,7 +38,7 @@ public class SourceModulePatch
 	}
 	
 	public boolean patchAvailable() {
-		return patchFile.isFile() && assetContainer instanceof JsLib;
+		return assetContainer instanceof JsLib && brjs.jsPatchesIndex().isPatchFile(patchFile);
 	}
 	
 	public Reader getReader()
@@ -51,7 +51,7 @@ public class SourceModulePatch
 		}
 		else
 		{
-    		if (patchFile.isFile())
+    		if (brjs.jsPatchesIndex().isPatchFile(patchFile))
     		{
     			brjs.logger(SourceModulePatch.class).debug(PATCH_APPLIED_MESSAGE, requirePath, brjs.dir().getRelativePath(patchFile));
     			try
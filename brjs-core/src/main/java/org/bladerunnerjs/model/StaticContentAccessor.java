@@ -35,4 +35,10 @@ public class StaticContentAccessor extends UrlContentAccessor
 		writeLocalUrlContentsToOutputStream(urlPath, output);
 	}
 	
+	@Override
+	public boolean writesFileContentsUnchanged(String urlPath)
+	{
+		return true;
+	}
+	
 }
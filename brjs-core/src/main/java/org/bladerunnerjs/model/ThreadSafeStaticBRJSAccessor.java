@@ -1,7 +1,7 @@
 package org.bladerunnerjs.model;
 
 import java.io.File;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.bladerunnerjs.api.BRJS;
 import org.bladerunnerjs.api.model.exception.InvalidSdkDirectoryException;
@@ -13,12 +13,14 @@ import org.bladerunnerjs.plugin.utility.BRJSPluginLocator;
  * 
  * WARNING: Do not use this class. Any plugins that should have a reference to the BRJS instance will be provided it in the setBRJS() method. 
  *
+ * The model is guarded by a read/write lock: {@link #aquireModel()} gives exclusive access and should be used by code that mutates the
+ * model, while {@link #aquireModelForReading()} allows any number of requests to read the model and its memoized state in parallel.
  */
 // Note: this should be the only static state within 'brjs-core'
 public class ThreadSafeStaticBRJSAccessor {
 	
 	private static BRJS model;
-	private static final ReentrantLock lock = new ReentrantLock();
+	private static final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
 	
 	//TODO: remove this once we've removed all legacy code
 	public static BRJS root;
@@ -53,11 +55,20 @@ public class ThreadSafeStaticBRJSAccessor {
 	}
 	
 	public static BRJS aquireModel() {
-		lock.lock();
+		lock.writeLock().lock();
 		return model;
 	}
 	
 	public static void releaseModel() {
-		lock.unlock();
+		lock.writeLock().unlock();
+	}
+	
+	public static BRJS aquireModelForReading() {
+		lock.readLock().lock();
+		return model;
+	}
+	
+	public static void releaseModelForReading() {
+		lock.readLock().unlock();
 	}
 }
\ No newline at end of file
@@ -3,12 +3,19 @@ package org.bladerunnerjs.model;
 import java.io.File;
 import java.io.IOException;
 import java.io.Reader;
+import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
 
 import org.bladerunnerjs.api.App;
 import org.bladerunnerjs.api.Asset;
@@ -16,7 +23,9 @@ import org.bladerunnerjs.api.BladerunnerConf;
 import org.bladerunnerjs.api.memoization.Getter;
 import org.bladerunnerjs.api.memoization.MemoizedFile;
 import org.bladerunnerjs.api.memoization.MemoizedValue;
+import org.bladerunnerjs.api.model.exception.ConfigException;
 import org.bladerunnerjs.api.model.exception.ModelOperationException;
+import org.bladerunnerjs.utility.DependencyExtractionIndex;
 import org.bladerunnerjs.utility.reader.AssetReaderFactory;
 import org.bladerunnerjs.utility.trie.AliasReference;
 import org.bladerunnerjs.utility.trie.AssetReference;
@@ -26,17 +35,25 @@ import org.bladerunnerjs.utility.trie.TrieFactory;
 
 public class TrieBasedDependenciesCalculator
 {
+	private static final String DEPENDENCY_EXTRACTOR_NAME = "TrieBasedDependenciesCalculator";
+	private static final String TOKENS_SECTION = "tokens";
+	/* the whitespace characters the trie treats as delimiters */
+	private static final Pattern TOKEN_SEPARATOR_PATTERN = Pattern.compile("[ \\t\\r\\n]+");
+	
 	private App app;
 	private Asset asset;
 	private final AssetReaderFactory readerFactory;
 	private final TrieFactory trieFactory;
 	
+	private final MemoizedFile[] readerFiles;
+	
 	private MemoizedValue<ComputedValue> computedValue;
 	
 	public TrieBasedDependenciesCalculator(AssetContainer assetContainer, Asset asset, AssetReaderFactory readerFactory, MemoizedFile... readerFiles)
 	{
 		this.asset = asset;
 		this.readerFactory = readerFactory;
+		this.readerFiles = readerFiles;
 		app = assetContainer.app();
 		trieFactory = TrieFactory.getFactoryForAssetContainer(assetContainer);
 		
@@ -74,32 +91,30 @@ public class TrieBasedDependenciesCalculator
 			@Override
 			public Object get() throws ModelOperationException {
 				ComputedValue computedValue = new ComputedValue();
+				Trie<AssetReference> trie = trieFactory.createTrie();
 				
-				try(Reader reader = readerFactory.createReader()) {
-					Trie<AssetReference> trie = trieFactory.createTrie();
-					
-					List<AssetReference> trieMatches = trie.getMatches(reader);
-					for(Object match : trieMatches) {
-						if (match instanceof LinkedAssetReference){
-							LinkedAssetReference reference = (LinkedAssetReference)match;
-							if(!asset.getAssetPath().equals(reference.getAssetPath())) {
-								computedValue.requirePaths.put(reference.getRequirePath(), reference.getAssetClass());
-							}
+				try {
+					if (trieFactory.hasKeysContainingWhitespace()) {
+						try(Reader reader = readerFactory.createReader()) {
+							addTrieMatches(computedValue, trie.getMatches(reader));
 						}
-						else if (match instanceof AliasReference) {
-							AliasReference aliasReference = (AliasReference) match;
-							String alias = aliasReference.getName();
-							if (alias.length() > 0)
-							{
-								computedValue.aliases.add(alias);							
-							}
-						}
-						else {
-							throw new RuntimeException("Unknown match type returned from Trie.");
+					}
+					else {
+						// the index is keyed on the scanned content alone, so that it can be shared by every app, and the tokens it holds are matched against the trie for this asset's scope
+						DependencyExtractionIndex dependencyExtractionIndex = app.root().dependencyExtractionIndex();
+						String indexKeyQualifier = readerFactory.getClass().getName() + ":" + asset.getClass().getName() + ":" +
+							app.root().bladerunnerConf().getDefaultFileCharacterEncoding();
+						String indexKey = dependencyExtractionIndex.fileContentKey(DEPENDENCY_EXTRACTOR_NAME, indexKeyQualifier, readerFiles);
+						
+						Map<String, List<String>> indexEntry = dependencyExtractionIndex.getEntry(indexKey, TOKENS_SECTION);
+						if (indexEntry == null) {
+							indexEntry = calculateIndexEntry();
+							dependencyExtractionIndex.putEntry(indexKey, indexEntry);
 						}
+						addTrieMatches(computedValue, trie.getMatches(new StringReader(StringUtils.join(indexEntry.get(TOKENS_SECTION), '\n'))));
 					}
 				}
-				catch (IOException ex)
+				catch (IOException | ConfigException ex)
 				{
 					throw new ModelOperationException(ex);
 				}
@@ -109,6 +124,54 @@ public class TrieBasedDependenciesCalculator
 		});
  	}
 	
+	/*
+	 * Trie keys never contain whitespace, so the trie matches within each whitespace separated token of the scanned content are the same
+	 * wherever the token appears, other than for the first token, which isn't preceded by a delimiter unless the content starts with
+	 * whitespace (in which case the first token is empty). Only the first occurrence of each token is kept, which leaves the order of the
+	 * trie matches unchanged.
+	 */
+	private Map<String, List<String>> calculateIndexEntry() throws ModelOperationException, IOException {
+		String content;
+		try(Reader reader = readerFactory.createReader()) {
+			content = IOUtils.toString(reader);
+		}
+		
+		String[] contentTokens = TOKEN_SEPARATOR_PATTERN.split(content);
+		List<String> tokens = new ArrayList<>();
+		Set<String> distinctTokens = new HashSet<>();
+		for (int i = 0; i < contentTokens.length; i++) {
+			if (i == 0 || distinctTokens.add(contentTokens[i])) {
+				tokens.add(contentTokens[i]);
+			}
+		}
+		
+		Map<String, List<String>> indexEntry = new LinkedHashMap<>();
+		indexEntry.put(TOKENS_SECTION, tokens);
+		return indexEntry;
+	}
+	
+	private void addTrieMatches(ComputedValue computedValue, List<AssetReference> trieMatches) {
+		for(Object match : trieMatches) {
+			if (match instanceof LinkedAssetReference){
+				LinkedAssetReference reference = (LinkedAssetReference)match;
+				if(!asset.getAssetPath().equals(reference.getAssetPath())) {
+					computedValue.requirePaths.put(reference.getRequirePath(), reference.getAssetClass());
+				}
+			}
+			else if (match instanceof AliasReference) {
+				AliasReference aliasReference = (AliasReference) match;
+				String alias = aliasReference.getName();
+				if (alias.length() > 0)
+				{
+					computedValue.aliases.add(alias);							
+				}
+			}
+			else {
+				throw new RuntimeException("Unknown match type returned from Trie.");
+			}
+		}
+	}
+	
 	private class ComputedValue {
 		public Map<String, Class<? extends Asset>> requirePaths = new LinkedHashMap<>();
 		public List<String> aliases = new ArrayList<>();
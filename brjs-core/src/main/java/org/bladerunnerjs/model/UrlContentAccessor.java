@@ -20,4 +20,12 @@ public abstract class UrlContentAccessor
 	 */
 	public abstract void handleRequest(String urlPath, OutputStream output) throws IOException;
 	
+	/**
+	 * Whether {@link #handleRequest(String, OutputStream)} writes the unchanged contents of the file at the given URL path, in which case the
+	 * file can be served directly rather than being copied through the content accessor.
+	 */
+	public boolean writesFileContentsUnchanged(String urlPath) {
+		return false;
+	}
+	
 }
@@ -113,7 +113,7 @@ public abstract class AbstractNode implements Node
 	}
 	
 	@Override
-	public MemoizedFile file(String filePath)
+	public synchronized MemoizedFile file(String filePath)
 	{
 		MemoizedFile cachedFile = filesMap.get(filePath);
 		if (cachedFile == null)
@@ -221,7 +221,7 @@ public abstract class AbstractNode implements Node
 	}
 	
 	@Override
-	public NodeProperties nodeProperties(String pluginName)
+	public synchronized NodeProperties nodeProperties(String pluginName)
 	{
 		NodeProperties properties = propertiesMap.get(pluginName);
 		if (properties == null)
@@ -2,6 +2,7 @@ package org.bladerunnerjs.model.engine;
 
 import java.io.File;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -87,8 +88,7 @@ public abstract class AbstractRootNode extends AbstractNode implements RootNode
 	
 	@Override
 	public void clearRegisteredNode(Node node) {
-		String normalizedPath = node.dir().getAbsolutePath();
-		List<Node> nodesForPath = nodeCache.get(normalizedPath);
+		List<Node> nodesForPath = getRegisteredNodes(node.dir());
 		nodesForPath.remove(node.getTypeName());
 	}
 	
@@ -96,10 +96,12 @@ public abstract class AbstractRootNode extends AbstractNode implements RootNode
 	public List<Node> getRegisteredNodes(MemoizedFile childPath)
 	{
 		String normalizedPath = childPath.getAbsolutePath();
-		if (!nodeCache.containsKey(normalizedPath)) {
-			nodeCache.put( normalizedPath, new LinkedList<>() );
+		synchronized (nodeCache) {
+			if (!nodeCache.containsKey(normalizedPath)) {
+				nodeCache.put( normalizedPath, Collections.synchronizedList(new LinkedList<>()) );
+			}
+			return nodeCache.get(normalizedPath);
 		}
-		return nodeCache.get(normalizedPath);
 	}
 	
 	@Override
@@ -242,9 +244,11 @@ public abstract class AbstractRootNode extends AbstractNode implements RootNode
 	}
 	
 	private Node findFirstNodeOfClass(List<Node> nodes, Class<? extends Node> nodeClass) {
-		for (Node n : nodes) {
-			if ( nodeClass == null || (n != null && nodeClass.isAssignableFrom(n.getClass())) ) {
-				return n;
+		synchronized (nodes) {
+			for (Node n : nodes) {
+				if ( nodeClass == null || (n != null && nodeClass.isAssignableFrom(n.getClass())) ) {
+					return n;
+				}
 			}
 		}
 		return null;
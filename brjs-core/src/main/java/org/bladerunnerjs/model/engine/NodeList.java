@@ -58,7 +58,7 @@ public class NodeList<N extends Node> {
 	}
 	
 	@SuppressWarnings("unchecked")
-	public N item(String logicalNodeName) {
+	public synchronized N item(String logicalNodeName) {
 		if (!namedNodes.containsKey(logicalNodeName)) {
 			MemoizedFile childPath = getNodeDir(logicalNodeName);
 			N child;
@@ -14,7 +14,7 @@ public class VirtualProxyPlugin implements Plugin {
 		this.plugin = plugin;
 	}
 	
-	protected void initializePlugin() {
+	protected synchronized void initializePlugin() {
 		if(proxyState == VirtualProxyState.Uninitialized) {
 			proxyState = VirtualProxyState.Initlializing;
 			if (brjs == null)
@@ -77,7 +77,9 @@ public class PluginAccessor {
 	
 	public ContentPlugin contentPluginForLogicalPath(String logicalRequestpath)
 	{
-		String requestPrefix = logicalRequestpath.replaceFirst("^/", "").split("/")[0];
+		int prefixStart = (logicalRequestpath.startsWith("/")) ? 1 : 0;
+		int prefixEnd = logicalRequestpath.indexOf('/', prefixStart);
+		String requestPrefix = logicalRequestpath.substring(prefixStart, (prefixEnd == -1) ? logicalRequestpath.length() : prefixEnd);
 		
 		return contentPlugin(requestPrefix);
 	}
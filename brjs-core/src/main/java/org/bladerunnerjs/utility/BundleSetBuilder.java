@@ -1,9 +1,12 @@
 package org.bladerunnerjs.utility;
 
+import java.io.File;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.bladerunnerjs.api.Asset;
@@ -39,11 +42,19 @@ public class BundleSetBuilder {
 	private final Set<SourceModule> sourceModules = new LinkedHashSet<>();
 	private final Set<Asset> processedAssets = new LinkedHashSet<>();
 	private final BundlableNode bundlableNode;
+	private final BundleSetDependencyGraph dependencyGraph;
+	private final BundleSetDependencyGraph previousDependencyGraph;
+	private final ParallelDependencyResolver dependencyResolver;
 	private final Logger logger;
 	private Set<Asset> strictCheckingAssetsLogged = new HashSet<>();
+	private final Map<AssetContainer, Set<String>> assetContainerScopes = new HashMap<>();
+	private final Map<String, MemoizedFile> noStrictCheckingFiles = new HashMap<>();
 	
 	public BundleSetBuilder(BundlableNode bundlableNode) {
 		this.bundlableNode = bundlableNode;
+		dependencyGraph = new BundleSetDependencyGraph(bundlableNode);
+		previousDependencyGraph = BundleSetDependencyGraph.getPreviousGraph(bundlableNode, dependencyGraph);
+		dependencyResolver = new ParallelDependencyResolver(bundlableNode, previousDependencyGraph);
 		logger = bundlableNode.root().logger(BundleSetCreator.class);
 	}
 	
@@ -62,14 +73,26 @@ public class BundleSetBuilder {
 			addBootstrapAndDependencies(bootstrappingSourceModules);
 		}
 		
-		List<SourceModule> orderedSourceModules = SourceModuleDependencyOrderCalculator.getOrderedSourceModules(bundlableNode, bootstrappingSourceModules, sourceModules);
-		List<Asset> assetList = orderAssetsByAssetContainer(assets);
+		List<SourceModule> orderedSourceModules;
+		List<Asset> assetList;
+		if (dependencyGraph.hasSameOrderingInputs(previousDependencyGraph, seedAssets, bootstrappingSourceModules, sourceModules, assets)) {
+			orderedSourceModules = previousDependencyGraph.getOrderedSourceModules(sourceModules);
+			assetList = previousDependencyGraph.getOrderedAssets(assets);
+		}
+		else {
+			orderedSourceModules = SourceModuleDependencyOrderCalculator.getOrderedSourceModules(bundlableNode, bootstrappingSourceModules, sourceModules);
+			assetList = orderAssetsByAssetContainer(assets);
+		}
+		
+		dependencyGraph.setOrdering(seedAssets, bootstrappingSourceModules, sourceModules, orderedSourceModules, assets, assetList);
+		BundleSetDependencyGraph.storeGraph(bundlableNode, dependencyGraph);
 		
 		return new StandardBundleSet(bundlableNode, seedAssets, assetList, orderedSourceModules);
 	}
 
 	public void addSeedFiles(List<LinkedAsset> seedFiles) throws ModelOperationException {
 		seedAssets.addAll(seedFiles);
+		dependencyResolver.resolve(seedFiles);
 		for(LinkedAsset seedFile : seedFiles) {
 			addLinkedAsset(seedFile);
 		}
@@ -122,16 +145,8 @@ public class BundleSetBuilder {
 			throwExceptionOnFailure = false;
 		}
 		
-		StringBuilder scopedLocations = new StringBuilder();
-		AssetContainer sourceAssetContainer = asset.assetContainer();
-		AssetContainer dependantAssetContainer = dependantAsset.assetContainer();
-		BRJS brjs = sourceAssetContainer.root();
-		
-		for (AssetContainer sourceAssetContainerScope : sourceAssetContainer.scopeAssetContainers()) {
-			if (assetContainerMatchesScope(sourceAssetContainerScope, dependantAssetContainer)) {
-				return true;
-			}
-			scopedLocations.append( brjs.dir().getRelativePath(sourceAssetContainerScope.dir()) );
+		if (assetContainerScope(asset.assetContainer()).contains( scopeKey(dependantAsset.assetContainer()) )) {
+			return true;
 		}
 		if (!throwExceptionOnFailure) {
 			return false;
@@ -140,25 +155,32 @@ public class BundleSetBuilder {
 		throw new ModelOperationException(scopeException);
 	}
 	
-	private boolean assetContainerMatchesScope(AssetContainer sourceAssetContainer, AssetContainer dependantAssetContainer) {
-		// check the dir is equals as well incase the asset container is wrapped
-		if (sourceAssetContainer == dependantAssetContainer) {
-			return true;
-		}
-		if (sourceAssetContainer.dir() == dependantAssetContainer.dir() && sourceAssetContainer.getClass() == dependantAssetContainer.getClass()) {
-			return true;
+	private Set<String> assetContainerScope(AssetContainer assetContainer) {
+		Set<String> scope = assetContainerScopes.get(assetContainer);
+		if (scope == null) {
+			scope = new HashSet<>();
+			for (AssetContainer scopeAssetContainer : assetContainer.scopeAssetContainers()) {
+				scope.add( scopeKey(scopeAssetContainer) );
+			}
+			assetContainerScopes.put(assetContainer, scope);
 		}
-		if (sourceAssetContainer instanceof JsLib && dependantAssetContainer instanceof JsLib && sourceAssetContainer.dir().getName().equals(dependantAssetContainer.dir().getName())) {
-			return true;
+		return scope;
+	}
+	
+	private String scopeKey(AssetContainer assetContainer) {
+		// libs match on their name alone, and other asset containers on their dir as well as identity in case the asset container is wrapped
+		if (assetContainer instanceof JsLib) {
+			return JsLib.class.getSimpleName() + ":" + assetContainer.dir().getName();
 		}
-		return false;
+		return assetContainer.getClass().getName() + ":" + assetContainer.dir().getAbsolutePath();
 	}
 
 	private List<Asset> getModuleDependencies(LinkedAsset linkedAsset) throws ModelOperationException
 	{
 		List<Asset> moduleDependencies;
 		try {
-			moduleDependencies = new ArrayList<>(linkedAsset.getDependentAssets(bundlableNode));
+			moduleDependencies = dependencyResolver.getDependentAssets(linkedAsset);
+			dependencyGraph.addDependencies(linkedAsset, moduleDependencies, previousDependencyGraph);
 		} catch (ModelOperationException ex) {
 			if (ex.getCause() instanceof OutOfBundleScopeRequirePathException) {
 				((OutOfBundleScopeRequirePathException) ex.getCause()).setAssetWithException(linkedAsset);
@@ -246,19 +268,40 @@ public class BundleSetBuilder {
 	}	
 	
 	private boolean strictCheckingDisabled(Asset asset) {
-		MemoizedFile currentDir = asset.file().isDirectory() ? asset.file() : asset.file().getParentFile();
-		while (currentDir != null && currentDir != asset.assetContainer().dir().getParentFile()) {
-			MemoizedFile strictCheckingFile = currentDir.file("no-strict-checking");
-			if (strictCheckingFile.isFile()) {
-				if (!strictCheckingAssetsLogged.add(asset)) {
-					BRJS brjs = asset.assetContainer().root();
-					brjs.logger(this.getClass()).warn(STRICT_CHECKING_DISABLED_MSG, brjs.dir().getRelativePath(currentDir), asset.getAssetPath(), brjs.dir().getRelativePath(strictCheckingFile));
+		MemoizedFile strictCheckingFile = noStrictCheckingFile(asset);
+		if (strictCheckingFile == null) {
+			return false;
+		}
+		
+		if (!strictCheckingAssetsLogged.add(asset)) {
+			BRJS brjs = asset.assetContainer().root();
+			brjs.logger(this.getClass()).warn(STRICT_CHECKING_DISABLED_MSG, brjs.dir().getRelativePath(strictCheckingFile.getParentFile()), asset.getAssetPath(), brjs.dir().getRelativePath(strictCheckingFile));
+		}
+		return true;
+	}
+	
+	private MemoizedFile noStrictCheckingFile(Asset asset) {
+		MemoizedFile assetDir = asset.file().isDirectory() ? asset.file() : asset.file().getParentFile();
+		MemoizedFile assetContainerParentDir = asset.assetContainer().dir().getParentFile();
+		// either dir can be null, since a file or asset container at the root of the file system has no parent
+		String noStrictCheckingFileKey = dirKey(assetDir) + File.pathSeparator + dirKey(assetContainerParentDir);
+		
+		if (!noStrictCheckingFiles.containsKey(noStrictCheckingFileKey)) {
+			MemoizedFile strictCheckingFile = null;
+			MemoizedFile currentDir = assetDir;
+			while (strictCheckingFile == null && currentDir != null && currentDir != assetContainerParentDir) {
+				if (currentDir.file("no-strict-checking").isFile()) {
+					strictCheckingFile = currentDir.file("no-strict-checking");
 				}
-				return true;
+				currentDir = currentDir.getParentFile();
 			}
-			currentDir = currentDir.getParentFile();
+			noStrictCheckingFiles.put(noStrictCheckingFileKey, strictCheckingFile);
 		}
-		return false;
+		return noStrictCheckingFiles.get(noStrictCheckingFileKey);
+	}
+	
+	private String dirKey(MemoizedFile dir) {
+		return (dir == null) ? "" : dir.getAbsolutePath();
 	}
 	
 }
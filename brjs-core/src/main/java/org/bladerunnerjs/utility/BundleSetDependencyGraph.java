@@ -0,0 +1,289 @@
+package org.bladerunnerjs.utility;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.bladerunnerjs.api.Asset;
+import org.bladerunnerjs.api.BRJS;
+import org.bladerunnerjs.api.BundlableNode;
+import org.bladerunnerjs.api.LinkedAsset;
+import org.bladerunnerjs.api.SourceModule;
+import org.bladerunnerjs.api.memoization.FileModificationRegistry;
+import org.bladerunnerjs.api.memoization.MemoizedFile;
+import org.bladerunnerjs.model.AssetContainer;
+import org.bladerunnerjs.model.engine.NodeProperties;
+
+/**
+ * The dependency graph of the last bundle set built for a {@link BundlableNode}, used to rebuild the bundle set incrementally.
+ *
+ * <p>Each file based {@link LinkedAsset} is recorded with the dependencies it had and the version of its file when the bundle set was
+ * built. Assets are recorded by their path rather than by identity since asset discovery re-creates the asset objects for an asset
+ * container whenever anything within it changes. When the bundle set is next built only the assets whose file has changed, and the
+ * assets that directly depend on them, have their dependencies re-calculated. If none of the dependencies change then the dependency
+ * ordering of the previous bundle set is re-used.</p>
+ *
+ * <p>A graph can only be re-used if nothing outside of the asset files themselves that might affect how require paths are resolved has
+ * changed; that is the JS patches and the set of assets available to the bundlable node.</p>
+ */
+public class BundleSetDependencyGraph
+{
+	private static final String GRAPH_PROPERTY = "dependencyGraph";
+
+	private final String inputsSignature;
+	private final FileModificationRegistry fileModificationRegistry;
+	private final Map<String, RecordedAsset> recordedAssets = new HashMap<>();
+	private final Map<String, Set<String>> dependentAssets = new HashMap<>();
+	private boolean dependenciesChanged = false;
+
+	private List<String> seedAssets;
+	private List<String> bootstrappingSourceModules;
+	private List<String> sourceModules;
+	private List<String> assets;
+	private List<String> orderedSourceModules;
+	private List<String> orderedAssets;
+
+	public BundleSetDependencyGraph(BundlableNode bundlableNode)
+	{
+		inputsSignature = inputsSignature(bundlableNode);
+		fileModificationRegistry = bundlableNode.root().getFileModificationRegistry();
+	}
+
+	public static BundleSetDependencyGraph getPreviousGraph(BundlableNode bundlableNode, BundleSetDependencyGraph currentGraph)
+	{
+		BundleSetDependencyGraph previousGraph = (BundleSetDependencyGraph) graphProperties(bundlableNode).getTransientProperty(GRAPH_PROPERTY);
+		if (previousGraph == null || !previousGraph.inputsSignature.equals(currentGraph.inputsSignature)) {
+			return null;
+		}
+		return previousGraph;
+	}
+
+	public static void storeGraph(BundlableNode bundlableNode, BundleSetDependencyGraph graph)
+	{
+		graphProperties(bundlableNode).setTransientProperty(GRAPH_PROPERTY, graph);
+	}
+
+	/**
+	 * Returns the keys of the assets whose file has changed since this graph was built, along with the assets that directly depend on them.
+	 */
+	public Set<String> getInvalidatedAssets()
+	{
+		Set<String> invalidatedAssets = new HashSet<>();
+		for (String assetKey : recordedAssets.keySet()) {
+			RecordedAsset recordedAsset = recordedAssets.get(assetKey);
+			if (recordedAsset.fileBased && fileModificationRegistry.getFileVersion(recordedAsset.file) != recordedAsset.fileVersion) {
+				invalidatedAssets.add(assetKey);
+				Set<String> dependents = dependentAssets.get(assetKey);
+				if (dependents != null) {
+					invalidatedAssets.addAll(dependents);
+				}
+			}
+		}
+		return invalidatedAssets;
+	}
+
+	/**
+	 * Returns the current instances of the dependencies the asset had when this graph was built, or null if the asset is one of the
+	 * invalidated assets, or one of its dependencies no longer exists.
+	 */
+	public List<Asset> getUnchangedDependencies(LinkedAsset linkedAsset, Set<String> invalidatedAssets)
+	{
+		String assetKey = assetKey(linkedAsset);
+		RecordedAsset recordedAsset = recordedAssets.get(assetKey);
+		if (recordedAsset == null || recordedAsset.dependencies == null || !recordedAsset.fileBased) {
+			return null;
+		}
+
+		if (invalidatedAssets.contains(assetKey)) {
+			return null;
+		}
+
+		List<Asset> dependencies = new ArrayList<>();
+		for (AssetReference dependency : recordedAsset.dependencies) {
+			Asset asset = dependency.getAsset();
+			if (asset == null) {
+				return null;
+			}
+			dependencies.add(asset);
+		}
+		return dependencies;
+	}
+
+	public void addDependencies(LinkedAsset linkedAsset, List<Asset> dependencies, BundleSetDependencyGraph previousGraph)
+	{
+		String assetKey = assetKey(linkedAsset);
+		RecordedAsset recordedAsset = recordAsset(linkedAsset);
+		recordedAsset.dependencies = new ArrayList<>();
+
+		for (Asset dependency : dependencies) {
+			String dependencyKey = assetKey(dependency);
+			recordAsset(dependency);
+			recordedAsset.dependencies.add( new AssetReference(dependency) );
+
+			Set<String> dependents = dependentAssets.get(dependencyKey);
+			if (dependents == null) {
+				dependents = new HashSet<>();
+				dependentAssets.put(dependencyKey, dependents);
+			}
+			dependents.add(assetKey);
+		}
+
+		RecordedAsset previousRecordedAsset = (previousGraph == null) ? null : previousGraph.recordedAssets.get(assetKey);
+		if (previousRecordedAsset == null || previousRecordedAsset.dependencies == null ||
+				previousRecordedAsset.fileVersion != recordedAsset.fileVersion || !previousRecordedAsset.dependencies.equals(recordedAsset.dependencies)) {
+			dependenciesChanged = true;
+		}
+	}
+
+	public void setOrdering(List<LinkedAsset> seedAssets, List<SourceModule> bootstrappingSourceModules, Collection<SourceModule> sourceModules,
+		List<SourceModule> orderedSourceModules, Collection<Asset> assets, List<Asset> orderedAssets)
+	{
+		this.seedAssets = assetKeys(seedAssets);
+		this.bootstrappingSourceModules = assetKeys(bootstrappingSourceModules);
+		this.sourceModules = assetKeys(sourceModules);
+		this.orderedSourceModules = assetKeys(orderedSourceModules);
+		this.assets = assetKeys(assets);
+		this.orderedAssets = assetKeys(orderedAssets);
+	}
+
+	public boolean hasSameOrderingInputs(BundleSetDependencyGraph previousGraph, List<LinkedAsset> seedAssets,
+		List<SourceModule> bootstrappingSourceModules, Collection<SourceModule> sourceModules, Collection<Asset> assets)
+	{
+		return previousGraph != null && !dependenciesChanged && previousGraph.orderedSourceModules != null &&
+			previousGraph.recordedAssets.keySet().equals(recordedAssets.keySet()) &&
+			previousGraph.seedAssets.equals(assetKeys(seedAssets)) &&
+			previousGraph.bootstrappingSourceModules.equals(assetKeys(bootstrappingSourceModules)) &&
+			previousGraph.sourceModules.equals(assetKeys(sourceModules)) &&
+			previousGraph.assets.equals(assetKeys(assets));
+	}
+
+	public List<SourceModule> getOrderedSourceModules(Collection<SourceModule> sourceModules)
+	{
+		return orderedInstances(orderedSourceModules, sourceModules);
+	}
+
+	public List<Asset> getOrderedAssets(Collection<Asset> assets)
+	{
+		return orderedInstances(orderedAssets, assets);
+	}
+
+	private <AT extends Asset> List<AT> orderedInstances(List<String> orderedAssetKeys, Collection<AT> assetInstances)
+	{
+		Map<String, AT> assetsByKey = new HashMap<>();
+		for (AT asset : assetInstances) {
+			assetsByKey.put(assetKey(asset), asset);
+		}
+
+		List<AT> orderedAssets = new ArrayList<>();
+		for (String assetKey : orderedAssetKeys) {
+			orderedAssets.add( assetsByKey.get(assetKey) );
+		}
+		return orderedAssets;
+	}
+
+	private RecordedAsset recordAsset(Asset asset)
+	{
+		String assetKey = assetKey(asset);
+		RecordedAsset recordedAsset = recordedAssets.get(assetKey);
+		if (recordedAsset == null) {
+			recordedAsset = new RecordedAsset(asset, fileModificationRegistry);
+			recordedAssets.put(assetKey, recordedAsset);
+		}
+		return recordedAsset;
+	}
+
+	private static String assetKey(Asset asset)
+	{
+		return asset.getClass().getName() + ":" + asset.getAssetPath() + ":" + asset.getPrimaryRequirePath();
+	}
+
+	private static List<String> assetKeys(Collection<? extends Asset> assets)
+	{
+		List<String> assetKeys = new ArrayList<>();
+		for (Asset asset : assets) {
+			assetKeys.add( assetKey(asset) );
+		}
+		return assetKeys;
+	}
+
+	private static NodeProperties graphProperties(BundlableNode bundlableNode)
+	{
+		return bundlableNode.nodeProperties(BundleSetDependencyGraph.class.getSimpleName());
+	}
+
+	private static String inputsSignature(BundlableNode bundlableNode)
+	{
+		BRJS brjs = bundlableNode.root();
+		FileModificationRegistry fileModificationRegistry = brjs.getFileModificationRegistry();
+		// changes to the conf files are global changes and cause every file version to change, but the JS patches need to be checked explicitly
+		ContentHasher signature = new ContentHasher().add( String.valueOf(fileModificationRegistry.getFileVersion(brjs.jsPatches().dir())) );
+
+		for (AssetContainer assetContainer : bundlableNode.scopeAssetContainers()) {
+			signature.add(assetContainer.dir().getAbsolutePath());
+			for (Asset asset : assetContainer.assets()) {
+				signature.add( assetKey(asset) );
+				for (String requirePath : asset.getRequirePaths()) {
+					signature.add(requirePath);
+				}
+			}
+		}
+		return signature.hash();
+	}
+
+	private static class RecordedAsset
+	{
+		private final MemoizedFile file;
+		private final boolean fileBased;
+		private final long fileVersion;
+		private List<AssetReference> dependencies;
+
+		public RecordedAsset(Asset asset, FileModificationRegistry fileModificationRegistry)
+		{
+			file = asset.file();
+			fileBased = (file != null) && file.isFile();
+			fileVersion = (fileBased) ? fileModificationRegistry.getFileVersion(file) : 0;
+		}
+	}
+
+	private static class AssetReference
+	{
+		private final String assetKey;
+		private final AssetContainer assetContainer;
+		private final String primaryRequirePath;
+		private final Asset unregisteredAsset;
+
+		public AssetReference(Asset asset)
+		{
+			assetKey = assetKey(asset);
+			assetContainer = asset.assetContainer();
+			primaryRequirePath = asset.getPrimaryRequirePath();
+			// assets that aren't registered with their asset container (e.g. services) are created by their require plugin and never replaced
+			unregisteredAsset = (assetContainer.asset(primaryRequirePath) == asset) ? null : asset;
+		}
+
+		public Asset getAsset()
+		{
+			if (unregisteredAsset != null) {
+				return unregisteredAsset;
+			}
+			Asset asset = assetContainer.asset(primaryRequirePath);
+			return (asset != null && assetKey(asset).equals(assetKey)) ? asset : null;
+		}
+
+		@Override
+		public boolean equals(Object object)
+		{
+			return (object instanceof AssetReference) && ((AssetReference) object).assetKey.equals(assetKey);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return assetKey.hashCode();
+		}
+	}
+}
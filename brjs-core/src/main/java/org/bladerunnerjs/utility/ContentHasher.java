@@ -0,0 +1,91 @@
+package org.bladerunnerjs.utility;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Builds a hex encoded SHA-1 hash from a sequence of strings, byte arrays and files. Each value is terminated
+ * before the next one is added so that the values 'ab','c' and 'a','bc' produce different hashes.
+ */
+public class ContentHasher
+{
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+	private static final char[] HEX_CHARS = "0123456789abcdef".toCharArray();
+	private static final byte VALUE_TERMINATOR = 0;
+
+	private final MessageDigest digest;
+
+	public ContentHasher()
+	{
+		try {
+			digest = MessageDigest.getInstance("SHA-1");
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	public ContentHasher add(String value)
+	{
+		return add( value.getBytes(UTF_8) );
+	}
+
+	public ContentHasher add(byte[] value)
+	{
+		digest.update(value);
+		digest.update(VALUE_TERMINATOR);
+		return this;
+	}
+
+	public ContentHasher add(File file) throws IOException
+	{
+		if (!file.isFile()) {
+			return add("missing:" + file.getName());
+		}
+
+		byte[] buffer = new byte[8192];
+		try (InputStream input = new FileInputStream(file)) {
+			int bytesRead;
+			while ((bytesRead = input.read(buffer)) != -1) {
+				digest.update(buffer, 0, bytesRead);
+			}
+		}
+		digest.update(VALUE_TERMINATOR);
+		return this;
+	}
+
+	public String hash()
+	{
+		return toHex( digest.digest() );
+	}
+
+	public static String hash(String... values)
+	{
+		ContentHasher hasher = new ContentHasher();
+		for (String value : values) {
+			hasher.add(value);
+		}
+		return hasher.hash();
+	}
+
+	public static String hash(byte[] value)
+	{
+		return new ContentHasher().add(value).hash();
+	}
+
+	private static String toHex(byte[] bytes)
+	{
+		char[] hexChars = new char[bytes.length * 2];
+		for (int i = 0; i < bytes.length; i++) {
+			int value = bytes[i] & 0xFF;
+			hexChars[i * 2] = HEX_CHARS[value >>> 4];
+			hexChars[i * 2 + 1] = HEX_CHARS[value & 0x0F];
+		}
+		return new String(hexChars);
+	}
+}
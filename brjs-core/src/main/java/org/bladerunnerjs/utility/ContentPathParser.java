@@ -16,10 +16,22 @@ import org.eclipse.jetty.util.URIUtil;
 
 public class ContentPathParser
 {
+	private static final int MAX_CACHED_PARSE_RESULTS = 1000;
+	private static final ParsedContentPath UNPARSABLE_REQUEST = new ParsedContentPath(null);
+	
 	private final Map<String, String> requestForms;
 	private final Map<String, Pattern> tokens;
 	private final Map<String, Pattern> requestFormPatterns;
 	private final Map<String, List<String>> requestFormTokens;
+	private final Map<String, String> requestFormPrefixes;
+	private final Map<String, ParsedContentPath> parseResults = new LinkedHashMap<String, ParsedContentPath>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+		
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, ParsedContentPath> eldest) {
+			return size() > MAX_CACHED_PARSE_RESULTS;
+		}
+	};
 	
 	public ContentPathParser(Map<String, String> requestForms, Map<String, String> tokens)
 	{
@@ -27,6 +39,7 @@ public class ContentPathParser
 		this.tokens = generateTokenPatterns(tokens);
 		this.requestFormPatterns = generateRequestFormPatterns(requestForms, tokens);
 		this.requestFormTokens = generateRequestFormTokens(requestForms);
+		this.requestFormPrefixes = generateRequestFormPrefixes(requestForms);
 	}
 	
 	public List<String> getRequestForms()
@@ -58,56 +71,100 @@ public class ContentPathParser
 	}
 	
 	public boolean canParseRequest(String requestPath) {
-		try
+		return getParseResult(requestPath) != UNPARSABLE_REQUEST;
+	}
+	
+	public ParsedContentPath parse(String request) throws MalformedRequestException
+	{
+		ParsedContentPath parseResult = getParseResult(request);
+		
+		if (parseResult == UNPARSABLE_REQUEST)
 		{
-			parse(requestPath);
-			return true;
+			MalformedRequestException ex = new MalformedRequestException(request, "Request did not match " + requestFormPatterns);
+			ex.setCharacterNumber(getLastMatchPos(request) + 1);
+			throw ex;
 		}
-		catch (MalformedRequestException | IndexOutOfBoundsException e)
+		
+		/* callers are given their own copy since the cached result is shared */
+		ParsedContentPath contentPath = new ParsedContentPath(parseResult.formName);
+		contentPath.properties.putAll(parseResult.properties);
+		return contentPath;
+	}
+	
+	/* pages can request hundreds of assets, and the same paths are requested each time the page loads, so parse results are cached */
+	private ParsedContentPath getParseResult(String request)
+	{
+		synchronized (parseResults)
 		{
-			return false;
+			ParsedContentPath parseResult = parseResults.get(request);
+			if (parseResult != null)
+			{
+				return parseResult;
+			}
 		}
+		
+		ParsedContentPath parseResult = match(request);
+		
+		synchronized (parseResults)
+		{
+			parseResults.put(request, parseResult);
+		}
+		return parseResult;
 	}
 	
-	public ParsedContentPath parse(String request) throws MalformedRequestException
+	/* request forms whose literal prefix the request doesn't start with can't match, so their patterns are only run for the remaining forms */
+	private ParsedContentPath match(String request)
 	{
-		int lastMatchPos = 0;
-		
 		for (String requestFormName : requestFormPatterns.keySet())
 		{
-			Pattern requestFormPattern = requestFormPatterns.get(requestFormName);
-			Matcher requestMatcher = requestFormPattern.matcher(request);
-
-			if(requestMatcher.lookingAt())
+			if (!request.startsWith(requestFormPrefixes.get(requestFormName)))
 			{
-				if ((requestMatcher.start() == 0) && (requestMatcher.end() == request.length()))
+				continue;
+			}
+			
+			Matcher requestMatcher = requestFormPatterns.get(requestFormName).matcher(request);
+			
+			if (requestMatcher.lookingAt() && (requestMatcher.end() == request.length()))
+			{
+				ParsedContentPath contentPath = new ParsedContentPath(requestFormName);
+				List<String> tokens = requestFormTokens.get(requestFormName);
+				
+				for (int gi = 0; gi < requestMatcher.groupCount() && gi < tokens.size(); ++gi)
 				{
-					ParsedContentPath contentPath = new ParsedContentPath(requestFormName);
-					List<String> tokens = requestFormTokens.get(requestFormName);
-
-					for (int gi = 0; gi < requestMatcher.groupCount() && gi < tokens.size(); ++gi)
-					{
-						String property = requestMatcher.group(gi + 1);
-						try {
-							String decodedProperty = URIUtil.decodePath(property);
-							contentPath.properties.put(tokens.get(gi), decodedProperty);
-						} catch (Exception ex) {
-							/* TODO: investigate whether we need this - if the URL fails to decode should we really catch the exception? */ 
-							contentPath.properties.put(tokens.get(gi), property);							
-						}
+					String property = requestMatcher.group(gi + 1);
+					try {
+						String decodedProperty = URIUtil.decodePath(property);
+						contentPath.properties.put(tokens.get(gi), decodedProperty);
+					} catch (Exception ex) {
+						/* TODO: investigate whether we need this - if the URL fails to decode should we really catch the exception? */ 
+						contentPath.properties.put(tokens.get(gi), property);							
 					}
-
-					return contentPath;
 				}
-				else if ((requestMatcher.start() == 0) && (requestMatcher.end() > lastMatchPos))
+				
+				return contentPath;
+			}
+		}
+		
+		return UNPARSABLE_REQUEST;
+	}
+	
+	/* this is only used to give details of where a request is malformed, so it tries every request form */
+	private int getLastMatchPos(String request)
+	{
+		int lastMatchPos = 0;
+		
+		for (Pattern requestFormPattern : requestFormPatterns.values())
+		{
+			Matcher requestMatcher = requestFormPattern.matcher(request);
+			
+			if(requestMatcher.lookingAt())
+			{
+				if ((requestMatcher.start() == 0) && (requestMatcher.end() > lastMatchPos))
 				{
 					lastMatchPos = requestMatcher.end();
 				}
-				else
-				{
-				}
 			}
-			else
+			else if (request.length() > 0)
 			{
 				int requestLastMatchPos = getLastMatchPos(request, requestMatcher);
 				
@@ -117,10 +174,8 @@ public class ContentPathParser
 				}
 			}
 		}
-
-		MalformedRequestException ex = new MalformedRequestException(request, "Request did not match " + requestFormPatterns);
-		ex.setCharacterNumber(lastMatchPos + 1);
-		throw ex;
+		
+		return lastMatchPos;
 	}
 	
 	private int getLastMatchPos(String request, Matcher requestMatcher)
@@ -180,6 +235,21 @@ public class ContentPathParser
 		return requestFormPatterns;
 	}
 	
+	/* the literal text at the start of each request form, up to its first token or any character that isn't escaped when it's converted to a pattern */
+	private Map<String, String> generateRequestFormPrefixes(Map<String, String> requestForms)
+	{
+		Map<String, String> requestFormPrefixes = new LinkedHashMap<>();
+		
+		for (String requestFormName : requestForms.keySet())
+		{
+			String requestForm = requestForms.get(requestFormName);
+			int prefixEnd = StringUtils.indexOfAny(requestForm, "<^$|{}\\");
+			requestFormPrefixes.put(requestFormName, (prefixEnd == -1) ? requestForm : requestForm.substring(0, prefixEnd));
+		}
+		
+		return requestFormPrefixes;
+	}
+	
 	private Map<String, List<String>> generateRequestFormTokens(Map<String, String> requestForms)
 	{
 		Map<String, List<String>> requestFormTokens = new LinkedHashMap<>();
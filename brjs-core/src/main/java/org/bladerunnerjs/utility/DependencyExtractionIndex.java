@@ -0,0 +1,316 @@
+package org.bladerunnerjs.utility;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.IOUtils;
+import org.bladerunnerjs.api.utility.RequirePathUtility;
+
+/**
+ * A persistent store of the dependency information extracted from source files, keyed by a hash of the content that was scanned.
+ *
+ * <p>Extracting require paths and trie matches from a file is a pure function of the file content (and, for trie matches, the set of
+ * require paths within scope), so the results can safely be shared between apps that use the same SDK, and between runs of BRJS. Each
+ * entry is a set of named sections, each containing an ordered list of values. Entries are written to their own file beneath the index
+ * directory so that several BRJS processes can share the same index, and an entry is only ever re-created if the content it was
+ * calculated from changes.</p>
+ *
+ * <p>Only the most recently used entries are held in memory, and entries that haven't been used for {@link #UNUSED_ENTRY_MAX_AGE_DAYS}
+ * days are pruned from the index directory (at most once a day), so neither grows without bound as files are edited.</p>
+ *
+ * <p>Keys include the BRJS version, as well as the index format version, so that entries created by an older extractor are never re-used
+ * after an upgrade. BRJS doesn't watch the index directory for changes, so writing entries doesn't invalidate any memoized values.</p>
+ *
+ * <p>The index is purely an optimisation; any failure to read or write an entry is treated as a cache miss.</p>
+ */
+public class DependencyExtractionIndex
+{
+	public static final String INDEX_DIR_NAME = "dependency-index";
+	public static final int MAX_CACHED_ENTRIES = 20000;
+	public static final int UNUSED_ENTRY_MAX_AGE_DAYS = 30;
+
+	/* increment this whenever the way dependencies are extracted changes so that existing entries are ignored */
+	private static final String INDEX_FORMAT_VERSION = "1";
+	private static final String REQUIRE_PATHS_EXTRACTOR = "RequirePathUtility";
+	private static final String DEPENDENCIES_SECTION = "dependencies";
+	private static final String ALIASES_SECTION = "aliases";
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+	private static final String LAST_PRUNED_FILE_NAME = "last-pruned";
+	private static final long ONE_DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+	private final Map<String, Map<String, List<String>>> entries;
+	private final File indexDir;
+	private final String brjsVersion;
+
+	public DependencyExtractionIndex(File indexDir, String brjsVersion)
+	{
+		this(indexDir, brjsVersion, MAX_CACHED_ENTRIES);
+	}
+
+	@SuppressWarnings("serial")
+	public DependencyExtractionIndex(File indexDir, String brjsVersion, int maxCachedEntries)
+	{
+		this.indexDir = indexDir;
+		this.brjsVersion = brjsVersion;
+		entries = new LinkedHashMap<String, Map<String, List<String>>>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Map<String, List<String>>> eldest) {
+				return size() > maxCachedEntries;
+			}
+		};
+	}
+
+	public String contentKey(String extractorName, String... contents)
+	{
+		ContentHasher hasher = new ContentHasher().add(INDEX_FORMAT_VERSION).add(brjsVersion).add(extractorName);
+		for (String content : contents) {
+			hasher.add(content);
+		}
+		return hasher.hash();
+	}
+
+	public String fileContentKey(String extractorName, String qualifier, File... files) throws IOException
+	{
+		ContentHasher hasher = new ContentHasher().add(INDEX_FORMAT_VERSION).add(brjsVersion).add(extractorName).add(qualifier);
+		for (File file : files) {
+			hasher.add(file);
+		}
+		return hasher.hash();
+	}
+
+	public Map<String, List<String>> getEntry(String key, String... requiredSections)
+	{
+		Map<String, List<String>> entry;
+		synchronized (entries) {
+			entry = entries.get(key);
+		}
+		if (entry == null) {
+			entry = readEntry(key);
+			if (entry != null) {
+				synchronized (entries) {
+					entries.put(key, entry);
+				}
+			}
+		}
+		
+		if (entry != null) {
+			for (String requiredSection : requiredSections) {
+				if (!entry.containsKey(requiredSection)) {
+					return null;
+				}
+			}
+		}
+		return entry;
+	}
+
+	public void putEntry(String key, Map<String, List<String>> sections)
+	{
+		Map<String, List<String>> entry = new LinkedHashMap<>();
+		for (String section : sections.keySet()) {
+			entry.put(section, Collections.unmodifiableList(new ArrayList<>(sections.get(section))));
+		}
+		entry = Collections.unmodifiableMap(entry);
+
+		Map<String, List<String>> previousEntry;
+		synchronized (entries) {
+			previousEntry = entries.put(key, entry);
+		}
+		if (previousEntry == null) {
+			writeEntry(key, entry);
+		}
+	}
+
+	/**
+	 * Prunes the entries that haven't been used for {@link #UNUSED_ENTRY_MAX_AGE_DAYS} days, unless the index was pruned within the last
+	 * day. Pruning happens on a background thread since the index directory can contain a large number of entries.
+	 */
+	public void pruneUnusedEntriesIfDue()
+	{
+		File lastPrunedFile = new File(indexDir, LAST_PRUNED_FILE_NAME);
+		long now = System.currentTimeMillis();
+		if (lastPrunedFile.lastModified() > now - ONE_DAY_MILLIS) {
+			return;
+		}
+
+		try {
+			indexDir.mkdirs();
+			if (!lastPrunedFile.createNewFile()) {
+				lastPrunedFile.setLastModified(now);
+			}
+		}
+		catch (IOException e) {
+			return;
+		}
+
+		Thread pruningThread = new Thread(() -> pruneEntriesUnusedSince(now - TimeUnit.DAYS.toMillis(UNUSED_ENTRY_MAX_AGE_DAYS)), "dependency-index-pruner");
+		pruningThread.setDaemon(true);
+		pruningThread.start();
+	}
+
+	public void pruneEntriesUnusedSince(long lastUsedTime)
+	{
+		File[] entryDirs = indexDir.listFiles();
+		if (entryDirs == null) {
+			return;
+		}
+
+		for (File entryDir : entryDirs) {
+			if (!entryDir.isDirectory()) {
+				continue;
+			}
+			
+			File[] entryFiles = entryDir.listFiles();
+			if (entryFiles == null) {
+				continue;
+			}
+
+			for (File entryFile : entryFiles) {
+				if (entryFile.lastModified() < lastUsedTime) {
+					entryFile.delete();
+				}
+			}
+			entryDir.delete(); // only succeeds once the directory is empty
+		}
+	}
+
+	public void addRequirePathsFromReader(Reader reader, Set<String> dependencies, List<String> aliases) throws IOException
+	{
+		String content;
+		try {
+			content = IOUtils.toString(reader);
+		}
+		finally {
+			reader.close();
+		}
+
+		String key = contentKey(REQUIRE_PATHS_EXTRACTOR, content);
+		Map<String, List<String>> entry = getEntry(key, DEPENDENCIES_SECTION, ALIASES_SECTION);
+		if (entry == null) {
+			Set<String> extractedDependencies = new LinkedHashSet<>();
+			List<String> extractedAliases = new ArrayList<>();
+			RequirePathUtility.addRequirePathsFromContent(content, extractedDependencies, extractedAliases);
+
+			entry = new LinkedHashMap<>();
+			entry.put(DEPENDENCIES_SECTION, new ArrayList<>(extractedDependencies));
+			entry.put(ALIASES_SECTION, extractedAliases);
+			putEntry(key, entry);
+		}
+
+		dependencies.addAll( entry.get(DEPENDENCIES_SECTION) );
+		aliases.addAll( entry.get(ALIASES_SECTION) );
+	}
+
+	private File entryFile(String key)
+	{
+		return new File(new File(indexDir, key.substring(0, 2)), key);
+	}
+
+	private Map<String, List<String>> readEntry(String key)
+	{
+		File entryFile = entryFile(key);
+		long lastModified = entryFile.lastModified();
+		if (lastModified == 0) {
+			return null;
+		}
+
+		// entry files are touched (at most once a day) when they're used so that only entries that are no longer used get pruned
+		long now = System.currentTimeMillis();
+		if (lastModified < now - ONE_DAY_MILLIS) {
+			entryFile.setLastModified(now);
+		}
+
+		Map<String, List<String>> entry = new LinkedHashMap<>();
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(entryFile), UTF_8))) {
+			List<String> currentSection = null;
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.startsWith("[") && line.endsWith("]")) {
+					currentSection = new ArrayList<>();
+					entry.put(line.substring(1, line.length() - 1), currentSection);
+				}
+				else if (line.startsWith(" ") && currentSection != null) {
+					currentSection.add( unescape(line.substring(1)) );
+				}
+				else if (line.length() > 0) {
+					return null;
+				}
+			}
+		}
+		catch (IOException e) {
+			return null;
+		}
+
+		for (String section : entry.keySet()) {
+			entry.put(section, Collections.unmodifiableList(entry.get(section)));
+		}
+		return Collections.unmodifiableMap(entry);
+	}
+
+	private void writeEntry(String key, Map<String, List<String>> entry)
+	{
+		File entryFile = entryFile(key);
+		if (entryFile.isFile()) {
+			return;
+		}
+
+		File tempFile = null;
+		try {
+			entryFile.getParentFile().mkdirs();
+			tempFile = File.createTempFile(key, ".tmp", entryFile.getParentFile());
+			try (Writer writer = new OutputStreamWriter(new FileOutputStream(tempFile), UTF_8)) {
+				for (String section : entry.keySet()) {
+					writer.write("[" + section + "]\n");
+					for (String value : entry.get(section)) {
+						writer.write(" " + escape(value) + "\n");
+					}
+				}
+			}
+			Files.move(tempFile.toPath(), entryFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		catch (IOException | RuntimeException e) {
+			// the index is only an optimisation so we carry on without persisting the entry
+			if (tempFile != null) {
+				tempFile.delete();
+			}
+		}
+	}
+
+	private static String escape(String value)
+	{
+		return value.replace("\\", "\\\\").replace("\r", "\\r").replace("\n", "\\n");
+	}
+
+	private static String unescape(String value)
+	{
+		StringBuilder unescaped = new StringBuilder(value.length());
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '\\' && i + 1 < value.length()) {
+				char next = value.charAt(++i);
+				unescaped.append( (next == 'n') ? '\n' : (next == 'r') ? '\r' : next );
+			}
+			else {
+				unescaped.append(c);
+			}
+		}
+		return unescaped.toString();
+	}
+}
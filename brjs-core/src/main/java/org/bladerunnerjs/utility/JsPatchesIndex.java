@@ -0,0 +1,68 @@
+package org.bladerunnerjs.utility;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Set;
+
+import org.bladerunnerjs.api.BRJS;
+import org.bladerunnerjs.api.memoization.MemoizedValue;
+
+/**
+ * Keeps track of the contents of the directories within 'js-patches', so that source modules can find out whether they have a patch
+ * without probing the file system themselves. Each directory is only listed again once something within it changes.
+ *
+ * <p>Only directory names are ever read, so the index can be used while computing the memoized values of individual source modules,
+ * which are only allowed to read their own source and patch files.</p>
+ */
+public class JsPatchesIndex {
+	private final BRJS brjs;
+	private final Map<String, MemoizedValue<Set<String>>> dirContents = new HashMap<>();
+	
+	public JsPatchesIndex(BRJS brjs) {
+		this.brjs = brjs;
+	}
+	
+	public boolean isPatchFile(File patchFile) {
+		File jsPatchesDir = new File(brjs.jsPatches().dir().getAbsolutePath());
+		LinkedList<String> patchPathNames = new LinkedList<>();
+		
+		File dir = new File(patchFile.getAbsolutePath());
+		while (!dir.equals(jsPatchesDir)) {
+			patchPathNames.addFirst(dir.getName());
+			dir = dir.getParentFile();
+			if (dir == null) {
+				return false;
+			}
+		}
+		
+		for (String name : patchPathNames) {
+			if (!getDirContents(dir).contains(name)) {
+				return false;
+			}
+			dir = new File(dir, name);
+		}
+		
+		return patchFile.isFile();
+	}
+	
+	private Set<String> getDirContents(File dir) {
+		MemoizedValue<Set<String>> dirContentsValue;
+		
+		synchronized (dirContents) {
+			dirContentsValue = dirContents.get(dir.getAbsolutePath());
+			if (dirContentsValue == null) {
+				dirContentsValue = new MemoizedValue<>("JsPatchesIndex.dirContents", brjs, dir);
+				dirContents.put(dir.getAbsolutePath(), dirContentsValue);
+			}
+		}
+		
+		return dirContentsValue.value(() -> {
+			String[] names = dir.list();
+			return (names == null) ? new HashSet<String>() : new HashSet<>(Arrays.asList(names));
+		});
+	}
+}
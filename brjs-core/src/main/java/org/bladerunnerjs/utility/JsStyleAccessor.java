@@ -2,7 +2,9 @@ package org.bladerunnerjs.utility;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.bladerunnerjs.api.BRJS;
@@ -20,11 +22,14 @@ public class JsStyleAccessor {
 	
 	public String getJsStyle(File dir) {
 		String path = dir.getAbsolutePath();
-		MemoizedValue<String> jsStyleMemoizedValue = dirStyleCache.get(path);
+		MemoizedValue<String> jsStyleMemoizedValue;
 		
-		if (jsStyleMemoizedValue == null) {
-			jsStyleMemoizedValue = new MemoizedValue<String>("JsStyle", brjs);
-			dirStyleCache.put(path, jsStyleMemoizedValue);
+		synchronized (dirStyleCache) {
+			jsStyleMemoizedValue = dirStyleCache.get(path);
+			if (jsStyleMemoizedValue == null) {
+				jsStyleMemoizedValue = new MemoizedValue<String>("JsStyle", brjs, jsStyleFiles(dir));
+				dirStyleCache.put(path, jsStyleMemoizedValue);
+			}
 		}
 		
 		return jsStyleMemoizedValue.value(() -> {
@@ -52,6 +57,19 @@ public class JsStyleAccessor {
 		}
 	}
 	
+	/* the style of a directory can only change if the '.js-style' file in the directory, or in one of the parent directories it inherits from, changes */
+	private List<File> jsStyleFiles(File dir) {
+		List<File> jsStyleFiles = new ArrayList<>();
+		File brjsParentDir = brjs.dir().getUnderlyingFile().getParentFile();
+		
+		jsStyleFiles.add(new File(dir, ".js-style"));
+		for (File parent = dir.getParentFile(); parent != null && !parent.equals(brjsParentDir); parent = parent.getParentFile()) {
+			jsStyleFiles.add(new File(parent, ".js-style"));
+		}
+		
+		return jsStyleFiles;
+	}
+	
 	private static String readJsStyleFile(File dir) {
 		String jsStyle = null;
 		
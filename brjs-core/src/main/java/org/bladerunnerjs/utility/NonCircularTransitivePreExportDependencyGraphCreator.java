@@ -1,84 +1,154 @@
 package org.bladerunnerjs.utility;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 import org.bladerunnerjs.api.SourceModule;
 import org.bladerunnerjs.api.model.exception.ModelOperationException;
 
+/**
+ * Combines the pre-export and post-export define-time dependency graphs, dropping any post-export dependency that is part of a cycle.
+ *
+ * <p>A post-export dependency from A to B is circular if A can be reached from B, which (since B can be reached from A) is the case
+ * exactly when A and B are in the same strongly connected component of the combined graph. The components are calculated once, using
+ * dense integer ids for the source modules, rather than searching the graph for every post-export dependency.</p>
+ */
 public class NonCircularTransitivePreExportDependencyGraphCreator {
 	public static Map<SourceModule, List<SourceModule>> createGraph(Map<SourceModule, List<SourceModule>> preExportDependencyGraph, Map<SourceModule, List<SourceModule>> postExportDependencyGraph) throws ModelOperationException {
-		Map<SourceModule, List<SourceModule>> combinedDefineTimeDependencyGraph = new LinkedHashMap<>();
-		
-		for(SourceModule sourceModule : preExportDependencyGraph.keySet()) {
+		List<SourceModule> sourceModules = new ArrayList<>(preExportDependencyGraph.keySet());
+		Map<SourceModule, Integer> sourceModuleIds = new HashMap<>();
+
+		for(int i = 0; i < sourceModules.size(); i++) {
+			sourceModuleIds.put(sourceModules.get(i), i);
+		}
+
+		int[][] combinedDefineTimeDependencyGraph = new int[sourceModules.size()][];
+		for(int i = 0; i < sourceModules.size(); i++) {
+			SourceModule sourceModule = sourceModules.get(i);
 			List<SourceModule> combinedDefineTimeDependencies = new ArrayList<>(preExportDependencyGraph.get(sourceModule));
 			combinedDefineTimeDependencies.addAll(postExportDependencyGraph.get(sourceModule));
-			
-			combinedDefineTimeDependencyGraph.put(sourceModule, combinedDefineTimeDependencies);
+
+			combinedDefineTimeDependencyGraph[i] = sourceModuleIds(combinedDefineTimeDependencies, sourceModuleIds);
 		}
-		
-		Map<SourceModule, List<SourceModule>> nonCircularPostExportDependencyGraph = nonCircularPostExportDependencies(postExportDependencyGraph, combinedDefineTimeDependencyGraph);
-		
-		return growDependencyGraph(preExportDependencyGraph, nonCircularPostExportDependencyGraph);
-	}
 
-	private static Map<SourceModule, List<SourceModule>> nonCircularPostExportDependencies(Map<SourceModule, List<SourceModule>> postExportDependencyGraph, Map<SourceModule, List<SourceModule>> combinedDefineTimeDependencyGraph) {
-		Map<SourceModule, List<SourceModule>> nonCircularPostExportDependencyGraph = new LinkedHashMap<>();
-		
-		for(SourceModule sourceModule : postExportDependencyGraph.keySet()) {
-			List<SourceModule> dependentSourceModules = postExportDependencyGraph.get(sourceModule);
-			List<SourceModule> nonCircularDependentSourceModules = new ArrayList<>();
-			
-			for(SourceModule dependentSourceModule : dependentSourceModules) {
-				if(!reachable(dependentSourceModule, sourceModule, combinedDefineTimeDependencyGraph, new LinkedHashSet<>())) {
-					nonCircularDependentSourceModules.add(dependentSourceModule);
+		int[] components = stronglyConnectedComponents(combinedDefineTimeDependencyGraph);
+		Map<SourceModule, List<SourceModule>> dependencyGraph = new LinkedHashMap<>();
+
+		for(int i = 0; i < sourceModules.size(); i++) {
+			SourceModule sourceModule = sourceModules.get(i);
+			List<SourceModule> dependencies = new ArrayList<>(preExportDependencyGraph.get(sourceModule));
+			BitSet dependencyIds = new BitSet(sourceModules.size());
+
+			for(SourceModule dependency : dependencies) {
+				Integer dependencyId = sourceModuleIds.get(dependency);
+				if(dependencyId != null) {
+					dependencyIds.set(dependencyId);
+				}
+			}
+
+			for(SourceModule dependentSourceModule : postExportDependencyGraph.get(sourceModule)) {
+				Integer dependencyId = sourceModuleIds.get(dependentSourceModule);
+
+				if(dependencyId == null) {
+					if(!dependencies.contains(dependentSourceModule)) {
+						dependencies.add(dependentSourceModule);
+					}
+				}
+				else if(components[dependencyId] != components[i] && !dependencyIds.get(dependencyId)) {
+					dependencyIds.set(dependencyId);
+					dependencies.add(dependentSourceModule);
 				}
 			}
-			
-			nonCircularPostExportDependencyGraph.put(sourceModule, nonCircularDependentSourceModules);
+
+			dependencyGraph.put(sourceModule, dependencies);
 		}
-		
-		return nonCircularPostExportDependencyGraph;
+
+		return dependencyGraph;
 	}
 
-	private static boolean reachable(SourceModule fromSourceModule, SourceModule toSourceModule, Map<SourceModule, List<SourceModule>> combinedDefineTimeDependencyGraph, Set<SourceModule> visitedSourceModules) {
-		for(SourceModule dependentSourceModule : combinedDefineTimeDependencyGraph.get(fromSourceModule)) {
-			if(dependentSourceModule == toSourceModule) {
-				return true;
-			}
-			
-			if(!visitedSourceModules.contains(dependentSourceModule)) {
-				visitedSourceModules.add(dependentSourceModule);
-				
-				if(reachable(dependentSourceModule, toSourceModule, combinedDefineTimeDependencyGraph, visitedSourceModules)) {
-					return true;
-				}
+	private static int[] sourceModuleIds(List<SourceModule> sourceModules, Map<SourceModule, Integer> sourceModuleIds) {
+		int[] ids = new int[sourceModules.size()];
+		int idCount = 0;
+
+		for(SourceModule sourceModule : sourceModules) {
+			Integer id = sourceModuleIds.get(sourceModule);
+			if(id != null) {
+				ids[idCount++] = id;
 			}
 		}
-		
-		return false;
+
+		return Arrays.copyOf(ids, idCount);
 	}
 
-	private static Map<SourceModule, List<SourceModule>> growDependencyGraph(Map<SourceModule, List<SourceModule>> dependencyGraph, Map<SourceModule, List<SourceModule>> nonCircularPostExportDependencyGraph) {
-		boolean progressMade;
-		
-		do {
-			progressMade = false;
-			
-			for(SourceModule sourceModule : nonCircularPostExportDependencyGraph.keySet()) {
-				for(SourceModule dependentSourceModule : nonCircularPostExportDependencyGraph.get(sourceModule)) {
-					if(!dependencyGraph.get(sourceModule).contains(dependentSourceModule)) {
-						progressMade = true;
-						dependencyGraph.get(sourceModule).add(dependentSourceModule);
+	/* an iterative version of Tarjan's algorithm, so that long dependency chains can't overflow the stack */
+	private static int[] stronglyConnectedComponents(int[][] graph) {
+		int nodeCount = graph.length;
+		int[] indexes = new int[nodeCount];
+		int[] lowLinks = new int[nodeCount];
+		int[] components = new int[nodeCount];
+		int[] edgePositions = new int[nodeCount];
+		int[] callStack = new int[nodeCount];
+		int[] componentStack = new int[nodeCount];
+		BitSet onComponentStack = new BitSet(nodeCount);
+		int nextIndex = 0;
+		int componentCount = 0;
+		int componentStackSize = 0;
+
+		Arrays.fill(indexes, -1);
+
+		for(int root = 0; root < nodeCount; root++) {
+			if(indexes[root] != -1) {
+				continue;
+			}
+
+			int callStackSize = 0;
+			callStack[callStackSize++] = root;
+			indexes[root] = lowLinks[root] = nextIndex++;
+			componentStack[componentStackSize++] = root;
+			onComponentStack.set(root);
+
+			while(callStackSize > 0) {
+				int node = callStack[callStackSize - 1];
+
+				if(edgePositions[node] < graph[node].length) {
+					int dependency = graph[node][edgePositions[node]++];
+
+					if(indexes[dependency] == -1) {
+						indexes[dependency] = lowLinks[dependency] = nextIndex++;
+						componentStack[componentStackSize++] = dependency;
+						onComponentStack.set(dependency);
+						callStack[callStackSize++] = dependency;
+					}
+					else if(onComponentStack.get(dependency)) {
+						lowLinks[node] = Math.min(lowLinks[node], indexes[dependency]);
+					}
+				}
+				else {
+					callStackSize--;
+
+					if(lowLinks[node] == indexes[node]) {
+						int member;
+						do {
+							member = componentStack[--componentStackSize];
+							onComponentStack.clear(member);
+							components[member] = componentCount;
+						} while(member != node);
+						componentCount++;
+					}
+
+					if(callStackSize > 0) {
+						int parent = callStack[callStackSize - 1];
+						lowLinks[parent] = Math.min(lowLinks[parent], lowLinks[node]);
 					}
 				}
 			}
-		} while(progressMade);
-		
-		return dependencyGraph;
+		}
+
+		return components;
 	}
 }
@@ -0,0 +1,78 @@
+package org.bladerunnerjs.utility;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+
+import org.bladerunnerjs.api.BundlableNode;
+import org.bladerunnerjs.api.memoization.MemoizedValue;
+import org.bladerunnerjs.api.memoization.MemoizedValue.DelegatedWorkScope;
+import org.bladerunnerjs.api.model.exception.ConfigException;
+import org.bladerunnerjs.api.model.exception.ModelOperationException;
+import org.bladerunnerjs.model.AssetContainer;
+
+/**
+ * Discovers the assets of the asset containers within the scope of a {@link BundlableNode} concurrently, using the BRJS dependency scan
+ * pool, before the bundle set for the node is created.
+ *
+ * <p>Each asset container discovers its assets into its own registry, with the asset plugins being run in their usual order, so the
+ * result is the same as if the containers had been discovered one at a time. Only containers that aren't themselves bundlable nodes are
+ * discovered concurrently since bundlable nodes look at the assets of the containers within their own scope during discovery. Any
+ * exception thrown while discovering a container is captured by the pool and ignored here, and is thrown again when the container is
+ * next asked for its assets by the thread creating the bundle set.</p>
+ */
+public class ParallelAssetDiscoverer
+{
+	/* discovering a handful of containers isn't worth the overhead of handing work to other threads */
+	public static final int MIN_ASSET_CONTAINERS_FOR_PARALLEL_DISCOVERY = 8;
+
+	public static void discoverScopeAssets(BundlableNode bundlableNode) throws ModelOperationException
+	{
+		List<AssetDiscoveryTask> discoveryTasks = new ArrayList<>();
+		for (AssetContainer assetContainer : bundlableNode.scopeAssetContainers()) {
+			if (!(assetContainer instanceof BundlableNode)) {
+				discoveryTasks.add( new AssetDiscoveryTask(assetContainer) );
+			}
+		}
+
+		ForkJoinPool pool = getPool(bundlableNode);
+		if (pool != null && discoveryTasks.size() >= MIN_ASSET_CONTAINERS_FOR_PARALLEL_DISCOVERY) {
+			pool.invokeAll(discoveryTasks);
+		}
+	}
+
+	private static ForkJoinPool getPool(BundlableNode bundlableNode) throws ModelOperationException
+	{
+		ForkJoinPool pool;
+		try {
+			pool = bundlableNode.root().dependencyScanPool();
+		}
+		catch (ConfigException e) {
+			throw new ModelOperationException(e);
+		}
+
+		return (pool == null || pool.getParallelism() <= 1) ? null : pool;
+	}
+
+	private static class AssetDiscoveryTask implements Callable<Void>
+	{
+		private final AssetContainer assetContainer;
+		private final Thread delegatingThread = Thread.currentThread();
+
+		public AssetDiscoveryTask(AssetContainer assetContainer)
+		{
+			this.assetContainer = assetContainer;
+		}
+
+		@Override
+		public Void call()
+		{
+			// the bundle set is being computed by the delegating thread while it waits for this one
+			try (DelegatedWorkScope scope = MemoizedValue.delegatedWorkScope(delegatingThread)) {
+				assetContainer.assets();
+			}
+			return null;
+		}
+	}
+}
@@ -0,0 +1,192 @@
+package org.bladerunnerjs.utility;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+
+import org.bladerunnerjs.api.Asset;
+import org.bladerunnerjs.api.BundlableNode;
+import org.bladerunnerjs.api.LinkedAsset;
+import org.bladerunnerjs.api.memoization.MemoizedValue;
+import org.bladerunnerjs.api.memoization.MemoizedValue.DelegatedWorkScope;
+import org.bladerunnerjs.api.model.exception.ConfigException;
+import org.bladerunnerjs.api.model.exception.ModelOperationException;
+import org.bladerunnerjs.model.AssetContainer;
+
+/**
+ * Calculates the dependent assets of every {@link LinkedAsset} reachable from a set of seed assets ahead of the depth-first walk
+ * performed by {@link BundleSetBuilder}, so that the per-file dependency scans can run concurrently. The dependencies of assets that
+ * haven't changed since the previous {@link BundleSetDependencyGraph} was built are re-used rather than re-calculated.
+ *
+ * <p>The graph is walked a level at a time, with the dependencies of each asset on the current frontier being calculated on the BRJS
+ * dependency scan pool. The results (including any exception thrown while calculating them) are kept until the {@link BundleSetBuilder}
+ * asks for them, so the order in which assets are added to the bundle set, and the exceptions thrown, are the same as if the
+ * dependencies had been calculated sequentially.</p>
+ */
+public class ParallelDependencyResolver
+{
+	/* small bundlable nodes aren't worth the overhead of handing work to other threads */
+	public static final int MIN_ASSETS_FOR_PARALLEL_RESOLUTION = 64;
+
+	private final BundlableNode bundlableNode;
+	private final BundleSetDependencyGraph previousGraph;
+	private final Set<String> invalidatedAssets;
+	private final Map<LinkedAsset, ResolvedDependencies> resolvedDependencies = new HashMap<>();
+
+	public ParallelDependencyResolver(BundlableNode bundlableNode, BundleSetDependencyGraph previousGraph)
+	{
+		this.bundlableNode = bundlableNode;
+		this.previousGraph = previousGraph;
+		// calculated for each build, since the previous graph is kept if a build fails and files can change before the next build
+		invalidatedAssets = (previousGraph == null) ? null : previousGraph.getInvalidatedAssets();
+	}
+
+	public void resolve(List<LinkedAsset> seedAssets) throws ModelOperationException
+	{
+		ForkJoinPool pool = getPool();
+		if (pool == null) {
+			return;
+		}
+
+		Set<LinkedAsset> visitedAssets = new HashSet<>();
+		List<LinkedAsset> frontier = new ArrayList<>();
+		for (LinkedAsset seedAsset : seedAssets) {
+			if (visitedAssets.add(seedAsset)) {
+				frontier.add(seedAsset);
+			}
+		}
+
+		while (!frontier.isEmpty()) {
+			List<ResolvedDependencies> frontierDependencies = resolveFrontier(pool, frontier);
+			List<LinkedAsset> nextFrontier = new ArrayList<>();
+
+			for (ResolvedDependencies dependencies : frontierDependencies) {
+				if (!dependencies.unchanged) {
+					resolvedDependencies.put(dependencies.linkedAsset, dependencies);
+				}
+
+				if (dependencies.dependentAssets != null) {
+					for (Asset dependentAsset : dependencies.dependentAssets) {
+						if (dependentAsset instanceof LinkedAsset && visitedAssets.add((LinkedAsset) dependentAsset)) {
+							nextFrontier.add((LinkedAsset) dependentAsset);
+						}
+					}
+				}
+			}
+			frontier = nextFrontier;
+		}
+	}
+
+	public List<Asset> getDependentAssets(LinkedAsset linkedAsset) throws ModelOperationException
+	{
+		ResolvedDependencies dependencies = resolvedDependencies.remove(linkedAsset);
+		if (dependencies == null) {
+			List<Asset> unchangedDependencies = getUnchangedDependencies(linkedAsset);
+			if (unchangedDependencies != null) {
+				return new ArrayList<>(unchangedDependencies);
+			}
+			return new ArrayList<>(linkedAsset.getDependentAssets(bundlableNode));
+		}
+
+		if (dependencies.exception instanceof ModelOperationException) {
+			throw (ModelOperationException) dependencies.exception;
+		}
+		else if (dependencies.exception instanceof RuntimeException) {
+			throw (RuntimeException) dependencies.exception;
+		}
+		else if (dependencies.exception instanceof Error) {
+			throw (Error) dependencies.exception;
+		}
+		return new ArrayList<>(dependencies.dependentAssets);
+	}
+
+	private ForkJoinPool getPool() throws ModelOperationException
+	{
+		ForkJoinPool pool;
+		try {
+			pool = bundlableNode.root().dependencyScanPool();
+		}
+		catch (ConfigException e) {
+			throw new ModelOperationException(e);
+		}
+
+		if (pool == null || pool.getParallelism() <= 1 || countScopeAssets() < MIN_ASSETS_FOR_PARALLEL_RESOLUTION) {
+			return null;
+		}
+		return pool;
+	}
+
+	private int countScopeAssets()
+	{
+		// discovering the assets here also means that the asset containers aren't populated concurrently by the worker threads
+		int assetCount = 0;
+		for (AssetContainer assetContainer : bundlableNode.scopeAssetContainers()) {
+			assetCount += assetContainer.assets().size();
+		}
+		return assetCount;
+	}
+
+	private List<ResolvedDependencies> resolveFrontier(ForkJoinPool pool, List<LinkedAsset> frontier)
+	{
+		List<ResolvedDependencies> frontierDependencies = new ArrayList<>();
+		List<ResolvedDependencies> changedDependencies = new ArrayList<>();
+		for (LinkedAsset linkedAsset : frontier) {
+			ResolvedDependencies dependencies = new ResolvedDependencies(linkedAsset);
+			frontierDependencies.add(dependencies);
+			
+			List<Asset> unchangedDependencies = getUnchangedDependencies(linkedAsset);
+			if (unchangedDependencies != null) {
+				dependencies.unchanged = true;
+				dependencies.dependentAssets = unchangedDependencies;
+			}
+			else {
+				changedDependencies.add(dependencies);
+			}
+		}
+
+		if (changedDependencies.size() == 1) {
+			changedDependencies.get(0).call();
+		}
+		else if (changedDependencies.size() > 1) {
+			pool.invokeAll(changedDependencies);
+		}
+		return frontierDependencies;
+	}
+
+	private List<Asset> getUnchangedDependencies(LinkedAsset linkedAsset)
+	{
+		return (previousGraph == null) ? null : previousGraph.getUnchangedDependencies(linkedAsset, invalidatedAssets);
+	}
+
+	private class ResolvedDependencies implements Callable<Void>
+	{
+		private final LinkedAsset linkedAsset;
+		private final Thread delegatingThread = Thread.currentThread();
+		private List<Asset> dependentAssets;
+		private Throwable exception;
+		private boolean unchanged = false;
+
+		public ResolvedDependencies(LinkedAsset linkedAsset)
+		{
+			this.linkedAsset = linkedAsset;
+		}
+
+		@Override
+		public Void call()
+		{
+			// the bundle set is being computed by the delegating thread while it waits for this one
+			try (DelegatedWorkScope scope = MemoizedValue.delegatedWorkScope(delegatingThread)) {
+				dependentAssets = new ArrayList<>( linkedAsset.getDependentAssets(bundlableNode) );
+			}
+			catch (Exception | Error e) {
+				exception = e;
+			}
+			return null;
+		}
+	}
+}
@@ -1,60 +1,116 @@
 package org.bladerunnerjs.utility;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import org.bladerunnerjs.api.BundlableNode;
-import org.bladerunnerjs.api.LinkedAsset;
 import org.bladerunnerjs.api.SourceModule;
 import org.bladerunnerjs.api.model.exception.CircularDependencyException;
 import org.bladerunnerjs.api.model.exception.ModelOperationException;
 
+/**
+ * Orders source modules so that each module appears after its define-time dependencies.
+ *
+ * <p>The ordering is the one produced by repeatedly passing over the unordered modules and adding each module whose dependencies have
+ * already been added, but it's calculated in a single topological sort: each module is assigned the pass it would have been added in,
+ * and the modules are then listed by pass and then by their original position.</p>
+ */
 public class SourceModuleDependencyOrderCalculator {
 	public static List<SourceModule> getOrderedSourceModules(BundlableNode bundlableNode, List<SourceModule> bootstrappingSourceModules, Set<SourceModule> unorderedSourceModules) throws ModelOperationException {
 		Map<SourceModule, List<SourceModule>> sourceModuleDependencies = NonCircularTransitivePreExportDependencyGraphCreator.createGraph(
 			DefineTimeDependencyGraphCreator.createGraph(bundlableNode, unorderedSourceModules, true), DefineTimeDependencyGraphCreator.createGraph(bundlableNode, unorderedSourceModules, false));
-		Set<SourceModule> orderedSourceModules = new LinkedHashSet<>();
-		Set<SourceModule> metDependencies = new LinkedHashSet<>();		
-		
-		for (SourceModule bootstrapModule : bootstrappingSourceModules) {
-			orderedSourceModules.add(bootstrapModule);
-			metDependencies.add(bootstrapModule);
-		}
-		
-		while (!unorderedSourceModules.isEmpty()) {
-			Set<SourceModule> unprocessedSourceModules = new LinkedHashSet<>();
-			boolean progressMade = false;
-			
-			for(SourceModule sourceModule : unorderedSourceModules) {
-				if (dependenciesHaveBeenMet(sourceModuleDependencies.get(sourceModule), metDependencies)) {
-					progressMade = true;
-					orderedSourceModules.add(sourceModule);
-					metDependencies.add(sourceModule);
+		List<SourceModule> sourceModules = new ArrayList<>(unorderedSourceModules);
+		Set<SourceModule> bootstrapModules = new HashSet<>(bootstrappingSourceModules);
+		Map<SourceModule, Integer> sourceModuleIndexes = new HashMap<>();
+
+		for (int i = 0; i < sourceModules.size(); i++) {
+			sourceModuleIndexes.put(sourceModules.get(i), i);
+		}
+
+		int[] unmetDependencyCounts = new int[sourceModules.size()];
+		List<List<Integer>> dependentModules = new ArrayList<>();
+		for (int i = 0; i < sourceModules.size(); i++) {
+			dependentModules.add(new ArrayList<Integer>());
+		}
+
+		for (int i = 0; i < sourceModules.size(); i++) {
+			for (SourceModule dependency : sourceModuleDependencies.get(sourceModules.get(i))) {
+				if (!bootstrapModules.contains(dependency)) {
+					// dependencies that aren't part of the bundle set are never met
+					unmetDependencyCounts[i]++;
+
+					Integer dependencyIndex = sourceModuleIndexes.get(dependency);
+					if (dependencyIndex != null) {
+						dependentModules.get(dependencyIndex).add(i);
+					}
 				}
-				else {
-					unprocessedSourceModules.add(sourceModule);
+			}
+		}
+
+		int[] passes = new int[sourceModules.size()];
+		int[] passSizes = new int[sourceModules.size() + 2];
+		Deque<Integer> metModules = new ArrayDeque<>();
+		int metModuleCount = 0;
+
+		for (int i = 0; i < sourceModules.size(); i++) {
+			passes[i] = 1;
+			if (unmetDependencyCounts[i] == 0) {
+				metModules.add(i);
+			}
+		}
+
+		while (!metModules.isEmpty()) {
+			int metModule = metModules.poll();
+			metModuleCount++;
+			passSizes[passes[metModule]]++;
+
+			for (int dependentModule : dependentModules.get(metModule)) {
+				// a module's dependencies are met in the same pass if they appear before it, and in the next pass otherwise
+				int dependencyPass = (metModule < dependentModule) ? passes[metModule] : passes[metModule] + 1;
+				passes[dependentModule] = Math.max(passes[dependentModule], dependencyPass);
+
+				if (--unmetDependencyCounts[dependentModule] == 0) {
+					metModules.add(dependentModule);
 				}
 			}
-			
-			if (!progressMade) {
-				throw new CircularDependencyException(bundlableNode, unprocessedSourceModules);
+		}
+
+		if (metModuleCount < sourceModules.size()) {
+			Set<SourceModule> unprocessedSourceModules = new LinkedHashSet<>();
+			for (int i = 0; i < sourceModules.size(); i++) {
+				if (unmetDependencyCounts[i] > 0) {
+					unprocessedSourceModules.add(sourceModules.get(i));
+				}
 			}
-			
-			unorderedSourceModules = unprocessedSourceModules;
+			throw new CircularDependencyException(bundlableNode, unprocessedSourceModules);
 		}
-		
-		return new ArrayList<>(orderedSourceModules);
+
+		return orderByPass(bootstrappingSourceModules, sourceModules, passes, passSizes);
 	}
-	
-	private static boolean dependenciesHaveBeenMet(List<SourceModule> dependencies, Set<SourceModule> metDependencies) throws ModelOperationException {
-		for (LinkedAsset dependentSourceModule : dependencies) {
-			if(!metDependencies.contains(dependentSourceModule)) {
-				return false;
-			}
+
+	private static List<SourceModule> orderByPass(List<SourceModule> bootstrappingSourceModules, List<SourceModule> sourceModules, int[] passes, int[] passSizes) {
+		int[] passOffsets = new int[passSizes.length];
+		for (int pass = 1; pass < passSizes.length; pass++) {
+			passOffsets[pass] = passOffsets[pass - 1] + passSizes[pass - 1];
+		}
+
+		SourceModule[] sourceModulesByPass = new SourceModule[sourceModules.size()];
+		for (int i = 0; i < sourceModules.size(); i++) {
+			sourceModulesByPass[passOffsets[passes[i]]++] = sourceModules.get(i);
 		}
-		return true;
+
+		Set<SourceModule> orderedSourceModules = new LinkedHashSet<>(bootstrappingSourceModules);
+		for (SourceModule sourceModule : sourceModulesByPass) {
+			orderedSourceModules.add(sourceModule);
+		}
+
+		return new ArrayList<>(orderedSourceModules);
 	}
 }
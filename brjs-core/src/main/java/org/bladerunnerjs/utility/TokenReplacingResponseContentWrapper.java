@@ -26,6 +26,13 @@ public class TokenReplacingResponseContentWrapper implements ResponseContent {
         this.replacementHandler = replacementHandler;
     }
 
+    /**
+     * The content being wrapped, which is only token replaced if it's {@link CharResponseContent}.
+     */
+    public ResponseContent getWrappedResponse() {
+        return wrappedResponse;
+    }
+
     @Override
     public void write(OutputStream outputStream) throws IOException {
     	if (wrappedResponse instanceof CharResponseContent) {
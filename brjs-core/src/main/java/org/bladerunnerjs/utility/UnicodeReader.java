@@ -3,6 +3,10 @@
 package org.bladerunnerjs.utility;
 
 import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.UnsupportedCharsetException;
+import java.util.Arrays;
 
 /**
  * Reads away UNICODE Byte Order Mark on construction. See
@@ -15,12 +19,23 @@ import java.io.*;
  *  FF FE		  = UTF-16, little-endian
  *  EF BB BF	   = UTF-8
  * </pre>
+ * 
+ * Files are read with a single bulk read into a re-usable per-thread buffer and decoded in one go, and files that only
+ * contain ASCII characters are copied straight into a char array rather than being passed through a charset decoder.
  */
 public class UnicodeReader extends Reader
 {
 	private static final int BOM_MAX_SIZE = 4;
+	private static final int MAX_POOLED_BUFFER_SIZE = 1024 * 1024;
+	private static final ThreadLocal<byte[]> readBuffers = new ThreadLocal<byte[]>() {
+		@Override
+		protected byte[] initialValue() {
+			return new byte[8192];
+		}
+	};
 	
-	private InputStreamReader delegate;
+	private Reader delegate;
+	private String encoding;
 	
 	public UnicodeReader(InputStream in, String defaultEnc) throws IOException
 	{
@@ -33,7 +48,28 @@ public class UnicodeReader extends Reader
 	}
 	
 	public UnicodeReader(File file, String defaultEnc) throws IOException {
-		this(new BufferedInputStream(new FileInputStream(file)), defaultEnc);
+		byte[] buffer = readBuffers.get();
+		int length = 0;
+		
+		try(InputStream in = new FileInputStream(file)) {
+			if (file.length() >= buffer.length) {
+				buffer = new byte[(int) Math.min(file.length() + 1, Integer.MAX_VALUE - 8)];
+			}
+			
+			int bytesRead;
+			while ((bytesRead = in.read(buffer, length, buffer.length - length)) != -1) {
+				length += bytesRead;
+				if (length == buffer.length) {
+					buffer = Arrays.copyOf(buffer, buffer.length * 2);
+				}
+			}
+		}
+		
+		if (buffer.length <= MAX_POOLED_BUFFER_SIZE) {
+			readBuffers.set(buffer);
+		}
+		
+		init(buffer, length, defaultEnc);
 	}
 	
 	/**
@@ -41,7 +77,7 @@ public class UnicodeReader extends Reader
 	 */
 	public String getEncoding()
 	{
-		return delegate.getEncoding();
+		return encoding;
 	}
 	
 	/**
@@ -94,14 +130,110 @@ public class UnicodeReader extends Reader
 			internalIn.unread(bom, 0, 0);
 		
 		// Use BOM or default encoding
+		InputStreamReader inputStreamReader;
 		if (encoding == null)
 		{
-			delegate = new InputStreamReader(internalIn);
+			inputStreamReader = new InputStreamReader(internalIn);
+		}
+		else
+		{
+			inputStreamReader = new InputStreamReader(internalIn, encoding);
+		}
+		
+		this.delegate = inputStreamReader;
+		this.encoding = inputStreamReader.getEncoding();
+	}
+	
+	/**
+	 * Checks the BOM marks at the start of an in-memory file, in the same way as above, and then decodes the rest of the file.
+	 */
+	private void init(byte[] bytes, int length, String defaultEnc) throws IOException
+	{
+		String encoding;
+		int bomSize;
+		
+		if ((length >= 3) && (bytes[0] == (byte) 0xEF) && (bytes[1] == (byte) 0xBB) && (bytes[2] == (byte) 0xBF))
+		{
+			encoding = "UTF-8";
+			bomSize = 3;
+		}
+		else if ((length >= 2) && (bytes[0] == (byte) 0xFE) && (bytes[1] == (byte) 0xFF))
+		{
+			encoding = "UTF-16BE";
+			bomSize = 2;
+		}
+		else if ((length >= 2) && (bytes[0] == (byte) 0xFF) && (bytes[1] == (byte) 0xFE))
+		{
+			encoding = "UTF-16LE";
+			bomSize = 2;
+		}
+		else if ((length >= 4) && (bytes[0] == (byte) 0x00) && (bytes[1] == (byte) 0x00) && (bytes[2] == (byte) 0xFE) && (bytes[3] == (byte) 0xFF))
+		{
+			encoding = "UTF-32BE";
+			bomSize = 4;
+		}
+		else if ((length >= 4) && (bytes[0] == (byte) 0xFF) && (bytes[1] == (byte) 0xFE) && (bytes[2] == (byte) 0x00) && (bytes[3] == (byte) 0x00))
+		{
+			encoding = "UTF-32LE";
+			bomSize = 4;
 		}
 		else
 		{
-			delegate = new InputStreamReader(internalIn, encoding);
+			encoding = defaultEnc;
+			bomSize = 0;
+		}
+		
+		Charset charset = charset(encoding);
+		char[] chars = (isAsciiCompatible(charset)) ? decodeAscii(bytes, bomSize, length - bomSize) : null;
+		
+		if (chars != null)
+		{
+			delegate = new CharArrayReader(chars);
+		}
+		else
+		{
+			delegate = new StringReader(new String(bytes, bomSize, length - bomSize, charset));
+		}
+		this.encoding = charset.name();
+	}
+	
+	private static Charset charset(String encoding) throws UnsupportedEncodingException
+	{
+		if (encoding == null)
+		{
+			return Charset.defaultCharset();
+		}
+		
+		try
+		{
+			return Charset.forName(encoding);
+		}
+		catch (IllegalCharsetNameException | UnsupportedCharsetException e)
+		{
+			throw new UnsupportedEncodingException(encoding);
+		}
+	}
+	
+	private static boolean isAsciiCompatible(Charset charset)
+	{
+		String charsetName = charset.name();
+		return charsetName.equals("UTF-8") || charsetName.equals("US-ASCII") || charsetName.equals("ISO-8859-1") || charsetName.equals("windows-1252");
+	}
+	
+	/* returns null as soon as a non-ASCII byte is found so that the content can be decoded by the charset instead */
+	private static char[] decodeAscii(byte[] bytes, int offset, int length)
+	{
+		char[] chars = new char[length];
+		for (int i = 0; i < length; i++)
+		{
+			byte nextByte = bytes[offset + i];
+			if (nextByte < 0)
+			{
+				return null;
+			}
+			chars[i] = (char) nextByte;
 		}
+		return chars;
 	}
 	
 	@Override
@@ -1,26 +1,48 @@
 package org.bladerunnerjs.utility.reader;
 
-import java.util.Stack;
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.Deque;
 
 import org.bladerunnerjs.api.BRJS;
 import org.bladerunnerjs.model.engine.NodeProperties;
 
+/**
+ * A pool of the buffers used by the stripping readers. Each thread has its own stack of buffers, so that buffers can be
+ * borrowed and returned without taking any locks, and so that a reader which returns its buffer between calls to
+ * <code>read()</code> is always given the same buffer back, even when dependencies are being scanned on several threads.
+ */
 public class CharBufferPool {
 	
 	private static final String PROPERTY_ID = "BufferPoolInstance";
-	private final Stack<char[]> pool = new Stack<char[]>();
+	private static final ThreadLocal<CachedPool> cachedPools = new ThreadLocal<>();
+	private final ThreadLocal<Deque<char[]>> pool = new ThreadLocal<Deque<char[]>>() {
+		@Override
+		protected Deque<char[]> initialValue() {
+			return new ArrayDeque<>();
+		}
+	};
 	
-	public static synchronized char[] getBuffer(BRJS brjs) {
+	public static char[] getBuffer(BRJS brjs) {
 		return getCharBufferPool(brjs).getOrCreateBuffer();
 	}
 	
-	public static synchronized void returnBuffer(BRJS brjs, char[] buffer){
+	public static void returnBuffer(BRJS brjs, char[] buffer){
 		getCharBufferPool(brjs).pushBuffer(buffer);
 	}
 
 	
 
-	private static synchronized CharBufferPool getCharBufferPool(BRJS brjs) {
+	private static CharBufferPool getCharBufferPool(BRJS brjs) {
+		CachedPool cachedPool = cachedPools.get();
+		if (cachedPool == null || cachedPool.brjs.get() != brjs) {
+			cachedPool = new CachedPool(brjs, getNodeBufferPool(brjs));
+			cachedPools.set(cachedPool);
+		}
+		return cachedPool.bufferPool;
+	}
+	
+	private static synchronized CharBufferPool getNodeBufferPool(BRJS brjs) {
 		NodeProperties nodeProperties = brjs.nodeProperties(CharBufferPool.class.getSimpleName());
 		Object property = nodeProperties.getTransientProperty(PROPERTY_ID);
 		CharBufferPool nodeBufferPool;
@@ -39,18 +61,26 @@ public class CharBufferPool {
 		
 		
 	private char[] getOrCreateBuffer() {
-		char[] result = null;
-		if(pool.isEmpty()){
+		char[] result = pool.get().pollFirst();
+		if(result == null){
 			result = new char[4096];
-		}else{
-			result = pool.pop();
 		}
 		return result;
 	}
 
 	private void pushBuffer(char[] buffer)
 	{
-		pool.push(buffer);
+		pool.get().addFirst(buffer);
+	}
+	
+	private static class CachedPool {
+		private final WeakReference<BRJS> brjs;
+		private final CharBufferPool bufferPool;
+		
+		public CachedPool(BRJS brjs, CharBufferPool bufferPool) {
+			this.brjs = new WeakReference<>(brjs);
+			this.bufferPool = bufferPool;
+		}
 	}
 
 }
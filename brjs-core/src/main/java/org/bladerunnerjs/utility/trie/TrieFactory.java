@@ -14,21 +14,24 @@ import org.bladerunnerjs.utility.trie.exception.EmptyTrieKeyException;
 import org.bladerunnerjs.utility.trie.exception.TrieKeyAlreadyExistsException;
 
 public class TrieFactory {
-	private final MemoizedValue<Trie<AssetReference>> trie;
+	private final MemoizedValue<ComputedTrie> trie;
 	private final AssetContainer assetContainer;
 	
 	private static final Pattern ALIAS_MATCHER_PATTERN = Pattern.compile("[\"'][\\S ]+[\"']|<\\S+[\\s/>]");
 	private static final Pattern QUOTED_SOURCE_MODULE_MATCHER_PATTERN = Pattern.compile("[\"']\\S+[\"']");
 	private static final Pattern SOURCE_MODULE_MATCHER_PATTERN = Pattern.compile(".*", Pattern.DOTALL);
+	private static final Pattern WHITESPACE_PATTERN = Pattern.compile("[ \t\r\n]");
 	
 	public static TrieFactory getFactoryForAssetContainer(AssetContainer assetContainer) {
 		NodeProperties nodeProperties = assetContainer.nodeProperties("TrieFactory");
 		
-		if(nodeProperties.getTransientProperty("trieFactoryInstance") == null) {
-			nodeProperties.setTransientProperty("trieFactoryInstance", new TrieFactory(assetContainer));
+		synchronized (nodeProperties) {
+			if(nodeProperties.getTransientProperty("trieFactoryInstance") == null) {
+				nodeProperties.setTransientProperty("trieFactoryInstance", new TrieFactory(assetContainer));
+			}
+			
+			return (TrieFactory) nodeProperties.getTransientProperty("trieFactoryInstance");
 		}
-		
-		return (TrieFactory) nodeProperties.getTransientProperty("trieFactoryInstance");
 	}
 	
 	private TrieFactory(AssetContainer assetContainer) {
@@ -37,10 +40,22 @@ public class TrieFactory {
 	}
 	
 	public Trie<AssetReference> createTrie() throws ModelOperationException {
+		return getComputedTrie().trie;
+	}
+	
+	/**
+	 * Returns whether any of the trie's keys contain whitespace, in which case the trie can't be matched against the whitespace separated
+	 * tokens of some content, and must instead be matched against the content itself.
+	 */
+	public boolean hasKeysContainingWhitespace() throws ModelOperationException {
+		return getComputedTrie().hasKeysContainingWhitespace;
+	}
+	
+	private ComputedTrie getComputedTrie() throws ModelOperationException {
 		return trie.value(new Getter<ModelOperationException>() {
 			@Override
 			public Object get() throws RuntimeException, ModelOperationException {
-				Trie<AssetReference> trie = new Trie<AssetReference>( '/', new Character[]{'.', '/'} );
+				ComputedTrie computedTrie = new ComputedTrie();
 				
 				for (AssetContainer scopeAssetContainer : assetContainer.scopeAssetContainers()) {
 					try {						
@@ -50,19 +65,20 @@ public class TrieFactory {
 							}
 							
 							List<String> requirePaths = asset.getRequirePaths();
+							LinkedAssetReference linkedAssetReference = new LinkedAssetReference(asset);
 							
 							for(String requirePath : requirePaths) {								
 								if (requirePath.contains("/")) {
-									addToTrie(trie, requirePath, new LinkedAssetReference(asset), SOURCE_MODULE_MATCHER_PATTERN);
+									addToTrie(computedTrie, requirePath, linkedAssetReference, SOURCE_MODULE_MATCHER_PATTERN);
 								} else {
 									// the asset is one that can only be referred to via a string
-									addToTrie(trie, requirePath, new LinkedAssetReference(asset), QUOTED_SOURCE_MODULE_MATCHER_PATTERN);
+									addToTrie(computedTrie, requirePath, linkedAssetReference, QUOTED_SOURCE_MODULE_MATCHER_PATTERN);
 								}
 								
 								boolean requirePathStartsWithAlias = requirePath.startsWith("alias!");
 								String requirePathAfterAlias = StringUtils.substringAfter(requirePath, "alias!");
 								if (requirePathStartsWithAlias) {
-									addToTrie(trie, requirePathAfterAlias, new LinkedAssetReference(asset), ALIAS_MATCHER_PATTERN);										
+									addToTrie(computedTrie, requirePathAfterAlias, linkedAssetReference, ALIAS_MATCHER_PATTERN);										
 								}
 							}
 						}
@@ -72,16 +88,19 @@ public class TrieFactory {
 					}
 				}
 				
-				return trie;
+				return computedTrie;
 			}
 		});
 	}
 	
-	private void addToTrie(Trie<AssetReference> trie, String key, AssetReference value, Pattern matchPattern) throws EmptyTrieKeyException {
-		if (!trie.containsKey(key)) {
+	private void addToTrie(ComputedTrie computedTrie, String key, LinkedAssetReference value, Pattern matchPattern) throws EmptyTrieKeyException {
+		if (!computedTrie.trie.containsKey(key)) {
 			try
 			{
-				trie.add(key, value, matchPattern);
+				computedTrie.trie.add(key, value, matchPattern);
+				if (WHITESPACE_PATTERN.matcher(key).find()) {
+					computedTrie.hasKeysContainingWhitespace = true;
+				}
 			}
 			catch (TrieKeyAlreadyExistsException e)
 			{
@@ -90,4 +109,9 @@ public class TrieFactory {
 			}
 		}
 	}
+	
+	private class ComputedTrie {
+		public Trie<AssetReference> trie = new Trie<AssetReference>( '/', new Character[]{'.', '/'} );
+		public boolean hasKeysContainingWhitespace = false;
+	}
 }
@@ -48,6 +48,37 @@ public class YamlBladerunnerConf extends AbstractYamlConfFile {
 	@NotNull
 	public String fileObserver;
 	
+	@Min(value=0) // 0 means one thread per processor, 1 means dependencies are calculated sequentially
+	public int dependencyScanThreads;
+	
+	/* app server tuning -- 0 means the Jetty default is used, and the idle times are in milliseconds */
+	@Min(value=0)
+	public int jettyMinThreads;
+	
+	@Min(value=0)
+	public int jettyMaxThreads;
+	
+	@Min(value=0)
+	public int jettyAcceptQueueSize;
+	
+	@Min(value=0)
+	public int jettyRequestBufferSize;
+	
+	@Min(value=0)
+	public int jettyResponseBufferSize;
+	
+	@Min(value=0) // this is also how long idle keep-alive connections are kept open for
+	public int jettyMaxIdleTime;
+	
+	@Min(value=0) // used instead of jettyMaxIdleTime once all of the threads are busy
+	public int jettyLowResourcesMaxIdleTime;
+	
+	@Min(value=0) // 0 means bundles are generated on the request thread, without any limit
+	public int maxConcurrentBundleGenerations;
+	
+	@Min(value=0) // the number of bundle generations that can wait for a thread before requests are rejected, 0 means the servlet's default is used
+	public int bundleGenerationQueueSize;
+	
 	@NotNull // LinkedHashMap so the ordering is preserved and our tests can assert on the contents of written conf files reliably
 	public LinkedHashMap<String,List<String>> orderedPlugins;
 	
@@ -59,6 +90,16 @@ public class YamlBladerunnerConf extends AbstractYamlConfFile {
 		ignoredPaths = getDefault(ignoredPaths, ".svn, .git");
 		useNodeCommands = getDefault(useNodeCommands, false);
 		fileObserver = getDefault(fileObserver, "watching");
+		dependencyScanThreads = getDefault(dependencyScanThreads, 0);
+		jettyMinThreads = getDefault(jettyMinThreads, 0);
+		jettyMaxThreads = getDefault(jettyMaxThreads, 0);
+		jettyAcceptQueueSize = getDefault(jettyAcceptQueueSize, 0);
+		jettyRequestBufferSize = getDefault(jettyRequestBufferSize, 0);
+		jettyResponseBufferSize = getDefault(jettyResponseBufferSize, 0);
+		jettyMaxIdleTime = getDefault(jettyMaxIdleTime, 0);
+		jettyLowResourcesMaxIdleTime = getDefault(jettyLowResourcesMaxIdleTime, 0);
+		maxConcurrentBundleGenerations = getDefault(maxConcurrentBundleGenerations, 0);
+		bundleGenerationQueueSize = getDefault(bundleGenerationQueueSize, 0);
 		orderedPlugins = getDefault(orderedPlugins, getDefaultOrderedPlugins());
 	}
 	
@@ -66,6 +107,14 @@ public class YamlBladerunnerConf extends AbstractYamlConfFile {
 	public void verify() throws ConfigException {
 		ConfigValidationChecker.validate(this);
 		verifyCharacterEncodings();
+		verifyThreadPoolSize();
+	}
+	
+	private void verifyThreadPoolSize() throws ConfigException {
+		if(jettyMinThreads > 0 && jettyMaxThreads > 0 && jettyMaxThreads < jettyMinThreads) {
+			throw new ConfigException("the 'jettyMaxThreads' in '" + getUnderlyingFile().getPath() + "' is specified as '" + jettyMaxThreads +
+				"' which is less than the 'jettyMinThreads' of '" + jettyMinThreads + "'");
+		}
 	}
 	
 	private void verifyCharacterEncodings() throws ConfigException {
@@ -0,0 +1,107 @@
+package org.bladerunnerjs.appserver;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+
+import org.bladerunnerjs.api.App;
+import org.bladerunnerjs.api.BRJS;
+import org.bladerunnerjs.api.spec.utility.LogMessageStore;
+import org.bladerunnerjs.api.spec.utility.MockAppVersionGenerator;
+import org.bladerunnerjs.api.spec.utility.MockPluginLocator;
+import org.bladerunnerjs.api.spec.utility.TestLoggerFactory;
+import org.bladerunnerjs.appserver.ResponseCache.CachedResponse;
+import org.bladerunnerjs.appserver.ResponseCache.ResponseRenderer;
+import org.bladerunnerjs.model.BRJSTestModelFactory;
+import org.bladerunnerjs.utility.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ResponseCacheTest {
+	private File tempDir;
+	private BRJS brjs;
+	private App app;
+	private ResponseCache responseCache;
+
+	@Before
+	public void setUp() throws Exception {
+		tempDir = FileUtils.createTemporaryDirectory( this.getClass() );
+		File sdkDir = new File(tempDir, "sdk");
+		sdkDir.mkdir();
+		brjs = BRJSTestModelFactory.createModel(sdkDir, sdkDir, new MockPluginLocator(), new TestLoggerFactory(new LogMessageStore()), new MockAppVersionGenerator());
+		app = brjs.app("app1");
+		responseCache = new ResponseCache(app, 100);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		brjs.close();
+		org.apache.commons.io.FileUtils.deleteQuietly(tempDir);
+	}
+
+	@Test
+	public void renderedResponsesAreCached() throws Exception {
+		CachedResponse response = responseCache.getResponse("path", new FixedRenderer(10));
+
+		assertSame(response, responseCache.getCachedResponse("path"));
+		assertEquals(10, responseCache.getCacheSize());
+	}
+
+	@Test
+	public void theLeastRecentlyUsedResponsesAreEvictedOnceTheCacheIsFull() throws Exception {
+		responseCache.getResponse("path1", new FixedRenderer(40));
+		responseCache.getResponse("path2", new FixedRenderer(40));
+		responseCache.getCachedResponse("path1");
+		responseCache.getResponse("path3", new FixedRenderer(40));
+
+		assertNotNull(responseCache.getCachedResponse("path1"));
+		assertNull(responseCache.getCachedResponse("path2"));
+		assertNotNull(responseCache.getCachedResponse("path3"));
+		assertEquals(80, responseCache.getCacheSize());
+	}
+
+	@Test
+	public void compressedContentCountsTowardsTheCacheSize() throws Exception {
+		CachedResponse response = responseCache.getResponse("path", new FixedRenderer(50));
+		int compressedLength = response.getCompressedContent().length;
+
+		assertEquals(50 + compressedLength, responseCache.getCacheSize());
+	}
+
+	@Test
+	public void responsesLargerThanTheCacheAreNotCached() throws Exception {
+		CachedResponse response = responseCache.getResponse("path", new FixedRenderer(200));
+
+		assertEquals(200, response.getContent().length);
+		assertNull(responseCache.getCachedResponse("path"));
+		assertEquals(0, responseCache.getCacheSize());
+	}
+
+	@Test
+	public void responsesForPreviousAppVersionsAreDiscarded() throws Exception {
+		responseCache.getResponse("path", new FixedRenderer(10));
+		brjs.getAppVersionGenerator().setVersion("1234");
+
+		assertNull(responseCache.getCachedResponse("path"));
+		assertEquals(0, responseCache.getCacheSize());
+	}
+
+	private class FixedRenderer implements ResponseRenderer {
+		private final int contentLength;
+
+		public FixedRenderer(int contentLength) {
+			this.contentLength = contentLength;
+		}
+
+		@Override
+		public byte[] render() {
+			return new byte[contentLength];
+		}
+
+		@Override
+		public boolean isCacheable() {
+			return true;
+		}
+	}
+}
@@ -0,0 +1,147 @@
+package org.bladerunnerjs.appserver;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.bladerunnerjs.appserver.ResponseGenerationPool.Priority;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ResponseGenerationPoolTest {
+	private ResponseGenerationPool generationPool;
+	private CountDownLatch blockingLatch;
+	private List<String> generatedResponses;
+
+	@Before
+	public void setUp() throws Exception {
+		generationPool = new ResponseGenerationPool("app", 1, 3);
+		blockingLatch = new CountDownLatch(1);
+		generatedResponses = Collections.synchronizedList(new ArrayList<String>());
+	}
+
+	@After
+	public void tearDown() {
+		blockingLatch.countDown();
+		generationPool.shutdown();
+	}
+
+	@Test
+	public void theGeneratedResponseIsReturned() throws Exception {
+		Future<String> response = generationPool.submit(Priority.RESOURCE, () -> "response");
+
+		assertEquals("response", response.get(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void queuedResponsesAreGeneratedInPriorityOrder() throws Exception {
+		generationPool.submit(Priority.PAGE, blockingGenerator("blocking"));
+		generationPool.submit(Priority.MINIFIED_BUNDLE, generator("minified-bundle"));
+		generationPool.submit(Priority.BUNDLE, generator("bundle"));
+		Future<String> lastResponse = generationPool.submit(Priority.PAGE, generator("page"));
+
+		blockingLatch.countDown();
+		lastResponse.get(5, TimeUnit.SECONDS);
+
+		assertEquals("blocking", generatedResponses.get(0));
+		assertEquals("page", generatedResponses.get(1));
+	}
+
+	@Test
+	public void responsesWithTheSamePriorityAreGeneratedInTheOrderTheyWereSubmitted() throws Exception {
+		generationPool.submit(Priority.PAGE, blockingGenerator("blocking"));
+		generationPool.submit(Priority.BUNDLE, generator("bundle1"));
+		generationPool.submit(Priority.BUNDLE, generator("bundle2"));
+		Future<String> lastResponse = generationPool.submit(Priority.BUNDLE, generator("bundle3"));
+
+		blockingLatch.countDown();
+		lastResponse.get(5, TimeUnit.SECONDS);
+
+		assertEquals("[blocking, bundle1, bundle2, bundle3]", generatedResponses.toString());
+	}
+
+	@Test(expected=RejectedExecutionException.class)
+	public void responsesAreRejectedOnceThePoolAndQueueAreFull() throws Exception {
+		generationPool.submit(Priority.PAGE, blockingGenerator("blocking"));
+		generationPool.submit(Priority.PAGE, generator("page1"));
+		generationPool.submit(Priority.PAGE, generator("page2"));
+		generationPool.submit(Priority.PAGE, generator("page3"));
+		generationPool.submit(Priority.PAGE, generator("page4"));
+	}
+
+	@Test
+	public void responsesCanBeQueuedAgainOnceThePendingResponsesHaveBeenGenerated() throws Exception {
+		generationPool.submit(Priority.PAGE, blockingGenerator("blocking"));
+		generationPool.submit(Priority.PAGE, generator("page1"));
+		generationPool.submit(Priority.PAGE, generator("page2"));
+		Future<String> lastResponse = generationPool.submit(Priority.PAGE, generator("page3"));
+
+		blockingLatch.countDown();
+		lastResponse.get(5, TimeUnit.SECONDS);
+
+		assertEquals("page4", generationPool.submit(Priority.PAGE, generator("page4")).get(5, TimeUnit.SECONDS));
+	}
+
+	@Test(expected=RejectedExecutionException.class)
+	public void responsesThatAreCancelledWhileBeingGeneratedArePendingUntilTheGeneratorHasFinished() throws Exception {
+		CountDownLatch generationStarted = new CountDownLatch(1);
+		Future<String> runningResponse = generationPool.submit(Priority.PAGE, () -> {
+			generationStarted.countDown();
+			return blockingGenerator("blocking").call();
+		});
+		generationStarted.await();
+		runningResponse.cancel(false);
+
+		generationPool.submit(Priority.PAGE, generator("page1"));
+		generationPool.submit(Priority.PAGE, generator("page2"));
+		generationPool.submit(Priority.PAGE, generator("page3"));
+		generationPool.submit(Priority.PAGE, generator("page4"));
+	}
+
+	@Test
+	public void responsesThatAreCancelledWhileQueuedAreNoLongerPending() throws Exception {
+		generationPool.submit(Priority.PAGE, blockingGenerator("blocking"));
+		generationPool.submit(Priority.PAGE, generator("page1")).cancel(false);
+		generationPool.submit(Priority.PAGE, generator("page2"));
+		generationPool.submit(Priority.PAGE, generator("page3"));
+		Future<String> lastResponse = generationPool.submit(Priority.PAGE, generator("page4"));
+
+		blockingLatch.countDown();
+		lastResponse.get(5, TimeUnit.SECONDS);
+
+		assertEquals("[blocking, page2, page3, page4]", generatedResponses.toString());
+	}
+
+	@Test(expected=CancellationException.class)
+	public void queuedResponsesAreCancelledWhenThePoolIsShutdown() throws Exception {
+		generationPool.submit(Priority.PAGE, blockingGenerator("blocking"));
+		Future<String> queuedResponse = generationPool.submit(Priority.PAGE, generator("page"));
+
+		generationPool.shutdown();
+		queuedResponse.get(5, TimeUnit.SECONDS);
+	}
+
+	private Callable<String> generator(String response) {
+		return () -> {
+			generatedResponses.add(response);
+			return response;
+		};
+	}
+
+	private Callable<String> blockingGenerator(String response) {
+		return () -> {
+			blockingLatch.await();
+			generatedResponses.add(response);
+			return response;
+		};
+	}
+}
@@ -4,8 +4,11 @@ import static org.junit.Assert.assertEquals;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.bladerunnerjs.api.BRJS;
+import org.bladerunnerjs.api.memoization.MemoizedFile;
 import org.bladerunnerjs.api.model.exception.InvalidSdkDirectoryException;
 import org.bladerunnerjs.model.BRJSTestModelFactory;
 import org.bladerunnerjs.utility.FileUtils;
@@ -37,4 +40,44 @@ public class MemoizedFileTest
 		assertEquals("../child/grandchild", brjs.getMemoizedFile(new File(".")).getRelativePath(brjs.getMemoizedFile(new File("../child/grandchild"))));
 	}
 	
+	@Test
+	public void directoryListingsDistinguishBetweenFilesAndDirectories() throws Exception {
+		BRJS brjs = BRJSTestModelFactory.createModel( tempDir );
+		new File(tempDir, "dir/sub/inner").mkdirs();
+		new File(tempDir, "dir/a.txt").createNewFile();
+		new File(tempDir, "dir/sub/b.txt").createNewFile();
+		new File(tempDir, "dir/sub/inner/c.txt").createNewFile();
+		MemoizedFile dir = brjs.getMemoizedFile(new File(tempDir, "dir"));
+		
+		assertEquals("[a.txt, sub]", names(dir.filesAndDirs()));
+		assertEquals("[a.txt]", names(dir.files()));
+		assertEquals("[sub]", names(dir.dirs()));
+		assertEquals("[a.txt, b.txt, c.txt]", names(dir.nestedFiles()));
+		assertEquals("[sub, inner]", names(dir.nestedDirs()));
+		assertEquals("[a.txt, sub, b.txt, inner, c.txt]", names(dir.nestedFilesAndDirs()));
+	}
+	
+	@Test
+	public void directoryListingsAreUpdatedWhenTheDirectoryChanges() throws Exception {
+		BRJS brjs = BRJSTestModelFactory.createModel( tempDir );
+		new File(tempDir, "dir").mkdirs();
+		new File(tempDir, "dir/a.txt").createNewFile();
+		MemoizedFile dir = brjs.getMemoizedFile(new File(tempDir, "dir"));
+		
+		assertEquals("[a.txt]", names(dir.files()));
+		dir.file("b.txt").createNewFile();
+		dir.file("sub").mkdir();
+		
+		assertEquals("[a.txt, b.txt]", names(dir.files()));
+		assertEquals("[sub]", names(dir.dirs()));
+	}
+	
+	private String names(List<MemoizedFile> files) {
+		List<String> names = new ArrayList<>();
+		for (MemoizedFile file : files) {
+			names.add(file.getName());
+		}
+		return names.toString();
+	}
+	
 }
@@ -4,10 +4,13 @@ import static org.junit.Assert.*;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.bladerunnerjs.api.BRJS;
 import org.bladerunnerjs.api.memoization.Getter;
 import org.bladerunnerjs.api.memoization.MemoizedValue;
+import org.bladerunnerjs.api.memoization.MemoizedValue.DelegatedWorkScope;
 import org.bladerunnerjs.api.spec.utility.LogMessageStore;
 import org.bladerunnerjs.api.spec.utility.MockAppVersionGenerator;
 import org.bladerunnerjs.api.spec.utility.MockPluginLocator;
@@ -104,6 +107,59 @@ public class MemoizedValueTest {
 		loggerMessageStore.verifyDebugLogMessage(MemoizedValue.USING_MEMOIZED_VALUE_MSG, "THE_ID");
 	}
 	
+	@Test(timeout=10000)
+	public void aValueBeingComputedOnAnotherThreadIsWaitedForRatherThanComputedAgain() throws Exception {
+		MemoizedValue<Integer> memoizedValue = new MemoizedValue<>("id", brjs, watchFile);
+		IncrementingGetter incrementingGetter = new IncrementingGetter();
+		CountDownLatch computationStarted = new CountDownLatch(1);
+		CountDownLatch computationReleased = new CountDownLatch(1);
+		AtomicReference<Integer> waitingThreadValue = new AtomicReference<>();
+		
+		Getter<InterruptedException> blockingGetter = () -> {
+			computationStarted.countDown();
+			computationReleased.await();
+			return 42;
+		};
+		Thread computingThread = new Thread(() -> {
+			try {
+				memoizedValue.value(blockingGetter);
+			}
+			catch (InterruptedException e) {
+			}
+		});
+		computingThread.start();
+		computationStarted.await();
+		
+		Thread waitingThread = new Thread(() -> waitingThreadValue.set(memoizedValue.value(incrementingGetter)));
+		waitingThread.start();
+		computationReleased.countDown();
+		computingThread.join();
+		waitingThread.join();
+		
+		assertEquals(42, (int) waitingThreadValue.get());
+		assertEquals(0, incrementingGetter.count);
+	}
+	
+	@Test(timeout=10000)
+	public void workerThreadsCanUseAValueTheDelegatingThreadIsComputing() throws Exception {
+		MemoizedValue<String> memoizedValue = new MemoizedValue<>("id", brjs, watchFile);
+		Thread delegatingThread = Thread.currentThread();
+		AtomicReference<String> workerThreadValue = new AtomicReference<>();
+		
+		String value = memoizedValue.value(() -> {
+			Thread workerThread = new Thread(() -> {
+				try (DelegatedWorkScope scope = MemoizedValue.delegatedWorkScope(delegatingThread)) {
+					workerThreadValue.set(memoizedValue.value(() -> "worker-value"));
+				}
+			});
+			workerThread.start();
+			workerThread.join();
+			return "value";
+		});
+		
+		assertEquals("value", value);
+		assertEquals("worker-value", workerThreadValue.get());
+	}
 	
 	private class IncrementingGetter implements Getter<RuntimeException> {
 		int count = 0;
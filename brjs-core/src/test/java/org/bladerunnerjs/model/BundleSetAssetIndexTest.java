@@ -0,0 +1,80 @@
+package org.bladerunnerjs.model;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.bladerunnerjs.api.Asset;
+import org.bladerunnerjs.api.SourceModule;
+import org.bladerunnerjs.utility.FakeSourceModule;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Joiner;
+
+public class BundleSetAssetIndexTest
+{
+	private BundleSetAssetIndex<Asset> index;
+
+	@Before
+	public void setUp() {
+		index = new BundleSetAssetIndex<Asset>(Arrays.<Asset>asList(
+			new FakeSourceModule("css!theme/b"), new OtherSourceModule("html!view"), new FakeSourceModule("css!a"),
+			new OtherSourceModule("css!theme/a"), new FakeSourceModule("css")));
+	}
+
+	@Test
+	public void allAssetsAreReturnedInBundleSetOrderWhenNoFiltersAreProvided() {
+		assertEquals("css!theme/b, html!view, css!a, css!theme/a, css", requirePaths(index.getAssets(null, null)));
+	}
+
+	@Test
+	public void assetsCanBeFilteredByRequirePathPrefixWhilstRetainingTheirOrder() {
+		assertEquals("css!theme/b, css!a, css!theme/a", requirePaths(index.getAssets(Arrays.asList("css!"), null)));
+		assertEquals("css!theme/b, html!view, css!theme/a", requirePaths(index.getAssets(Arrays.asList("css!theme/", "html!"), null)));
+		assertEquals("", requirePaths(index.getAssets(Arrays.asList("xml!"), null)));
+	}
+
+	@Test
+	public void assetsCanBeFilteredByTypeIncludingSuperTypes() {
+		assertEquals("html!view, css!theme/a", requirePaths(index.getAssets(null, types(OtherSourceModule.class))));
+		assertEquals("css!theme/b, html!view, css!a, css!theme/a, css", requirePaths(index.getAssets(null, types(SourceModule.class))));
+	}
+
+	@Test
+	public void assetsCanBeFilteredByTypeAndPrefix() {
+		assertEquals("css!theme/a", requirePaths(index.getAssets(Arrays.asList("css!"), types(OtherSourceModule.class))));
+		assertEquals("html!view", requirePaths(index.getAssets(Arrays.asList("html!"), types(OtherSourceModule.class))));
+	}
+
+	@Test
+	public void modifyingTheReturnedListsDoesNotAffectTheIndex() {
+		index.getAssets(null, null).clear();
+		index.getAssets(null, types(OtherSourceModule.class)).clear();
+
+		assertEquals(5, index.getAssets(null, null).size());
+		assertEquals("html!view, css!theme/a", requirePaths(index.getAssets(null, types(OtherSourceModule.class))));
+	}
+
+	private List<Class<? extends Asset>> types(Class<? extends Asset> assetType) {
+		List<Class<? extends Asset>> assetTypes = new ArrayList<>();
+		assetTypes.add(assetType);
+		return assetTypes;
+	}
+
+	private String requirePaths(List<Asset> assets) {
+		List<String> requirePaths = new ArrayList<>();
+		for (Asset asset : assets) {
+			requirePaths.add(asset.getPrimaryRequirePath());
+		}
+		return Joiner.on(", ").join(requirePaths);
+	}
+
+	private class OtherSourceModule extends FakeSourceModule {
+		public OtherSourceModule(String identifier) {
+			super(identifier);
+		}
+	}
+}
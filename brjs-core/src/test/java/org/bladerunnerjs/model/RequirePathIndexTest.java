@@ -0,0 +1,65 @@
+package org.bladerunnerjs.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+
+import org.bladerunnerjs.api.Asset;
+import org.bladerunnerjs.api.model.exception.AmbiguousRequirePathException;
+import org.bladerunnerjs.utility.FakeSourceModule;
+import org.junit.Test;
+
+public class RequirePathIndexTest
+{
+	private FakeSourceModule libClass = new FakeSourceModule("lib/Class");
+	private FakeSourceModule appClass = new FakeSourceModule("appns/Class");
+	private FakeSourceModule otherLibClass = new FakeSourceModule("lib/Class");
+
+	@Test
+	public void assetsFromEveryContainerInScopeCanBeFoundByRequirePath() throws Exception {
+		RequirePathIndex index = new RequirePathIndex(Arrays.asList(assetContainer(libClass), assetContainer(appClass)), null);
+
+		assertSame(libClass, index.getAsset("lib/Class"));
+		assertSame(appClass, index.getAsset("appns/Class"));
+		assertNull(index.getAsset("appns/OtherClass"));
+	}
+
+	@Test
+	public void requirePathsAvailableFromMoreThanOneContainerAreAmbiguous() throws Exception {
+		RequirePathIndex index = new RequirePathIndex(Arrays.asList(assetContainer(libClass), assetContainer(appClass), assetContainer(otherLibClass)), null);
+
+		assertSame(appClass, index.getAsset("appns/Class"));
+		try {
+			index.getAsset("lib/Class");
+			fail("Expected an AmbiguousRequirePathException");
+		}
+		catch (AmbiguousRequirePathException e) {
+			assertEquals("'lib/Class' and 'lib/Class' source files both available via require path 'lib/Class'.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void containersWithoutAnAssetRegistryAreReIndexedEachTime() throws Exception {
+		AssetContainer assetContainer = assetContainer(libClass);
+		RequirePathIndex index = new RequirePathIndex(Arrays.asList(assetContainer), null);
+
+		when(assetContainer.assets()).thenReturn(new LinkedHashSet<Asset>(Arrays.asList(appClass)));
+		RequirePathIndex updatedIndex = new RequirePathIndex(Arrays.asList(assetContainer), index);
+
+		assertSame(libClass, index.getAsset("lib/Class"));
+		assertNull(updatedIndex.getAsset("lib/Class"));
+		assertSame(appClass, updatedIndex.getAsset("appns/Class"));
+	}
+
+	private AssetContainer assetContainer(Asset... assets) {
+		AssetContainer assetContainer = mock(AssetContainer.class);
+		when(assetContainer.assets()).thenReturn(new LinkedHashSet<>(Arrays.asList(assets)));
+		return assetContainer;
+	}
+}
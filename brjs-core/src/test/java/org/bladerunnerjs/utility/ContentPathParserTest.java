@@ -1,6 +1,8 @@
 package org.bladerunnerjs.utility;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import org.junit.Before;
@@ -252,6 +254,65 @@ public class ContentPathParserTest
 		parser.parse("\"");
 	}
 	
+	@Test
+	public void theFirstMatchingRequestFormWinsRegardlessOfItsPrefix() throws Exception
+	{
+		builder
+			.accepts("<token>").as("token-form")
+				.and("js/<token>").as("js-form")
+			.where("token").hasForm("[a-z/]+");
+		parser = builder.build();
+		
+		assertEquals("token-form", parser.parse("js/bundle").formName);
+	}
+	
+	@Test
+	public void requestsThatDontStartWithAFormsPrefixCanStillMatchOtherForms() throws Exception
+	{
+		builder
+			.accepts("js/<token>").as("js-form")
+				.and("css/<token>").as("css-form")
+			.where("token").hasForm("[a-z]+");
+		parser = builder.build();
+		
+		assertEquals("css-form", parser.parse("css/bundle").formName);
+		assertTrue(parser.canParseRequest("js/bundle"));
+		assertFalse(parser.canParseRequest("i18n/bundle"));
+	}
+	
+	@Test
+	public void parsingTheSameRequestAgainGivesAnEqualButSeparateResult() throws Exception
+	{
+		builder.accepts("request/<token>").as("content-form").where("token").hasForm("[a-z]+");
+		parser = builder.build();
+		
+		ParsedContentPath firstResult = parser.parse("request/abc");
+		firstResult.properties.put("token", "modified");
+		ParsedContentPath secondResult = parser.parse("request/abc");
+		
+		assertEquals("content-form", secondResult.formName);
+		assertEquals("abc", secondResult.properties.get("token"));
+	}
+	
+	@Test
+	public void malformedRequestsThatHaveBeenParsedBeforeStillHaveCorrectDetails()
+	{
+		builder.accepts("request").as("content-form");
+		parser = builder.build();
+		
+		assertFalse(parser.canParseRequest("request-invalid"));
+		try
+		{
+			parser.parse("request-invalid");
+			fail("exception expected");
+		}
+		catch (MalformedRequestException e)
+		{
+			assertEquals("request-invalid", e.getRequest());
+			assertEquals(8, e.getCharacterNumber());
+		}
+	}
+	
 	@Test
 	public void createRequestWorks() throws Exception
 	{
@@ -0,0 +1,150 @@
+package org.bladerunnerjs.utility;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class DependencyExtractionIndexTest
+{
+	private File indexDir;
+	private DependencyExtractionIndex index;
+
+	@Before
+	public void setup() throws Exception
+	{
+		indexDir = FileUtils.createTemporaryDirectory(this.getClass(), "dependency-index");
+		index = new DependencyExtractionIndex(indexDir, "1.0");
+	}
+
+	@Test
+	public void entriesThatHaventBeenAddedAreNotReturned() throws Exception
+	{
+		assertNull( index.getEntry(index.contentKey("extractor", "content")) );
+	}
+
+	@Test
+	public void entriesAreAvailableOnceAdded() throws Exception
+	{
+		String key = index.contentKey("extractor", "content");
+		index.putEntry(key, entry("requirePaths", "a/b", "c/d"));
+
+		assertEquals(Arrays.asList("a/b", "c/d"), index.getEntry(key).get("requirePaths"));
+	}
+
+	@Test
+	public void entriesArePersistedAndAvailableToOtherIndexesUsingTheSameDirectory() throws Exception
+	{
+		String key = index.contentKey("extractor", "content");
+		index.putEntry(key, entry("requirePaths", "a/b", "multi\nline\\value"));
+
+		DependencyExtractionIndex otherIndex = new DependencyExtractionIndex(indexDir, "1.0");
+		assertEquals(Arrays.asList("a/b", "multi\nline\\value"), otherIndex.getEntry(key).get("requirePaths"));
+	}
+
+	@Test
+	public void differentContentOrExtractorsHaveDifferentKeys() throws Exception
+	{
+		String key = index.contentKey("extractor", "content");
+
+		assertEquals(key, index.contentKey("extractor", "content"));
+		assertNotEquals(key, index.contentKey("extractor", "other content"));
+		assertNotEquals(key, index.contentKey("other-extractor", "content"));
+	}
+
+	@Test
+	public void entriesCreatedByOtherVersionsOfBrjsAreNotReused() throws Exception
+	{
+		String key = index.contentKey("extractor", "content");
+		index.putEntry(key, entry("requirePaths", "a/b"));
+
+		DependencyExtractionIndex upgradedIndex = new DependencyExtractionIndex(indexDir, "1.1");
+		String upgradedKey = upgradedIndex.contentKey("extractor", "content");
+		assertNotEquals(key, upgradedKey);
+		assertNull( upgradedIndex.getEntry(upgradedKey) );
+	}
+
+	@Test
+	public void entriesMissingARequiredSectionAreTreatedAsMissing() throws Exception
+	{
+		String key = index.contentKey("extractor", "content");
+		index.putEntry(key, entry("requirePaths", "a/b"));
+
+		assertNull( index.getEntry(key, "requirePaths", "aliases") );
+	}
+
+	@Test
+	public void requirePathsCanBeExtractedViaTheIndex() throws Exception
+	{
+		Set<String> dependencies = new LinkedHashSet<>();
+		List<String> aliases = new ArrayList<>();
+		index.addRequirePathsFromReader(new StringReader("require('a/b'); getService('s1'); br.Core.alias('the-alias');"), dependencies, aliases);
+
+		assertEquals(Arrays.asList("a/b", "service!s1"), new ArrayList<>(dependencies));
+		assertEquals(Arrays.asList("the-alias"), aliases);
+
+		dependencies.clear();
+		aliases.clear();
+		new DependencyExtractionIndex(indexDir, "1.0").addRequirePathsFromReader(new StringReader("require('a/b'); getService('s1'); br.Core.alias('the-alias');"), dependencies, aliases);
+
+		assertEquals(Arrays.asList("a/b", "service!s1"), new ArrayList<>(dependencies));
+		assertEquals(Arrays.asList("the-alias"), aliases);
+	}
+
+	@Test
+	public void onlyTheMostRecentlyUsedEntriesAreHeldInMemory() throws Exception
+	{
+		index = new DependencyExtractionIndex(indexDir, "1.0", 1);
+		String key1 = index.contentKey("extractor", "content1");
+		String key2 = index.contentKey("extractor", "content2");
+		index.putEntry(key1, entry("requirePaths", "a/b"));
+		index.putEntry(key2, entry("requirePaths", "c/d"));
+		org.apache.commons.io.FileUtils.cleanDirectory(indexDir);
+
+		assertNull( index.getEntry(key1) );
+		assertEquals(Arrays.asList("c/d"), index.getEntry(key2).get("requirePaths"));
+	}
+
+	@Test
+	public void entriesThatHaventBeenUsedRecentlyArePruned() throws Exception
+	{
+		String unusedKey = index.contentKey("extractor", "unused content");
+		String usedKey = index.contentKey("extractor", "used content");
+		index.putEntry(unusedKey, entry("requirePaths", "a/b"));
+		index.putEntry(usedKey, entry("requirePaths", "c/d"));
+		long pruneTime = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(DependencyExtractionIndex.UNUSED_ENTRY_MAX_AGE_DAYS);
+		setLastModified(unusedKey, pruneTime - TimeUnit.DAYS.toMillis(1));
+		setLastModified(usedKey, pruneTime - TimeUnit.DAYS.toMillis(1));
+		new DependencyExtractionIndex(indexDir, "1.0").getEntry(usedKey);
+
+		index.pruneEntriesUnusedSince(pruneTime);
+
+		DependencyExtractionIndex otherIndex = new DependencyExtractionIndex(indexDir, "1.0");
+		assertNull( otherIndex.getEntry(unusedKey) );
+		assertEquals(Arrays.asList("c/d"), otherIndex.getEntry(usedKey).get("requirePaths"));
+	}
+
+	private void setLastModified(String key, long lastModified)
+	{
+		new File(new File(indexDir, key.substring(0, 2)), key).setLastModified(lastModified);
+	}
+
+	private Map<String, List<String>> entry(String section, String... values)
+	{
+		Map<String, List<String>> entry = new LinkedHashMap<>();
+		entry.put(section, Arrays.asList(values));
+		return entry;
+	}
+}
@@ -96,4 +96,21 @@ public class NonCircularTransitivePreExportDependencyGraphCreatorTest {
 		assertEquals("", graph.dependenciesOf(c));
 		assertEquals("b", graph.dependenciesOf(d));
 	}
+	
+	@Test
+	public void scenario6() throws Exception {
+		a.dependsOn(b);
+		a.dependsOn(d);
+		b.dependsOn(c);
+		c.dependsOn(b);
+		c.dependsOn(c);
+		d.dependsOn(c);
+		
+		DependencyGraph graph = dependencyGraph(a, b, c, d);
+		
+		assertEquals("b, d", graph.dependenciesOf(a));
+		assertEquals("", graph.dependenciesOf(b));
+		assertEquals("", graph.dependenciesOf(c));
+		assertEquals("c", graph.dependenciesOf(d));
+	}
 }
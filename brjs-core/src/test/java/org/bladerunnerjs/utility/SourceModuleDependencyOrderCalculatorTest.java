@@ -0,0 +1,91 @@
+package org.bladerunnerjs.utility;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import org.bladerunnerjs.api.SourceModule;
+import org.bladerunnerjs.api.model.exception.CircularDependencyException;
+import org.junit.Test;
+
+import com.google.common.base.Joiner;
+
+public class SourceModuleDependencyOrderCalculatorTest {
+	private FakeSourceModule a = new FakeSourceModule("a");
+	private FakeSourceModule b = new FakeSourceModule("b");
+	private FakeSourceModule c = new FakeSourceModule("c");
+	private FakeSourceModule d = new FakeSourceModule("d");
+
+	private String orderedSourceModules(List<SourceModule> bootstrappingSourceModules, SourceModule... sourceModules) throws Exception {
+		List<SourceModule> orderedSourceModules = SourceModuleDependencyOrderCalculator.getOrderedSourceModules(null, bootstrappingSourceModules,
+			new LinkedHashSet<>(Arrays.asList(sourceModules)));
+		List<String> requirePaths = new ArrayList<>();
+
+		for(SourceModule sourceModule : orderedSourceModules) {
+			requirePaths.add(sourceModule.getPrimaryRequirePath());
+		}
+
+		return Joiner.on(", ").join(requirePaths);
+	}
+
+	private String orderedSourceModules(SourceModule... sourceModules) throws Exception {
+		return orderedSourceModules(new ArrayList<SourceModule>(), sourceModules);
+	}
+
+	@Test
+	public void sourceModulesWithoutDependenciesRetainTheirOrder() throws Exception {
+		assertEquals("a, b, c", orderedSourceModules(a, b, c));
+	}
+
+	@Test
+	public void sourceModulesAppearAfterTheirDependencies() throws Exception {
+		a.preDependsOn(b);
+		b.preDependsOn(c);
+
+		assertEquals("c, b, a", orderedSourceModules(a, b, c));
+	}
+
+	@Test
+	public void sourceModulesWhoseDependenciesAreMetLaterInTheListComeAfterThoseWhoseDependenciesAreMetEarlier() throws Exception {
+		a.preDependsOn(b);
+		d.preDependsOn(c);
+
+		assertEquals("b, c, d, a", orderedSourceModules(a, b, c, d));
+	}
+
+	@Test
+	public void bootstrappingSourceModulesComeFirstAndAreTreatedAsAlreadyMet() throws Exception {
+		a.preDependsOn(c);
+		b.preDependsOn(a);
+
+		assertEquals("c, a, b", orderedSourceModules(Arrays.<SourceModule>asList(c), a, b, c));
+	}
+
+	@Test
+	public void nonCircularPostExportDependenciesAreAlsoRespected() throws Exception {
+		a.dependsOn(b);
+		b.preDependsOn(c);
+		c.dependsOn(b);
+
+		assertEquals("c, b, a", orderedSourceModules(a, b, c));
+	}
+
+	@Test
+	public void circularPreExportDependenciesCauseAnException() throws Exception {
+		a.preDependsOn(b);
+		b.preDependsOn(c);
+		c.preDependsOn(b);
+
+		try {
+			orderedSourceModules(a, b, c, d);
+			fail("Expected a CircularDependencyException");
+		}
+		catch (CircularDependencyException e) {
+			assertEquals("Circular dependency detected: b => c => b", e.getMessage());
+		}
+	}
+}
@@ -8,6 +8,9 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.bladerunnerjs.utility.UnicodeReader;
 import org.junit.Test;
 
@@ -33,6 +36,34 @@ public class UnicodeReaderTest
 		assertEquals(testFileContents, removeLineEndingSymbols(br.readLine()));
 	}
 	
+	@Test
+	public void testUtf8FileWithoutBOMCanBeReadCorrectlyWhenReadDirectlyFromTheFile() throws IOException
+	{
+		UnicodeReader bundlerFileReader = new UnicodeReader(new File(resourceDir, "utf8FileWithoutBom.txt"), "UTF-8");
+		BufferedReader br = new BufferedReader(bundlerFileReader);
+		assertEquals(testFileContents, removeLineEndingSymbols(br.readLine()));
+	}
+	
+	@Test
+	public void testUtf8FileWithBOMCanBeReadCorrectlyWhenReadDirectlyFromTheFile() throws IOException
+	{
+		UnicodeReader bundlerFileReader = new UnicodeReader(new File(resourceDir, "utf8FileWithBom.txt"), "UTF-8");
+		BufferedReader br = new BufferedReader(bundlerFileReader);
+		assertEquals(testFileContents, removeLineEndingSymbols(br.readLine()));
+	}
+	
+	@Test
+	public void testFilesLargerThanTheReadBufferCanBeReadCorrectly() throws IOException
+	{
+		File largeFile = File.createTempFile("UnicodeReaderTest", ".txt");
+		largeFile.deleteOnExit();
+		String largeFileContents = StringUtils.repeat("abcdefgh", 256 * 1024) + testFileContents;
+		FileUtils.writeStringToFile(largeFile, largeFileContents, "UTF-8");
+		
+		UnicodeReader bundlerFileReader = new UnicodeReader(largeFile, "UTF-8");
+		assertEquals(largeFileContents, IOUtils.toString(bundlerFileReader));
+	}
+	
 	@Test
 	public void testReadingEmptyFileAndReportingCorrectNumberOfBytesRead() throws IOException
 	{
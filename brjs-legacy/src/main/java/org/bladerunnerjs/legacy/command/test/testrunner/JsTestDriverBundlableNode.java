@@ -174,6 +174,11 @@ public class JsTestDriverBundlableNode implements BundlableNode {
 		}
 	}
 	
+	@Override
+	public Asset scopeAsset(String requirePath) throws RequirePathException {
+		return bundlableNode.scopeAsset(requirePath);
+	}
+	
 	@Override
 	public ObserverList getObservers() {
 		return bundlableNode.getObservers();
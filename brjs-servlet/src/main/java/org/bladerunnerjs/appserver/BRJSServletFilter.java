@@ -13,6 +13,7 @@ import javax.servlet.ServletResponse;
 
 import org.bladerunnerjs.appserver.filter.BRJSHeaderFilter;
 import org.bladerunnerjs.appserver.filter.FileExtensionFilter;
+import org.bladerunnerjs.appserver.filter.PrecompressedFileFilter;
 import org.bladerunnerjs.appserver.filter.TokenisingServletFilter;
 import org.bladerunnerjs.appserver.util.VirtualFilterChain;
 
@@ -21,8 +22,9 @@ public class BRJSServletFilter implements Filter {
 	
 	public BRJSServletFilter() throws ServletException {
 		filters.add(new FileExtensionFilter());
-		filters.add(new TokenisingServletFilter());
 		filters.add(new BRJSHeaderFilter());
+		filters.add(new PrecompressedFileFilter()); // must come before the TokenisingServletFilter so that compressed content isn't tokenised
+		filters.add(new TokenisingServletFilter());
 	}
 	
 	@Override
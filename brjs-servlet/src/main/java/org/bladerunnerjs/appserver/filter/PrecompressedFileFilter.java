@@ -0,0 +1,112 @@
+package org.bladerunnerjs.appserver.filter;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.bladerunnerjs.appserver.util.CompressionUtils;
+import org.bladerunnerjs.appserver.util.ConditionalGetUtils;
+
+/**
+ * Serves the precompressed <code>.gz</code> sibling of a static file to clients that accept gzip encoded responses. Built apps only contain
+ * <code>.gz</code> siblings for files that don't contain any tokens, so serving the sibling gives the same content that the
+ * {@link TokenisingServletFilter} would have produced.
+ */
+public class PrecompressedFileFilter implements Filter {
+	private static final int BUFFER_SIZE = 8192;
+
+	private ServletContext servletContext;
+
+	@Override
+	public void init(FilterConfig filterConfig) throws ServletException {
+		servletContext = filterConfig.getServletContext();
+	}
+
+	@Override
+	public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse, FilterChain chain) throws IOException, ServletException {
+		HttpServletRequest request = (HttpServletRequest) servletRequest;
+		HttpServletResponse response = (HttpServletResponse) servletResponse;
+		File compressedFile = getCompressedFile(request);
+
+		if (compressedFile == null) {
+			chain.doFilter(request, response);
+			return;
+		}
+
+		String requestPath = getRequestPath(request);
+		String mimeType = servletContext.getMimeType(requestPath);
+		if (mimeType != null) {
+			response.setContentType(mimeType);
+		}
+		CompressionUtils.setGzipHeaders(response);
+
+		String entityTag = ConditionalGetUtils.entityTag(compressedFile.length() + "-" + compressedFile.lastModified() + CompressionUtils.GZIP_ENTITY_TAG_SUFFIX);
+		if (ConditionalGetUtils.sendNotModifiedIfUnchanged(request, response, entityTag)) {
+			return;
+		}
+
+		response.setContentLength((int) compressedFile.length());
+		if (request.getMethod().equals("GET")) {
+			writeFile(compressedFile, response.getOutputStream());
+		}
+	}
+
+	@Override
+	public void destroy() {
+		// do nothing
+	}
+
+	private File getCompressedFile(HttpServletRequest request) {
+		String method = request.getMethod();
+		if (!(method.equals("GET") || method.equals("HEAD")) || !CompressionUtils.acceptsGzip(request)) {
+			return null;
+		}
+
+		String requestPath = getRequestPath(request);
+		if (requestPath.endsWith("/") || requestPath.endsWith(CompressionUtils.GZIP_FILE_SUFFIX)) {
+			return null;
+		}
+
+		String realPath = servletContext.getRealPath(requestPath);
+		if (realPath == null) {
+			return null;
+		}
+
+		File compressedFile = new File(realPath + CompressionUtils.GZIP_FILE_SUFFIX);
+		return (compressedFile.isFile() && new File(realPath).isFile()) ? compressedFile : null;
+	}
+
+	private String getRequestPath(HttpServletRequest request) {
+		return path(request.getServletPath()) + path(request.getPathInfo());
+	}
+
+	private String path(String str) {
+		return (str == null) ? "" : str;
+	}
+
+	private void writeFile(File file, OutputStream outputStream) throws IOException {
+		byte[] buffer = new byte[BUFFER_SIZE];
+		InputStream inputStream = new FileInputStream(file);
+		try {
+			int bytesRead;
+			while ((bytesRead = inputStream.read(buffer)) != -1) {
+				outputStream.write(buffer, 0, bytesRead);
+			}
+		}
+		finally {
+			inputStream.close();
+		}
+	}
+}
@@ -1,10 +1,16 @@
 package org.bladerunnerjs.appserver.filter;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.EOFException;
 import java.io.IOException;
-import java.lang.StringBuilder;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Reader;
+import java.io.Writer;
+import java.security.DigestOutputStream;
 import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
 
 import javax.naming.NamingException;
 import javax.servlet.Filter;
@@ -16,22 +22,33 @@ import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.bladerunnerjs.appserver.util.CachingTokenFinder;
 import org.bladerunnerjs.appserver.util.CommitedResponseCharResponseWrapper;
+import org.bladerunnerjs.appserver.util.CompressedContentCache;
+import org.bladerunnerjs.appserver.util.CompressionUtils;
+import org.bladerunnerjs.appserver.util.ConditionalGetUtils;
 import org.bladerunnerjs.appserver.util.ExceptionThrowingMissingTokenHandler;
 import org.bladerunnerjs.appserver.util.JndiTokenFinder;
+import org.bladerunnerjs.appserver.util.MemoizingTokenFinder;
+import org.bladerunnerjs.appserver.util.TokenFinder;
 import org.bladerunnerjs.appserver.util.TokenReplacingReader;
 
 public class TokenisingServletFilter implements Filter
 {
 	private JndiTokenFinder tokenFinder;
+	private TokenFinder cachingTokenFinder;
 	
 	public static final String IGNORE_REQUEST_ATTRIBUTE = "brjs-dont-tokenise-request";
 	
 	private static final String LOCALE_REGEX = "/|/[a-z]{2}|/[a-z]{2}_[A-Z]{2}";
 	private static final String DEFAULT_FILE_EXTENSION_REGEX = "js|xml|json|html|htm|jsp";
+	private static final String[] TEXT_CONTENT_TYPES = new String[] { "text/", "javascript", "json", "xml" };
+	private static final int BUFFER_SIZE = 8 * 1024;
 	
 	private String appName;
 	private Pattern processUrlPattern;
+	private long tokenCacheTimeToLive;
+	private final CompressedContentCache compressedContentCache = new CompressedContentCache();
 	
 	public TokenisingServletFilter() throws ServletException
 	{
@@ -52,6 +69,11 @@ public class TokenisingServletFilter implements Filter
 		String regexParam = filterConfig.getInitParameter("extensionRegex");
 		String fileExtensionRegex = (regexParam != null) ? regexParam : DEFAULT_FILE_EXTENSION_REGEX;
 		processUrlPattern = Pattern.compile("^.*("+LOCALE_REGEX+"|\\.("+fileExtensionRegex+"))$");
+		
+		/* JNDI environment entries can't change while the app is deployed, so by default token values are cached until it's redeployed */
+		String timeToLiveParam = filterConfig.getInitParameter("tokenCacheTimeToLive");
+		long timeToLiveSeconds = (timeToLiveParam != null) ? Long.parseLong(timeToLiveParam.trim()) : CachingTokenFinder.CACHE_FOREVER;
+		tokenCacheTimeToLive = (timeToLiveSeconds < 0) ? CachingTokenFinder.CACHE_FOREVER : timeToLiveSeconds * 1000;
 	}
 	
 	@Override
@@ -69,22 +91,9 @@ public class TokenisingServletFilter implements Filter
 			chain.doFilter(request, responseWrapper);
 			
 			if (!response.isCommitted()) { // only write the content if the headers havent been commited (an error code hasnt been sent)
-				Reader streamTokeniserReader = null;
 				try
 				{
-					streamTokeniserReader = getStreamTokeniser(responseWrapper.getReader());
-				    StringBuilder filteredDataStringBuilder = new StringBuilder();
-				    
-				    char[] charArray = new char[8 * 1024];
-				    int numCharsRead;
-				    while ((numCharsRead = streamTokeniserReader.read(charArray, 0, charArray.length)) != -1) {
-				        filteredDataStringBuilder.append(charArray, 0, numCharsRead);
-				    }
-				    
-				    byte[] filteredData = filteredDataStringBuilder.toString().getBytes("UTF-8");
-					
-					response.setContentLength(filteredData.length);
-					response.getOutputStream().write(filteredData);
+					writeFilteredData((HttpServletRequest) request, (HttpServletResponse) response, responseWrapper);
 					response.flushBuffer();
 				}
     			catch(EOFException e) {
@@ -95,11 +104,6 @@ public class TokenisingServletFilter implements Filter
     			{
     				throw new ServletException(e);
     			}
-				finally {
-					if (streamTokeniserReader != null) {
-						streamTokeniserReader.close();
-					}
-				}
 			} else {
 				// don't filter the response, for some reason it's been committed
 			}
@@ -118,15 +122,137 @@ public class TokenisingServletFilter implements Filter
 		return processUrlPattern.matcher(requestUrl).matches() && request.getAttribute(IGNORE_REQUEST_ATTRIBUTE) == null;
 	}
 	
-	private Reader getStreamTokeniser(Reader reader) throws ServletException {
-		if (tokenFinder == null) {
-			try {
-				tokenFinder = new JndiTokenFinder();
-			} catch(NamingException ex) {
-				throw new ServletException("Error getting context for JNDI lookups. (" + ex + ")", ex);
+	private void writeFilteredData(HttpServletRequest request, HttpServletResponse response, CommitedResponseCharResponseWrapper responseWrapper) throws IOException, ServletException
+	{
+		if (responseWrapper.getStatus() == HttpServletResponse.SC_NOT_MODIFIED) {
+			return;
+		}
+		
+		if (!isTextContentType(responseWrapper.getContentType())) {
+			response.setContentLength(responseWrapper.getContentLength());
+			responseWrapper.writeContentTo(response.getOutputStream());
+			return;
+		}
+		
+		TokenFinder requestTokenFinder = new MemoizingTokenFinder(getTokenFinder());
+		if (responseWrapper.getStatus() != HttpServletResponse.SC_OK) {
+			// the length of the filtered content isn't known (the wrapper drops any Content-Length set downstream) so the container will
+			// send it in chunks
+			writeTokenisedData(responseWrapper, requestTokenFinder, response.getOutputStream());
+			return;
+		}
+		
+		/* the content is tokenised once to find the hash and length of the filtered content, so that the headers can be set, and then again
+		 * straight into the response, rather than holding the filtered content in memory as well as the captured content */
+		ContentLengthOutputStream contentLengthOutputStream = new ContentLengthOutputStream();
+		DigestOutputStream digestOutputStream = new DigestOutputStream(contentLengthOutputStream, ConditionalGetUtils.contentDigest());
+		writeTokenisedData(responseWrapper, requestTokenFinder, digestOutputStream);
+		
+		String contentHash = ConditionalGetUtils.contentHash(digestOutputStream.getMessageDigest());
+		long contentLength = contentLengthOutputStream.getContentLength();
+		boolean compressResponse = (contentLength >= CompressionUtils.MIN_COMPRESSIBLE_SIZE) && CompressionUtils.acceptsGzip(request);
+		String entityTag = ConditionalGetUtils.entityTag( (compressResponse) ? contentHash + CompressionUtils.GZIP_ENTITY_TAG_SUFFIX : contentHash );
+		
+		CompressionUtils.setVaryHeader(response);
+		if (ConditionalGetUtils.sendNotModifiedIfUnchanged(request, response, entityTag)) {
+			return;
+		}
+		
+		if (compressResponse) {
+			byte[] compressedData = compressedContentCache.getCompressedContent(contentHash);
+			if (compressedData == null) {
+				ByteArrayOutputStream compressedDataOutputStream = new ByteArrayOutputStream();
+				GZIPOutputStream gzipOutputStream = new GZIPOutputStream(compressedDataOutputStream);
+				try {
+					writeTokenisedData(responseWrapper, requestTokenFinder, gzipOutputStream);
+				}
+				finally {
+					gzipOutputStream.close();
+				}
+				compressedData = compressedDataOutputStream.toByteArray();
+				compressedContentCache.putCompressedContent(contentHash, compressedData);
+			}
+			
+			CompressionUtils.setGzipHeaders(response);
+			response.setContentLength(compressedData.length);
+			response.getOutputStream().write(compressedData);
+		}
+		else {
+			response.setContentLength((int) contentLength);
+			writeTokenisedData(responseWrapper, requestTokenFinder, response.getOutputStream());
+		}
+	}
+	
+	private void writeTokenisedData(CommitedResponseCharResponseWrapper responseWrapper, TokenFinder requestTokenFinder, OutputStream outputStream) throws IOException
+	{
+		Reader streamTokeniserReader = getStreamTokeniser(responseWrapper.getReader(), requestTokenFinder);
+		try {
+			Writer filteredDataWriter = new OutputStreamWriter(outputStream, BRJSHeaderFilter.OUTPUT_ENCODING);
+			char[] charArray = new char[BUFFER_SIZE];
+			int numCharsRead;
+			while ((numCharsRead = streamTokeniserReader.read(charArray, 0, charArray.length)) != -1) {
+				filteredDataWriter.write(charArray, 0, numCharsRead);
 			}
+			filteredDataWriter.flush();
+		}
+		finally {
+			streamTokeniserReader.close();
+		}
+	}
+	
+	/* responses without a content type are tokenised, as they always have been, since we can't tell that they aren't text */
+	private boolean isTextContentType(String contentType)
+	{
+		if (contentType == null) {
+			return true;
+		}
+		
+		for (String textContentType : TEXT_CONTENT_TYPES) {
+			if (contentType.contains(textContentType)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	private synchronized TokenFinder getTokenFinder() throws ServletException {
+		if (cachingTokenFinder == null) {
+			if (tokenFinder == null) {
+				try {
+					tokenFinder = new JndiTokenFinder();
+				} catch(NamingException ex) {
+					throw new ServletException("Error getting context for JNDI lookups. (" + ex + ")", ex);
+				}
+			}
+			cachingTokenFinder = new CachingTokenFinder(tokenFinder, tokenCacheTimeToLive);
+		}
+		return cachingTokenFinder;
+	}
+	
+	private Reader getStreamTokeniser(Reader reader, TokenFinder requestTokenFinder) {
+		return new TokenReplacingReader(appName, requestTokenFinder, new BufferedReader(reader, BUFFER_SIZE), new ExceptionThrowingMissingTokenHandler());
+	}
+	
+	private static class ContentLengthOutputStream extends OutputStream
+	{
+		private long contentLength = 0;
+		
+		@Override
+		public void write(int b)
+		{
+			contentLength++;
+		}
+		
+		@Override
+		public void write(byte[] bytes, int offset, int length)
+		{
+			contentLength += length;
+		}
+		
+		public long getContentLength()
+		{
+			return contentLength;
 		}
-		return new TokenReplacingReader(appName, tokenFinder, reader, new ExceptionThrowingMissingTokenHandler());
 	}
 	
 }
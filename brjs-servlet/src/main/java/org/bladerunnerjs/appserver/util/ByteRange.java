@@ -0,0 +1,118 @@
+package org.bladerunnerjs.appserver.util;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * A single byte range requested using a <code>Range</code> header. Requests for multiple ranges are answered with the whole content, which
+ * servers are allowed to do, since browsers only request multiple ranges for content such as PDFs that aren't served by BRJS.
+ */
+public class ByteRange
+{
+	public static final String RANGE = "Range";
+	public static final String IF_RANGE = "If-Range";
+	public static final String ACCEPT_RANGES = "Accept-Ranges";
+	public static final String CONTENT_RANGE = "Content-Range";
+	public static final String BYTES_UNIT = "bytes";
+
+	/* returned for ranges that start beyond the end of the content, which must be answered with a 416 response */
+	public static final ByteRange UNSATISFIABLE_RANGE = new ByteRange(-1, -1, -1);
+
+	private static final Pattern SINGLE_RANGE_PATTERN = Pattern.compile("^bytes=(\\d*)-(\\d*)$");
+
+	private final long start;
+	private final long end;
+	private final long contentLength;
+
+	private ByteRange(long start, long end, long contentLength)
+	{
+		this.start = start;
+		this.end = end;
+		this.contentLength = contentLength;
+	}
+
+	/**
+	 * Returns the range requested by the request's <code>Range</code> header, or null if the whole content should be sent, either because no
+	 * single valid range was requested or because the request's <code>If-Range</code> header doesn't match the entity tag.
+	 */
+	public static ByteRange getRequestedRange(HttpServletRequest request, long contentLength, String entityTag)
+	{
+		String ifRange = request.getHeader(IF_RANGE);
+		if (ifRange != null && !ifRange.equals(entityTag))
+		{
+			return null;
+		}
+		return parse(request.getHeader(RANGE), contentLength);
+	}
+
+	public static ByteRange parse(String rangeHeader, long contentLength)
+	{
+		if (rangeHeader == null)
+		{
+			return null;
+		}
+
+		Matcher rangeMatcher = SINGLE_RANGE_PATTERN.matcher(rangeHeader.replace(" ", ""));
+		if (!rangeMatcher.matches() || (rangeMatcher.group(1).isEmpty() && rangeMatcher.group(2).isEmpty()))
+		{
+			return null;
+		}
+
+		try
+		{
+			if (rangeMatcher.group(1).isEmpty())
+			{
+				long suffixLength = Long.parseLong(rangeMatcher.group(2));
+				if (suffixLength == 0)
+				{
+					return UNSATISFIABLE_RANGE;
+				}
+				return new ByteRange(Math.max(0, contentLength - suffixLength), contentLength - 1, contentLength);
+			}
+
+			long start = Long.parseLong(rangeMatcher.group(1));
+			long end = (rangeMatcher.group(2).isEmpty()) ? contentLength - 1 : Math.min(Long.parseLong(rangeMatcher.group(2)), contentLength - 1);
+			if (start >= contentLength)
+			{
+				return UNSATISFIABLE_RANGE;
+			}
+			if (start > end)
+			{
+				return null;
+			}
+			return new ByteRange(start, end, contentLength);
+		}
+		catch (NumberFormatException e)
+		{
+			// the numbers are too large to be a valid range
+			return null;
+		}
+	}
+
+	public long getStart()
+	{
+		return start;
+	}
+
+	public long getEnd()
+	{
+		return end;
+	}
+
+	public long getLength()
+	{
+		return end - start + 1;
+	}
+
+	public String getContentRange()
+	{
+		return BYTES_UNIT + " " + start + "-" + end + "/" + contentLength;
+	}
+
+	public static String getUnsatisfiableContentRange(long contentLength)
+	{
+		return BYTES_UNIT + " */" + contentLength;
+	}
+}
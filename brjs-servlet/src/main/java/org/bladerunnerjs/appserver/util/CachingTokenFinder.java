@@ -0,0 +1,66 @@
+package org.bladerunnerjs.appserver.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A {@link TokenFinder} that caches the replacements found by another token finder, so that a token used in every request is only looked
+ * up once each time it expires. Failed lookups aren't cached.
+ */
+public class CachingTokenFinder implements TokenFinder
+{
+	/* token values that never expire, for token finders whose values can't change while the app is deployed */
+	public static final long CACHE_FOREVER = -1;
+
+	private final TokenFinder tokenFinder;
+	private final long timeToLive;
+	private final ConcurrentMap<String, CachedTokenValue> cachedTokenValues = new ConcurrentHashMap<String, CachedTokenValue>();
+
+	/**
+	 * @param timeToLive how long, in milliseconds, a token value is cached for. Use {@link #CACHE_FOREVER} to cache values until the token
+	 * finder is discarded, or 0 to disable caching.
+	 */
+	public CachingTokenFinder(TokenFinder tokenFinder, long timeToLive)
+	{
+		this.tokenFinder = tokenFinder;
+		this.timeToLive = timeToLive;
+	}
+
+	@Override
+	public String findTokenValue(String tokenName) throws TokenReplacementException
+	{
+		if (timeToLive == 0 || tokenName == null)
+		{
+			return tokenFinder.findTokenValue(tokenName);
+		}
+
+		long now = System.currentTimeMillis();
+		CachedTokenValue cachedTokenValue = cachedTokenValues.get(tokenName);
+		if (cachedTokenValue != null && !cachedTokenValue.hasExpired(now))
+		{
+			return cachedTokenValue.value;
+		}
+
+		String tokenValue = tokenFinder.findTokenValue(tokenName);
+		long expiryTime = (timeToLive == CACHE_FOREVER) ? Long.MAX_VALUE : now + timeToLive;
+		cachedTokenValues.put(tokenName, new CachedTokenValue(tokenValue, expiryTime));
+		return tokenValue;
+	}
+
+	private static class CachedTokenValue
+	{
+		private final String value;
+		private final long expiryTime;
+
+		public CachedTokenValue(String value, long expiryTime)
+		{
+			this.value = value;
+			this.expiryTime = expiryTime;
+		}
+
+		public boolean hasExpired(long now)
+		{
+			return now >= expiryTime;
+		}
+	}
+}
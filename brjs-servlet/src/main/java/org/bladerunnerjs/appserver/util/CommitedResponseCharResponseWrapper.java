@@ -4,6 +4,7 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.io.Reader;
@@ -17,15 +18,18 @@ import org.bladerunnerjs.appserver.filter.BRJSHeaderFilter;
 
 public class CommitedResponseCharResponseWrapper extends HttpServletResponseWrapper
 {
-	private ByteArrayOutputStream byteArrayOutputStream;
+	private static final String CONTENT_LENGTH = "Content-Length";
+	
+	private ContentOutputStream byteArrayOutputStream;
 	private ServletOutputStream servletOutputStream;
 	private PrintWriter printWriter;
+	private int status = SC_OK;
 	
 	public CommitedResponseCharResponseWrapper(HttpServletResponse response) throws UnsupportedEncodingException
 	{
 		super(response);
 		
-		byteArrayOutputStream = new ByteArrayOutputStream();
+		byteArrayOutputStream = new ContentOutputStream();
 		servletOutputStream = new ServletOutputStream()
 		{
 			@Override
@@ -33,6 +37,12 @@ public class CommitedResponseCharResponseWrapper extends HttpServletResponseWrap
 			{
 				byteArrayOutputStream.write(i);
 			}
+			
+			@Override
+			public void write(byte[] bytes, int offset, int length) throws IOException
+			{
+				byteArrayOutputStream.write(bytes, offset, length);
+			}
 		};
 		printWriter = new PrintWriter(new OutputStreamWriter(byteArrayOutputStream, BRJSHeaderFilter.OUTPUT_ENCODING));
 	}
@@ -49,14 +59,98 @@ public class CommitedResponseCharResponseWrapper extends HttpServletResponseWrap
 		return printWriter;
 	}
 	
+	/* the reader reads straight from the captured content rather than a copy of it, since bundles can be large */
 	public Reader getReader() throws UnsupportedEncodingException
 	{
 		printWriter.flush();
-		return new InputStreamReader(new ByteArrayInputStream(byteArrayOutputStream.toByteArray()), BRJSHeaderFilter.OUTPUT_ENCODING);
+		return new InputStreamReader(byteArrayOutputStream.getInputStream(), BRJSHeaderFilter.OUTPUT_ENCODING);
+	}
+	
+	public int getContentLength()
+	{
+		printWriter.flush();
+		return byteArrayOutputStream.size();
+	}
+	
+	public void writeContentTo(OutputStream outputStream) throws IOException
+	{
+		printWriter.flush();
+		byteArrayOutputStream.writeTo(outputStream);
+	}
+	
+	@Override
+	public void setStatus(int status)
+	{
+		this.status = status;
+		super.setStatus(status);
+	}
+	
+	@Override
+	@SuppressWarnings("deprecation")
+	public void setStatus(int status, String message)
+	{
+		this.status = status;
+		super.setStatus(status, message);
+	}
+	
+	public int getStatus()
+	{
+		return status;
+	}
+	
+	/* the length of the content can change once it's been filtered, so any Content-Length set downstream (e.g. by an error page) is dropped,
+	 * leaving the filter to set the length of the content it actually sends */
+	@Override
+	public void setContentLength(int length)
+	{
+	}
+	
+	@Override
+	public void setHeader(String name, String value)
+	{
+		if (!CONTENT_LENGTH.equalsIgnoreCase(name))
+		{
+			super.setHeader(name, value);
+		}
+	}
+	
+	@Override
+	public void addHeader(String name, String value)
+	{
+		if (!CONTENT_LENGTH.equalsIgnoreCase(name))
+		{
+			super.addHeader(name, value);
+		}
+	}
+	
+	@Override
+	public void setIntHeader(String name, int value)
+	{
+		if (!CONTENT_LENGTH.equalsIgnoreCase(name))
+		{
+			super.setIntHeader(name, value);
+		}
+	}
+	
+	@Override
+	public void addIntHeader(String name, int value)
+	{
+		if (!CONTENT_LENGTH.equalsIgnoreCase(name))
+		{
+			super.addIntHeader(name, value);
+		}
 	}
 	
 	@Override
 	public void flushBuffer() throws IOException
 	{
 	}
+	
+	private static class ContentOutputStream extends ByteArrayOutputStream
+	{
+		public ByteArrayInputStream getInputStream()
+		{
+			return new ByteArrayInputStream(buf, 0, count);
+		}
+	}
 }
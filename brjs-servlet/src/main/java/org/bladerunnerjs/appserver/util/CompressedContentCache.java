@@ -0,0 +1,62 @@
+package org.bladerunnerjs.appserver.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded, least recently used cache of gzip compressed content, keyed by a hash of the uncompressed content, so that each version of a
+ * response only needs to be compressed once.
+ */
+public class CompressedContentCache
+{
+	public static final long DEFAULT_MAX_CACHE_SIZE = 32 * 1024 * 1024;
+
+	private final long maxCacheSize;
+	private final Map<String, byte[]> compressedContents = new LinkedHashMap<String, byte[]>(16, 0.75f, true);
+	private long cacheSize = 0;
+
+	public CompressedContentCache()
+	{
+		this(DEFAULT_MAX_CACHE_SIZE);
+	}
+
+	public CompressedContentCache(long maxCacheSize)
+	{
+		this.maxCacheSize = maxCacheSize;
+	}
+
+	/**
+	 * Returns the cached compressed content for the given content hash, or null if it isn't cached.
+	 */
+	public byte[] getCompressedContent(String contentHash)
+	{
+		synchronized (compressedContents)
+		{
+			return compressedContents.get(contentHash);
+		}
+	}
+
+	public void putCompressedContent(String contentHash, byte[] compressedContent)
+	{
+		synchronized (compressedContents)
+		{
+			if (compressedContent.length <= maxCacheSize && !compressedContents.containsKey(contentHash))
+			{
+				compressedContents.put(contentHash, compressedContent);
+				cacheSize += compressedContent.length;
+				evictLeastRecentlyUsedContent();
+			}
+		}
+	}
+
+	private void evictLeastRecentlyUsedContent()
+	{
+		Iterator<byte[]> compressedContentIterator = compressedContents.values().iterator();
+		while (cacheSize > maxCacheSize && compressedContentIterator.hasNext())
+		{
+			cacheSize -= compressedContentIterator.next().length;
+			compressedContentIterator.remove();
+		}
+	}
+}
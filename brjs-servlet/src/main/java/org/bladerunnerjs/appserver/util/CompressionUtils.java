@@ -0,0 +1,139 @@
+package org.bladerunnerjs.appserver.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPOutputStream;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Utility methods for negotiating and producing gzip encoded responses.
+ */
+public class CompressionUtils
+{
+	public static final String ACCEPT_ENCODING = "Accept-Encoding";
+	public static final String CONTENT_ENCODING = "Content-Encoding";
+	public static final String VARY = "Vary";
+	public static final String GZIP = "gzip";
+	public static final String GZIP_FILE_SUFFIX = ".gz";
+	public static final String GZIP_ENTITY_TAG_SUFFIX = "-gzip";
+
+	/* compressing anything smaller than this saves fewer bytes than the gzip header and footer add */
+	public static final int MIN_COMPRESSIBLE_SIZE = 256;
+
+	private static final String[] COMPRESSIBLE_CONTENT_TYPES = new String[] { "text/", "application/javascript", "application/x-javascript",
+		"application/json", "application/xml", "image/svg+xml" };
+	private static final String[] COMPRESSIBLE_FILE_EXTENSIONS = new String[] { ".js", ".css", ".html", ".htm", ".json", ".xml", ".svg", ".txt" };
+
+	/**
+	 * Whether the request's <code>Accept-Encoding</code> header allows a gzip encoded response, taking into account any <code>q=0</code> values.
+	 */
+	public static boolean acceptsGzip(HttpServletRequest request)
+	{
+		String acceptEncoding = request.getHeader(ACCEPT_ENCODING);
+		if (acceptEncoding == null)
+		{
+			return false;
+		}
+
+		for (String encoding : acceptEncoding.split(","))
+		{
+			String[] encodingParts = encoding.trim().split("\\s*;\\s*");
+			String encodingName = encodingParts[0].toLowerCase();
+
+			if (encodingName.equals(GZIP) || encodingName.equals("x-gzip") || encodingName.equals("*"))
+			{
+				return !hasZeroQuality(encodingParts);
+			}
+		}
+		return false;
+	}
+
+	public static boolean isCompressibleContentType(String contentType)
+	{
+		if (contentType == null)
+		{
+			return false;
+		}
+
+		for (String compressibleContentType : COMPRESSIBLE_CONTENT_TYPES)
+		{
+			if (contentType.startsWith(compressibleContentType))
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public static boolean isCompressibleFileName(String fileName)
+	{
+		for (String compressibleFileExtension : COMPRESSIBLE_FILE_EXTENSIONS)
+		{
+			if (fileName.endsWith(compressibleFileExtension))
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public static byte[] gzip(byte[] content)
+	{
+		try
+		{
+			ByteArrayOutputStream compressedContent = new ByteArrayOutputStream(content.length / 4 + 64);
+			GZIPOutputStream gzipOutputStream = new GZIPOutputStream(compressedContent);
+			try
+			{
+				gzipOutputStream.write(content);
+			}
+			finally
+			{
+				gzipOutputStream.close();
+			}
+			return compressedContent.toByteArray();
+		}
+		catch (IOException e)
+		{
+			// we're writing to memory so this can't happen
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Sets the headers for a gzip encoded response. The <code>Vary</code> header should be sent with both the compressed and uncompressed
+	 * variants of a response, so that caches don't send the compressed variant to clients that can't accept it.
+	 */
+	public static void setGzipHeaders(HttpServletResponse response)
+	{
+		response.setHeader(CONTENT_ENCODING, GZIP);
+		setVaryHeader(response);
+	}
+
+	public static void setVaryHeader(HttpServletResponse response)
+	{
+		response.setHeader(VARY, ACCEPT_ENCODING);
+	}
+
+	private static boolean hasZeroQuality(String[] encodingParts)
+	{
+		for (int i = 1; i < encodingParts.length; i++)
+		{
+			String parameter = encodingParts[i].replace(" ", "");
+			if (parameter.startsWith("q="))
+			{
+				try
+				{
+					return Double.parseDouble(parameter.substring(2)) == 0;
+				}
+				catch (NumberFormatException e)
+				{
+					return false;
+				}
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,114 @@
+package org.bladerunnerjs.appserver.util;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Utility methods for answering conditional GET requests using strong entity tags generated from a hash of the response content.
+ */
+public class ConditionalGetUtils
+{
+	public static final String ETAG = "ETag";
+	public static final String IF_NONE_MATCH = "If-None-Match";
+
+	private static final char[] HEX_CHARS = "0123456789abcdef".toCharArray();
+
+	public static String entityTag(byte[] content)
+	{
+		return entityTag( contentHash(content) );
+	}
+
+	public static String entityTag(String contentHash)
+	{
+		return "\"" + contentHash + "\"";
+	}
+
+	public static String contentHash(byte[] content)
+	{
+		MessageDigest contentDigest = contentDigest();
+		contentDigest.update(content);
+		return contentHash(contentDigest);
+	}
+	
+	/**
+	 * Creates a digest that content can be written to incrementally, for use with {@link #contentHash(MessageDigest)} when the content isn't
+	 * held in memory.
+	 */
+	public static MessageDigest contentDigest()
+	{
+		try
+		{
+			return MessageDigest.getInstance("SHA-1");
+		}
+		catch (NoSuchAlgorithmException e)
+		{
+			throw new RuntimeException(e);
+		}
+	}
+	
+	public static String contentHash(MessageDigest contentDigest)
+	{
+		return toHex( contentDigest.digest() );
+	}
+
+	/**
+	 * Sets the ETag header and, if the request was a GET or HEAD request whose <code>If-None-Match</code> header matches the entity tag, sets a
+	 * <code>304 Not Modified</code> status. Returns true if the response was not modified, in which case no content should be written.
+	 */
+	public static boolean sendNotModifiedIfUnchanged(HttpServletRequest request, HttpServletResponse response, String entityTag)
+	{
+		response.setHeader(ETAG, entityTag);
+
+		if (isConditionalMethod(request) && matchesIfNoneMatch(request.getHeader(IF_NONE_MATCH), entityTag))
+		{
+			response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+			return true;
+		}
+		return false;
+	}
+
+	private static boolean isConditionalMethod(HttpServletRequest request)
+	{
+		String method = request.getMethod();
+		return method.equals("GET") || method.equals("HEAD");
+	}
+
+	/* a weak comparison is used, as required for If-None-Match, so that entity tags a proxy has marked as weak still match */
+	private static boolean matchesIfNoneMatch(String ifNoneMatch, String entityTag)
+	{
+		if (ifNoneMatch == null)
+		{
+			return false;
+		}
+
+		for (String requestEntityTag : ifNoneMatch.split(","))
+		{
+			requestEntityTag = requestEntityTag.trim();
+			if (requestEntityTag.startsWith("W/"))
+			{
+				requestEntityTag = requestEntityTag.substring(2);
+			}
+
+			if (requestEntityTag.equals("*") || requestEntityTag.equals(entityTag))
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static String toHex(byte[] bytes)
+	{
+		char[] hexChars = new char[bytes.length * 2];
+		for (int i = 0; i < bytes.length; i++)
+		{
+			int value = bytes[i] & 0xFF;
+			hexChars[i * 2] = HEX_CHARS[value >>> 4];
+			hexChars[i * 2 + 1] = HEX_CHARS[value & 0x0F];
+		}
+		return new String(hexChars);
+	}
+}
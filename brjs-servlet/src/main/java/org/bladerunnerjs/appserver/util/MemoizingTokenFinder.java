@@ -0,0 +1,32 @@
+package org.bladerunnerjs.appserver.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A {@link TokenFinder} that remembers the replacements found by another token finder, so that content can be tokenised more than once
+ * without looking each token up again. Token values can change between requests so a new instance should be used for each request.
+ */
+public class MemoizingTokenFinder implements TokenFinder
+{
+	private final TokenFinder tokenFinder;
+	private final Map<String, String> tokenValues = new HashMap<String, String>();
+
+	public MemoizingTokenFinder(TokenFinder tokenFinder)
+	{
+		this.tokenFinder = tokenFinder;
+	}
+
+	@Override
+	public String findTokenValue(String tokenName) throws TokenReplacementException
+	{
+		if (tokenValues.containsKey(tokenName))
+		{
+			return tokenValues.get(tokenName);
+		}
+
+		String tokenValue = tokenFinder.findTokenValue(tokenName);
+		tokenValues.put(tokenName, tokenValue);
+		return tokenValue;
+	}
+}
@@ -4,7 +4,7 @@ import java.io.IOException;
 import java.io.Reader;
 
 
-// this class only reads a single char at a time from the SourceReader as it massively simplifies the code and we're not reading from large files as we might with the JS 'stripping' readers
+// this class reads the source in blocks and copies the literal text between tokens in bulk, since bundles can be large and most of their content isn't tokens
 public class TokenReplacingReader extends Reader
 {
 	
@@ -14,19 +14,24 @@ public class TokenReplacingReader extends Reader
 	public static final String NO_BRJS_TOKEN_CONFIGURED_MESSAGE = "No token finder has been configured for '"+BRJS_KEY_PREFIX+"*' tokens. Only 'user' tokens can be used at this location";
 	public static final String NO_BRJS_TOKEN_FOUND_MESSAGE = "The token '%s' is an invalid BRJS system token.";
 
+	private static final int SOURCE_BUFFER_SIZE = 8 * 1024;
+	
 	private final TokenFinder brjsTokenFinder;
     private final TokenFinder userTokenFinder;
 	private final Reader sourceReader;
     private final MissingTokenHandler replacementHandler;
 
-    private boolean withinToken = false;
-	private StringBuffer currentTokenString = new StringBuffer();;
+	private final char[] sourceBuffer = new char[SOURCE_BUFFER_SIZE];
+	private int sourcePosition = 0;
+	private int sourceLimit = 0;
+	
+	/* the characters of a token that has been started but not yet ended, including the TOKEN_START */
+	private final StringBuilder currentTokenString = new StringBuilder();
 	
-	private StringBuffer readTokensBuffer = new StringBuffer();
+	/* output, such as a token replacement, that didn't fit in the destination buffer of a previous read */
+	private String pendingOutput = "";
+	private int pendingOutputPosition = 0;
 	
-	private int currentOffset;
-	private int maxCharactersToWrite;
-	private int totalNumberOfCharsWritten;
 	private String appName;
 
 	public TokenReplacingReader(String appName, TokenFinder userTokenFinder, Reader sourceReader) {
@@ -48,75 +53,37 @@ public class TokenReplacingReader extends Reader
     @Override
 	public int read(char[] destBuffer, int offset, int maxCharacters) throws IOException
 	{
-		currentOffset = offset;
-		totalNumberOfCharsWritten = 0;
-		maxCharactersToWrite = maxCharacters;
-		
-		int nextCharVal = -1;
-		char nextChar = '\0';
+		int charsWritten = 0;
 		
-		if (readTokensBuffer.length() > 0) {
-			addToCharBuffer(destBuffer, readTokensBuffer);
-		}
-		
-		while (canWriteMoreChars()) {
-			nextCharVal = sourceReader.read();
-			
-			if (nextCharVal == -1) {
-				break;
+		while (charsWritten < maxCharacters)
+		{
+			if (pendingOutputPosition < pendingOutput.length())
+			{
+				charsWritten += writePendingOutput(destBuffer, offset + charsWritten, maxCharacters - charsWritten);
 			}
-			nextChar = (char) nextCharVal;
-			
-			if (withinToken)
+			else if (sourcePosition == sourceLimit)
 			{
-				if (isValidTokenChar(nextChar))
+				if (!fillSourceBuffer())
 				{
-					currentTokenString.append(nextChar);
-				}
-				else if (nextChar == TOKEN_END)
-				{
-					withinToken = false;
-					currentTokenString.append(nextChar);
-					if (currentTokenString.length() <= 2)
-					{
-						addToCharBuffer(destBuffer, currentTokenString);
-					}
-					else
+					if (currentTokenString.length() == 0)
 					{
-						addToCharBuffer(destBuffer, findTokenReplacement(currentTokenString.toString()).toCharArray());
-						currentTokenString.setLength(0);
+						break;
 					}
-				}
-				else
-				{
-					withinToken = false;
-					addToCharBuffer(destBuffer, currentTokenString);
-					addToCharBuffer(destBuffer, nextChar);
+					// the source ended part way through a token so it wasn't a token
+					setPendingOutput(currentTokenString);
 				}
 			}
+			else if (currentTokenString.length() == 0)
+			{
+				charsWritten += writeLiteralText(destBuffer, offset + charsWritten, maxCharacters - charsWritten);
+			}
 			else
 			{
-				if (nextChar == TOKEN_START)
-				{
-					withinToken = true;
-					currentTokenString.setLength(0);
-					currentTokenString.append(nextChar);
-				}
-				else
-				{
-					addToCharBuffer(destBuffer, nextChar);
-				}
+				readTokenChars();
 			}
-				
 		}
 		
-		if (currentTokenString.length() > 0) {
-			addToCharBuffer(destBuffer, currentTokenString.toString().toCharArray());
-			currentTokenString.setLength(0);
-		}
-		
-		int charsProvided = (currentOffset - offset);
-		return (charsProvided == 0) ? -1 : charsProvided;
+		return (charsWritten == 0) ? -1 : charsWritten;
 	}
 
 	@Override
@@ -125,24 +92,94 @@ public class TokenReplacingReader extends Reader
 		sourceReader.close();		
 	}
 	
-	private boolean canWriteMoreChars() {
-		return totalNumberOfCharsWritten < maxCharactersToWrite;
+	private boolean fillSourceBuffer() throws IOException
+	{
+		int charsRead;
+		do
+		{
+			charsRead = sourceReader.read(sourceBuffer, 0, sourceBuffer.length);
+		}
+		while (charsRead == 0);
+		
+		sourcePosition = 0;
+		sourceLimit = Math.max(charsRead, 0);
+		return charsRead != -1;
 	}
 	
-	private void addToCharBuffer(char[] destBuffer, char... chars) {
-		for (char c : chars) {
-			if (canWriteMoreChars()) {
-				destBuffer[currentOffset++] = c;
-				totalNumberOfCharsWritten ++;
-			} else {
-				readTokensBuffer.append(c);
-			}
+	/* copies the text up to the next TOKEN_START in one go, or starts a token if the next char is a TOKEN_START */
+	private int writeLiteralText(char[] destBuffer, int destOffset, int maxCharacters)
+	{
+		int literalEnd = indexOfTokenStart(sourceBuffer, sourcePosition, Math.min(sourceLimit, sourcePosition + maxCharacters));
+		int literalLength = literalEnd - sourcePosition;
+		
+		if (literalLength == 0)
+		{
+			currentTokenString.append(TOKEN_START);
+			sourcePosition++;
+		}
+		else
+		{
+			System.arraycopy(sourceBuffer, sourcePosition, destBuffer, destOffset, literalLength);
+			sourcePosition = literalEnd;
+		}
+		return literalLength;
+	}
+	
+	/* a plain loop over the array, with no other work in it, so the JIT can unroll it */
+	private static int indexOfTokenStart(char[] chars, int start, int end)
+	{
+		int i = start;
+		while (i < end && chars[i] != TOKEN_START)
+		{
+			i++;
 		}
+		return i;
 	}
 	
-	private void addToCharBuffer(char[] destBuffer, StringBuffer buffer) {
-		addToCharBuffer(destBuffer, buffer.toString().toCharArray());
-		buffer.setLength(0);
+	private void readTokenChars()
+	{
+		int tokenCharsEnd = sourcePosition;
+		while (tokenCharsEnd < sourceLimit && isValidTokenChar(sourceBuffer[tokenCharsEnd]))
+		{
+			tokenCharsEnd++;
+		}
+		currentTokenString.append(sourceBuffer, sourcePosition, tokenCharsEnd - sourcePosition);
+		sourcePosition = tokenCharsEnd;
+		
+		if (sourcePosition == sourceLimit)
+		{
+			// the token might continue in the next block of the source
+			return;
+		}
+		
+		char nextChar = sourceBuffer[sourcePosition++];
+		currentTokenString.append(nextChar);
+		
+		if (nextChar == TOKEN_END && currentTokenString.length() > 2)
+		{
+			pendingOutput = findTokenReplacement(currentTokenString.toString());
+			pendingOutputPosition = 0;
+			currentTokenString.setLength(0);
+		}
+		else
+		{
+			setPendingOutput(currentTokenString);
+		}
+	}
+	
+	private void setPendingOutput(StringBuilder output)
+	{
+		pendingOutput = output.toString();
+		pendingOutputPosition = 0;
+		output.setLength(0);
+	}
+	
+	private int writePendingOutput(char[] destBuffer, int destOffset, int maxCharacters)
+	{
+		int charsToWrite = Math.min(maxCharacters, pendingOutput.length() - pendingOutputPosition);
+		pendingOutput.getChars(pendingOutputPosition, pendingOutputPosition + charsToWrite, destBuffer, destOffset);
+		pendingOutputPosition += charsToWrite;
+		return charsToWrite;
 	}
 	
 	private boolean isValidTokenChar(char c)
@@ -18,6 +18,7 @@ public class DummyServlet extends HttpServlet
 	private String responseText;
 	private int responseCode;
 	private String contentType;
+	private boolean setsContentLength;
 
 	public DummyServlet()
 	{
@@ -39,11 +40,17 @@ public class DummyServlet extends HttpServlet
 		this.contentType = contentType;
 	}
 
+	public void setSetsContentLength(boolean setsContentLength)
+	{
+		this.setsContentLength = setsContentLength;
+	}
+
 	public void resetResponse()
 	{
 		responseText = "OK - This content was generated by "+this.getClass().getSimpleName();
 		responseCode = 200;
 		contentType = "text/plain";
+		setsContentLength = false;
 	}
 
 	@Override
@@ -58,6 +65,9 @@ public class DummyServlet extends HttpServlet
 				response.getOutputStream().flush();
 			} else {
 				response.setContentType(contentType);
+				if (setsContentLength) {
+					response.setContentLength(responseText.getBytes("UTF-8").length);
+				}
 				out = response.getWriter();
 				out.write(responseText);				
 				out.flush();
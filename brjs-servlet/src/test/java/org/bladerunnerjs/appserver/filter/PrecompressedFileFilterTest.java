@@ -0,0 +1,98 @@
+package org.bladerunnerjs.appserver.filter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.bladerunnerjs.appserver.util.CompressionUtils;
+import org.eclipse.jetty.server.Server;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PrecompressedFileFilterTest extends ServletFilterTest
+{
+	private Server appServer;
+	private Map<String, String> gzipRequestHeaders = new HashMap<String, String>();
+	private byte[] compressedContent;
+	
+	@Before
+	public void setup() throws Exception
+	{
+		DummyServlet servlet = new DummyServlet();
+		servlet.setResponseText("uncompressed response");
+		PrecompressedFileFilter filter = new PrecompressedFileFilter();
+		appServer = createAndStartAppServer(servlet, filter);
+		
+		FileUtils.write(new File(contextDir, "bundle.js"), "var bundle = 'uncompressed';", "UTF-8");
+		compressedContent = CompressionUtils.gzip("var bundle = 'compressed';".getBytes("UTF-8"));
+		FileUtils.writeByteArrayToFile(new File(contextDir, "bundle.js.gz"), compressedContent);
+		FileUtils.write(new File(contextDir, "other.js"), "var other = 'uncompressed';", "UTF-8");
+		
+		gzipRequestHeaders.put("Accept-Encoding", "gzip, deflate");
+	}
+
+	@After
+	public void teardown() throws Exception
+	{
+		appServer.stop();
+	}
+	
+	@Test
+	public void theCompressedSiblingIsServedIfTheClientAcceptsGzip() throws Exception
+	{
+		ByteArrayOutputStream responseContent = new ByteArrayOutputStream();
+		Map<String, String> response = makeBinaryRequest("http://localhost:"+serverPort+"/bundle.js", gzipRequestHeaders, responseContent);
+		
+		assertEquals("200", response.get("responseCode"));
+		assertEquals("gzip", response.get("responseContentEncoding"));
+		assertEquals(new String(compressedContent, "ISO-8859-1"), new String(responseContent.toByteArray(), "ISO-8859-1"));
+	}
+	
+	@Test
+	public void theUncompressedFileIsServedIfTheClientDoesntAcceptGzip() throws Exception
+	{
+		Map<String, String> response = makeRequest("http://localhost:"+serverPort+"/bundle.js");
+		
+		assertEquals("200", response.get("responseCode"));
+		assertNull(response.get("responseContentEncoding"));
+		assertEquals("uncompressed response", response.get("responseText"));
+	}
+	
+	@Test
+	public void theUncompressedFileIsServedIfTheClientRefusesGzip() throws Exception
+	{
+		Map<String, String> requestHeaders = new HashMap<String, String>();
+		requestHeaders.put("Accept-Encoding", "gzip;q=0, deflate");
+		Map<String, String> response = makeRequest("http://localhost:"+serverPort+"/bundle.js", requestHeaders);
+		
+		assertEquals("200", response.get("responseCode"));
+		assertNull(response.get("responseContentEncoding"));
+		assertEquals("uncompressed response", response.get("responseText"));
+	}
+	
+	@Test
+	public void filesWithoutACompressedSiblingAreServedAsNormal() throws Exception
+	{
+		Map<String, String> response = makeRequest("http://localhost:"+serverPort+"/other.js", gzipRequestHeaders);
+		
+		assertEquals("200", response.get("responseCode"));
+		assertNull(response.get("responseContentEncoding"));
+		assertEquals("uncompressed response", response.get("responseText"));
+	}
+	
+	@Test
+	public void aNotModifiedResponseIsSentIfTheCompressedSiblingHasntChanged() throws Exception
+	{
+		Map<String, String> firstResponse = makeBinaryRequest("http://localhost:"+serverPort+"/bundle.js", gzipRequestHeaders, new ByteArrayOutputStream());
+		gzipRequestHeaders.put("If-None-Match", firstResponse.get("responseETag"));
+		Map<String, String> response = makeRequest("http://localhost:"+serverPort+"/bundle.js", gzipRequestHeaders);
+		
+		assertEquals("304", response.get("responseCode"));
+	}
+}
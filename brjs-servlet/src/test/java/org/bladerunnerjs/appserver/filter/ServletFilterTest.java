@@ -14,6 +14,7 @@ import javax.servlet.Filter;
 import javax.servlet.Servlet;
 
 import org.apache.commons.io.IOUtils;
+import org.apache.http.Header;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.ClientProtocolException;
 import org.apache.http.client.HttpClient;
@@ -48,19 +49,37 @@ public class ServletFilterTest {
 	}
 	
 	protected Map<String, String> makeRequest(String url) throws ClientProtocolException, IOException
+	{
+		Map<String, String> emptyMap = Collections.emptyMap();
+		return makeRequest(url, emptyMap);
+	}
+	
+	protected Map<String, String> makeRequest(String url, Map<String, String> requestHeaders) throws ClientProtocolException, IOException
 	{
 		Map<String, String> responseMap = new HashMap<String, String>();
 		HttpGet httpget = new HttpGet(url);
+		for (Map.Entry<String, String> requestHeader : requestHeaders.entrySet()) {
+			httpget.setHeader(requestHeader.getKey(), requestHeader.getValue());
+		}
 		HttpResponse response = httpclient.execute(httpget);
 		populateResponseDetails(response, responseMap);
-		responseMap.put("responseText", EntityUtils.toString(response.getEntity()));
+		responseMap.put("responseText", (response.getEntity() != null) ? EntityUtils.toString(response.getEntity()) : "");
 		return responseMap;
 	}
 	
 	protected Map<String, String> makeBinaryRequest(String url, OutputStream outputStream) throws ClientProtocolException, IOException
+	{
+		Map<String, String> emptyMap = Collections.emptyMap();
+		return makeBinaryRequest(url, emptyMap, outputStream);
+	}
+	
+	protected Map<String, String> makeBinaryRequest(String url, Map<String, String> requestHeaders, OutputStream outputStream) throws ClientProtocolException, IOException
 	{
 		Map<String, String> responseMap = new HashMap<String, String>();
 		HttpGet httpget = new HttpGet(url);
+		for (Map.Entry<String, String> requestHeader : requestHeaders.entrySet()) {
+			httpget.setHeader(requestHeader.getKey(), requestHeader.getValue());
+		}
 		HttpResponse response = httpclient.execute(httpget);
 		populateResponseDetails(response, responseMap);
 		IOUtils.copy(response.getEntity().getContent(), outputStream);
@@ -70,8 +89,12 @@ public class ServletFilterTest {
 	
 	private void populateResponseDetails(HttpResponse response, Map<String, String> responseMap) {
 		responseMap.put("responseCode", Integer.toString(response.getStatusLine().getStatusCode()));
-		String contentType = (ContentType.get(response.getEntity()) != null) ? ContentType.get(response.getEntity()).getMimeType().toString() : "";
+		String contentType = (response.getEntity() != null && ContentType.get(response.getEntity()) != null) ? ContentType.get(response.getEntity()).getMimeType().toString() : "";
 		responseMap.put("responseContentType", contentType);
+		Header eTagHeader = response.getFirstHeader("ETag");
+		responseMap.put("responseETag", (eTagHeader != null) ? eTagHeader.getValue() : null);
+		Header contentEncodingHeader = response.getFirstHeader("Content-Encoding");
+		responseMap.put("responseContentEncoding", (contentEncodingHeader != null) ? contentEncodingHeader.getValue() : null);
 	}
 	
 	protected Server createAndStartAppServer(Servlet servlet, Filter filter) throws Exception {
@@ -3,15 +3,21 @@ package org.bladerunnerjs.appserver.filter;
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.zip.GZIPInputStream;
 
 import javax.naming.Context;
 import javax.naming.NamingException;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.bladerunnerjs.appserver.util.ConditionalGetUtils;
 import org.bladerunnerjs.appserver.util.JndiTokenFinder;
 import org.bladerunnerjs.appserver.util.TokenReplacingReader;
 import org.eclipse.jetty.server.Server;
@@ -155,6 +161,160 @@ public class TokenisingServletFilterTest extends ServletFilterTest
 		assertEquals("token replacement", response.get("responseText"));
 	}
 	
+	@Test
+	public void theEntityTagIsGeneratedFromTheFilteredContent() throws Exception
+	{
+		dummyServlet.setResponseText("@A.TOKEN@");
+		when(mockJndiContext.lookup("java:comp/env/A.TOKEN")).thenReturn("token replacement");
+
+		Map<String, String> response = makeRequest("http://localhost:"+serverPort+"/file.js");
+		verify(mockJndiContext, times(1)).lookup("java:comp/env/A.TOKEN");
+		assertEquals("200", response.get("responseCode"));
+		assertEquals(ConditionalGetUtils.entityTag("token replacement".getBytes("UTF-8")), response.get("responseETag"));
+	}
+	
+	@Test
+	public void aNotModifiedResponseIsSentIfTheEntityTagMatches() throws Exception
+	{
+		dummyServlet.setResponseText("@A.TOKEN@");
+		when(mockJndiContext.lookup("java:comp/env/A.TOKEN")).thenReturn("token replacement");
+
+		Map<String, String> firstResponse = makeRequest("http://localhost:"+serverPort+"/file.js");
+		Map<String, String> requestHeaders = new HashMap<String, String>();
+		requestHeaders.put("If-None-Match", firstResponse.get("responseETag"));
+		Map<String, String> response = makeRequest("http://localhost:"+serverPort+"/file.js", requestHeaders);
+		verify(mockJndiContext, times(1)).lookup("java:comp/env/A.TOKEN");
+		assertEquals("304", response.get("responseCode"));
+		assertEquals("", response.get("responseText"));
+	}
+	
+	@Test
+	public void theContentIsSentIfTheEntityTagDoesntMatch() throws Exception
+	{
+		dummyServlet.setResponseText("@A.TOKEN@");
+		when(mockJndiContext.lookup("java:comp/env/A.TOKEN")).thenReturn("token replacement");
+
+		Map<String, String> requestHeaders = new HashMap<String, String>();
+		requestHeaders.put("If-None-Match", "\"some-other-etag\"");
+		Map<String, String> response = makeRequest("http://localhost:"+serverPort+"/file.js", requestHeaders);
+		verify(mockJndiContext, times(1)).lookup("java:comp/env/A.TOKEN");
+		assertEquals("200", response.get("responseCode"));
+		assertEquals("token replacement", response.get("responseText"));
+	}
+	
+	@Test
+	public void largeResponsesAreCompressedIfTheClientAcceptsGzip() throws Exception
+	{
+		dummyServlet.setResponseText("@A.TOKEN@" + StringUtils.repeat(" some more text", 100));
+		when(mockJndiContext.lookup("java:comp/env/A.TOKEN")).thenReturn("token replacement");
+
+		Map<String, String> requestHeaders = new HashMap<String, String>();
+		requestHeaders.put("Accept-Encoding", "gzip");
+		ByteArrayOutputStream responseContent = new ByteArrayOutputStream();
+		Map<String, String> response = makeBinaryRequest("http://localhost:"+serverPort+"/file.js", requestHeaders, responseContent);
+		verify(mockJndiContext, times(1)).lookup("java:comp/env/A.TOKEN");
+		assertEquals("200", response.get("responseCode"));
+		assertEquals("gzip", response.get("responseContentEncoding"));
+		assertEquals("token replacement" + StringUtils.repeat(" some more text", 100), IOUtils.toString(new GZIPInputStream(new ByteArrayInputStream(responseContent.toByteArray())), "UTF-8"));
+	}
+	
+	@Test
+	public void smallResponsesArentCompressed() throws Exception
+	{
+		dummyServlet.setResponseText("@A.TOKEN@");
+		when(mockJndiContext.lookup("java:comp/env/A.TOKEN")).thenReturn("token replacement");
+
+		Map<String, String> requestHeaders = new HashMap<String, String>();
+		requestHeaders.put("Accept-Encoding", "gzip");
+		Map<String, String> response = makeRequest("http://localhost:"+serverPort+"/file.js", requestHeaders);
+		verify(mockJndiContext, times(1)).lookup("java:comp/env/A.TOKEN");
+		assertEquals("200", response.get("responseCode"));
+		assertNull(response.get("responseContentEncoding"));
+		assertEquals("token replacement", response.get("responseText"));
+	}
+	
+	@Test
+	public void responsesWithANonTextContentTypeArePassedThroughUnchanged() throws Exception
+	{
+		dummyServlet.setResponseText("@A.TOKEN@");
+		dummyServlet.setContentType("application/octet-stream");
+
+		Map<String, String> response = makeRequest("http://localhost:"+serverPort+"/file.js");
+		verify(mockJndiContext, never()).lookup("java:comp/env/A.TOKEN");
+		assertEquals("200", response.get("responseCode"));
+		assertEquals("@A.TOKEN@", response.get("responseText"));
+	}
+	
+	@Test
+	public void tokensAreReplacedInErrorResponsesWithoutAnEntityTag() throws Exception
+	{
+		dummyServlet.setResponseText("@A.TOKEN@");
+		dummyServlet.setResponseCode(404);
+		when(mockJndiContext.lookup("java:comp/env/A.TOKEN")).thenReturn("token replacement");
+
+		Map<String, String> response = makeRequest("http://localhost:"+serverPort+"/file.js");
+		verify(mockJndiContext, times(1)).lookup("java:comp/env/A.TOKEN");
+		assertEquals("404", response.get("responseCode"));
+		assertEquals("token replacement", response.get("responseText"));
+		assertNull(response.get("responseETag"));
+	}
+	
+	@Test
+	public void theContentLengthOfErrorResponsesIsntTakenFromTheUnfilteredContent() throws Exception
+	{
+		dummyServlet.setResponseText("@A.TOKEN@ page not found");
+		dummyServlet.setResponseCode(404);
+		dummyServlet.setSetsContentLength(true);
+		when(mockJndiContext.lookup("java:comp/env/A.TOKEN")).thenReturn("token replacement");
+
+		Map<String, String> response = makeRequest("http://localhost:"+serverPort+"/file.js");
+		verify(mockJndiContext, times(1)).lookup("java:comp/env/A.TOKEN");
+		assertEquals("404", response.get("responseCode"));
+		assertEquals("token replacement page not found", response.get("responseText"));
+	}
+	
+	@Test
+	public void tokenReplacementWorksForLargeResponses() throws Exception
+	{
+		dummyServlet.setResponseText(StringUtils.repeat("some text ", 2000) + "@A.TOKEN@" + StringUtils.repeat(" some more text", 2000));
+		when(mockJndiContext.lookup("java:comp/env/A.TOKEN")).thenReturn("token replacement");
+
+		Map<String, String> response = makeRequest("http://localhost:"+serverPort+"/file.js");
+		verify(mockJndiContext, times(1)).lookup("java:comp/env/A.TOKEN");
+		assertEquals("200", response.get("responseCode"));
+		assertEquals(StringUtils.repeat("some text ", 2000) + "token replacement" + StringUtils.repeat(" some more text", 2000), response.get("responseText"));
+	}
+	
+	@Test
+	public void tokenValuesAreCachedBetweenRequests() throws Exception
+	{
+		dummyServlet.setResponseText("@A.TOKEN@");
+		when(mockJndiContext.lookup("java:comp/env/A.TOKEN")).thenReturn("token replacement");
+
+		makeRequest("http://localhost:"+serverPort+"/file.js");
+		Map<String, String> response = makeRequest("http://localhost:"+serverPort+"/file.js");
+		verify(mockJndiContext, times(1)).lookup("java:comp/env/A.TOKEN");
+		assertEquals("token replacement", response.get("responseText"));
+	}
+	
+	@Test
+	public void tokenValuesArentCachedIfTheCacheTimeToLiveIsZero() throws Exception
+	{
+		appServer.stop();
+		
+		Map<String,String> filterInitParams = new HashMap<String,String>();
+		filterInitParams.put("tokenCacheTimeToLive", "0");
+		appServer = createAndStartAppServer(dummyServlet, new TokenisingServletFilter(new JndiTokenFinder(mockJndiContext)), filterInitParams);
+		
+		dummyServlet.setResponseText("@A.TOKEN@");
+		when(mockJndiContext.lookup("java:comp/env/A.TOKEN")).thenReturn("token replacement");
+
+		makeRequest("http://localhost:"+serverPort+"/file.js");
+		Map<String, String> response = makeRequest("http://localhost:"+serverPort+"/file.js");
+		verify(mockJndiContext, times(2)).lookup("java:comp/env/A.TOKEN");
+		assertEquals("token replacement", response.get("responseText"));
+	}
+	
 	@Test
 	public void tokenReplacementWorksForIndexPages() throws Exception
 	{
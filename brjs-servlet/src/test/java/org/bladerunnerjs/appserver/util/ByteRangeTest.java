@@ -0,0 +1,78 @@
+package org.bladerunnerjs.appserver.util;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.junit.Test;
+
+public class ByteRangeTest
+{
+
+	@Test
+	public void noRangeIsReturnedIfThereIsNoRangeHeader() throws Exception
+	{
+		assertNull(ByteRange.parse(null, 100));
+	}
+
+	@Test
+	public void aRangeWithAStartAndEndCanBeParsed() throws Exception
+	{
+		ByteRange byteRange = ByteRange.parse("bytes=10-19", 100);
+
+		assertEquals(10, byteRange.getStart());
+		assertEquals(19, byteRange.getEnd());
+		assertEquals(10, byteRange.getLength());
+		assertEquals("bytes 10-19/100", byteRange.getContentRange());
+	}
+
+	@Test
+	public void aRangeWithoutAnEndRunsToTheEndOfTheContent() throws Exception
+	{
+		ByteRange byteRange = ByteRange.parse("bytes=90-", 100);
+
+		assertEquals("bytes 90-99/100", byteRange.getContentRange());
+	}
+
+	@Test
+	public void aSuffixRangeReturnsTheLastBytesOfTheContent() throws Exception
+	{
+		assertEquals("bytes 80-99/100", ByteRange.parse("bytes=-20", 100).getContentRange());
+		assertEquals("bytes 0-99/100", ByteRange.parse("bytes=-200", 100).getContentRange());
+	}
+
+	@Test
+	public void anEndBeyondTheEndOfTheContentIsTruncated() throws Exception
+	{
+		assertEquals("bytes 50-99/100", ByteRange.parse("bytes=50-500", 100).getContentRange());
+	}
+
+	@Test
+	public void aRangeStartingBeyondTheEndOfTheContentIsUnsatisfiable() throws Exception
+	{
+		assertSame(ByteRange.UNSATISFIABLE_RANGE, ByteRange.parse("bytes=100-", 100));
+		assertSame(ByteRange.UNSATISFIABLE_RANGE, ByteRange.parse("bytes=-0", 100));
+		assertEquals("bytes */100", ByteRange.getUnsatisfiableContentRange(100));
+	}
+
+	@Test
+	public void multipleOrInvalidRangesCauseTheWholeContentToBeSent() throws Exception
+	{
+		assertNull(ByteRange.parse("bytes=0-9,20-29", 100));
+		assertNull(ByteRange.parse("bytes=20-10", 100));
+		assertNull(ByteRange.parse("bytes=-", 100));
+		assertNull(ByteRange.parse("lines=0-9", 100));
+	}
+
+	@Test
+	public void theRangeIsIgnoredIfTheIfRangeHeaderDoesntMatchTheEntityTag() throws Exception
+	{
+		HttpServletRequest request = mock(HttpServletRequest.class);
+		when(request.getHeader(ByteRange.RANGE)).thenReturn("bytes=0-9");
+		when(request.getHeader(ByteRange.IF_RANGE)).thenReturn("\"old-tag\"");
+
+		assertNull(ByteRange.getRequestedRange(request, 100, "\"new-tag\""));
+		assertEquals("bytes 0-9/100", ByteRange.getRequestedRange(request, 100, "\"old-tag\"").getContentRange());
+	}
+}
@@ -0,0 +1,70 @@
+package org.bladerunnerjs.appserver.util;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class CachingTokenFinderTest
+{
+
+	private TokenFinder mockTokenFinder;
+
+	@Before
+	public void setup() throws Exception
+	{
+		mockTokenFinder = mock(TokenFinder.class);
+		when(mockTokenFinder.findTokenValue("A.TOKEN")).thenReturn("token value");
+	}
+
+	@Test
+	public void tokenValuesAreOnlyLookedUpOnceIfTheyAreCachedForever() throws Exception
+	{
+		TokenFinder tokenFinder = new CachingTokenFinder(mockTokenFinder, CachingTokenFinder.CACHE_FOREVER);
+
+		assertEquals("token value", tokenFinder.findTokenValue("A.TOKEN"));
+		assertEquals("token value", tokenFinder.findTokenValue("A.TOKEN"));
+		verify(mockTokenFinder, times(1)).findTokenValue("A.TOKEN");
+	}
+
+	@Test
+	public void tokenValuesAreLookedUpEachTimeIfTheTimeToLiveIsZero() throws Exception
+	{
+		TokenFinder tokenFinder = new CachingTokenFinder(mockTokenFinder, 0);
+
+		assertEquals("token value", tokenFinder.findTokenValue("A.TOKEN"));
+		assertEquals("token value", tokenFinder.findTokenValue("A.TOKEN"));
+		verify(mockTokenFinder, times(2)).findTokenValue("A.TOKEN");
+	}
+
+	@Test
+	public void tokenValuesAreLookedUpAgainOnceTheyHaveExpired() throws Exception
+	{
+		TokenFinder tokenFinder = new CachingTokenFinder(mockTokenFinder, 1);
+
+		assertEquals("token value", tokenFinder.findTokenValue("A.TOKEN"));
+		Thread.sleep(10);
+		assertEquals("token value", tokenFinder.findTokenValue("A.TOKEN"));
+		verify(mockTokenFinder, times(2)).findTokenValue("A.TOKEN");
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void failedLookupsArentCached() throws Exception
+	{
+		when(mockTokenFinder.findTokenValue("INVALID.TOKEN")).thenThrow(TokenReplacementException.class);
+		TokenFinder tokenFinder = new CachingTokenFinder(mockTokenFinder, CachingTokenFinder.CACHE_FOREVER);
+
+		for (int i = 0; i < 2; i++) {
+			try {
+				tokenFinder.findTokenValue("INVALID.TOKEN");
+				fail("Expect an exception to be thrown");
+			} catch (TokenReplacementException ex) {
+				// expected
+			}
+		}
+		verify(mockTokenFinder, times(2)).findTokenValue("INVALID.TOKEN");
+	}
+
+}
@@ -224,6 +224,33 @@ public class TokenReplacingReaderTest
 		}
 	}
 	
+	@Test
+	public void tokensCanSpanTheBlocksTheSourceIsReadIn() throws Exception
+	{
+		for (int padLength : Arrays.asList(8183, 8187, 8191, 8192)) {
+    		Reader tokenisingReader = new TokenReplacingReader( APP_NAME, mockTokenFinder, new StringReader(
+    				StringUtils.leftPad("", padLength, "0")+"@A.TOKEN@"+StringUtils.leftPad("", padLength, "0"))
+    		);
+    		String replacedContent = IOUtils.toString( tokenisingReader );
+    		assertEquals( 
+    				StringUtils.leftPad("", padLength, "0")+"token replacement"+StringUtils.leftPad("", padLength, "0")
+    		, replacedContent);
+		}
+	}
+	
+	@Test
+	public void tokenReplacementsCanBeReadOneCharAtATime() throws Exception
+	{
+		Reader tokenisingReader = new TokenReplacingReader( APP_NAME, mockTokenFinder, new StringReader("a @A.TOKEN@ b @@ c @A_TOKEN@ d @A.TOKEN") );
+		StringBuilder replacedContent = new StringBuilder();
+		int nextChar;
+		while ((nextChar = tokenisingReader.read()) != -1) {
+			replacedContent.append((char) nextChar);
+		}
+		assertEquals("a token replacement b @@ c @A_TOKEN@ d @A.TOKEN", replacedContent.toString());
+		verify(mockTokenFinder, times(1)).findTokenValue("A.TOKEN");
+	}
+	
 	@Test
 	public void closeMethodClosesTheSourceReader() throws Exception
 	{
@@ -159,7 +159,7 @@ public class AliasDefinitionsReader {
 		data.getScenarioAliases(aliasName).put(scenarioName, scenarioAlias);
 	}
 	
-	private static boolean xmlnsWarningLogged(BRJS brjs, MemoizedFile file) {
+	private static synchronized boolean xmlnsWarningLogged(BRJS brjs, MemoizedFile file) {
 		@SuppressWarnings("unchecked")
 		Set<MemoizedFile> loggedWarnings = getNodeProperty(brjs, AliasDefinitionsReader.class.getSimpleName(), Set.class, 
 				() -> { return new LinkedHashSet<MemoizedFile>(); });
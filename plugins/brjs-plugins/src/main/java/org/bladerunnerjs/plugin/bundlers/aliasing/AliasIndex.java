@@ -0,0 +1,142 @@
+package org.bladerunnerjs.plugin.bundlers.aliasing;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.bladerunnerjs.api.memoization.MemoizedFile;
+import org.bladerunnerjs.api.model.exception.request.ContentFileProcessingException;
+
+/**
+ * An index of the alias definitions and group overrides available to an aliases file, with the scenario of the aliases file already
+ * applied, so that each alias can be resolved with a single lookup rather than by searching every alias definitions file in scope.
+ *
+ * <p>Ambiguous aliases are recorded rather than reported while the index is created, so that the same exception as before is thrown
+ * only when an ambiguous alias is actually used.</p>
+ */
+public class AliasIndex
+{
+	private final String scenarioName;
+	private final List<String> groupNames;
+	private final Map<String, AliasDefinition> aliasDefinitions = new HashMap<>();
+	private final Map<String, MemoizedFile> ambiguousAliasDefinitionFiles = new HashMap<>();
+	private final Set<String> ambiguousScopeAliasDefinitions = new HashSet<>();
+	private final Map<String, AliasOverride> groupAliasOverrides = new HashMap<>();
+	private final Map<String, MemoizedFile> ambiguousGroupAliasOverrideFiles = new HashMap<>();
+
+	public AliasIndex(MemoizedFile aliasesFile, List<AliasDefinitionsFile> scopeAliasDefinitionFiles, String scenarioName, List<String> groupNames) throws ContentFileProcessingException {
+		this.scenarioName = scenarioName;
+		this.groupNames = new ArrayList<>(groupNames);
+
+		for(AliasDefinitionsFile aliasDefinitionsFile : scopeAliasDefinitionFiles) {
+			indexAliasDefinitions(aliasDefinitionsFile);
+			indexGroupAliasOverrides(aliasesFile, aliasDefinitionsFile);
+		}
+	}
+
+	public boolean isIndexOf(String scenarioName, List<String> groupNames) {
+		return ((scenarioName == null) ? this.scenarioName == null : scenarioName.equals(this.scenarioName)) && groupNames.equals(this.groupNames);
+	}
+
+	public AliasDefinition getAliasDefinition(MemoizedFile aliasesFile, String aliasName) throws ContentFileProcessingException, AmbiguousAliasException {
+		MemoizedFile ambiguousAliasDefinitionFile = ambiguousAliasDefinitionFiles.get(aliasName);
+
+		if(ambiguousAliasDefinitionFile != null) {
+			throw new ContentFileProcessingException(ambiguousAliasDefinitionFile, new AmbiguousAliasException(ambiguousAliasDefinitionFile, aliasName, scenarioName));
+		}
+		else if(ambiguousScopeAliasDefinitions.contains(aliasName)) {
+			throw new AmbiguousAliasException(aliasesFile, aliasName, scenarioName);
+		}
+
+		return aliasDefinitions.get(aliasName);
+	}
+
+	public AliasOverride getGroupAliasOverride(String aliasName) throws AmbiguousAliasException {
+		MemoizedFile ambiguousGroupAliasOverrideFile = ambiguousGroupAliasOverrideFiles.get(aliasName);
+
+		if(ambiguousGroupAliasOverrideFile != null) {
+			throw new AmbiguousAliasException(ambiguousGroupAliasOverrideFile, aliasName, groupNames);
+		}
+
+		return groupAliasOverrides.get(aliasName);
+	}
+
+	private void indexAliasDefinitions(AliasDefinitionsFile aliasDefinitionsFile) throws ContentFileProcessingException {
+		Map<String, AliasDefinition> fileAliasDefinitions = new HashMap<>();
+		Set<String> ambiguousFileAliasDefinitions = new HashSet<>();
+
+		for(AliasDefinition aliasDefinition : aliasDefinitionsFile.aliases()) {
+			String aliasName = aliasDefinition.getName();
+
+			if(fileAliasDefinitions.containsKey(aliasName)) {
+				ambiguousFileAliasDefinitions.add(aliasName);
+				continue;
+			}
+
+			if(scenarioName != null) {
+				AliasOverride scenarioAlias = aliasDefinitionsFile.scenarioAliases(aliasDefinition).get(scenarioName);
+
+				if(scenarioAlias != null) {
+					aliasDefinition = new AliasDefinition(aliasName, scenarioAlias.getClassName(), aliasDefinition.getInterfaceName());
+				}
+			}
+
+			fileAliasDefinitions.put(aliasName, aliasDefinition);
+		}
+
+		for(String aliasName : fileAliasDefinitions.keySet()) {
+			if(isAmbiguousAliasDefinition(aliasName)) {
+				continue;
+			}
+
+			if(ambiguousFileAliasDefinitions.contains(aliasName)) {
+				ambiguousAliasDefinitionFiles.put(aliasName, aliasDefinitionsFile.getUnderlyingFile());
+			}
+			else if(aliasDefinitions.containsKey(aliasName)) {
+				ambiguousScopeAliasDefinitions.add(aliasName);
+			}
+			else {
+				aliasDefinitions.put(aliasName, fileAliasDefinitions.get(aliasName));
+			}
+		}
+	}
+
+	private boolean isAmbiguousAliasDefinition(String aliasName) {
+		return ambiguousAliasDefinitionFiles.containsKey(aliasName) || ambiguousScopeAliasDefinitions.contains(aliasName);
+	}
+
+	private void indexGroupAliasOverrides(MemoizedFile aliasesFile, AliasDefinitionsFile aliasDefinitionsFile) throws ContentFileProcessingException {
+		Map<String, AliasOverride> fileGroupAliasOverrides = new HashMap<>();
+		Set<String> ambiguousFileGroupAliasOverrides = new HashSet<>();
+
+		for(String groupName : groupNames) {
+			for(AliasOverride groupAlias : aliasDefinitionsFile.groupAliases(groupName)) {
+				if(fileGroupAliasOverrides.containsKey(groupAlias.getName())) {
+					ambiguousFileGroupAliasOverrides.add(groupAlias.getName());
+				}
+				else {
+					fileGroupAliasOverrides.put(groupAlias.getName(), groupAlias);
+				}
+			}
+		}
+
+		for(String aliasName : fileGroupAliasOverrides.keySet()) {
+			if(ambiguousGroupAliasOverrideFiles.containsKey(aliasName)) {
+				continue;
+			}
+
+			if(ambiguousFileGroupAliasOverrides.contains(aliasName)) {
+				ambiguousGroupAliasOverrideFiles.put(aliasName, aliasDefinitionsFile.getUnderlyingFile());
+			}
+			else if(groupAliasOverrides.containsKey(aliasName)) {
+				ambiguousGroupAliasOverrideFiles.put(aliasName, aliasesFile);
+			}
+			else {
+				groupAliasOverrides.put(aliasName, fileGroupAliasOverrides.get(aliasName));
+			}
+		}
+	}
+}
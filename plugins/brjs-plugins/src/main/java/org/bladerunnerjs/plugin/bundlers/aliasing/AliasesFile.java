@@ -3,6 +3,7 @@ package org.bladerunnerjs.plugin.bundlers.aliasing;
 import java.util.List;
 
 import org.bladerunnerjs.api.memoization.MemoizedFile;
+import org.bladerunnerjs.api.memoization.MemoizedValue;
 import org.bladerunnerjs.api.model.exception.request.ContentFileProcessingException;
 import org.bladerunnerjs.api.BundlableNode;
 
@@ -12,11 +13,13 @@ public class AliasesFile {
 	private final MemoizedFile file;
 	private final BundlableNode bundlableNode;
 	private final PersistentAliasesData persistentAliasesData;
+	private final MemoizedValue<AliasIndex> aliasIndex;
 	
 	public AliasesFile(BundlableNode bundlableNode) {
 		this.bundlableNode = bundlableNode;
 		this.file = bundlableNode.file("resources/aliases.xml");
 		persistentAliasesData = new PersistentAliasesData(bundlableNode.root(), file);
+		aliasIndex = new MemoizedValue<>("AliasesFile.aliasIndex", bundlableNode.root(), bundlableNode.root().dir(), bundlableNode.app().dir());
 	}
 	
 	public MemoizedFile getUnderlyingFile() {
@@ -78,24 +81,7 @@ public class AliasesFile {
 	}
 	
 	private AliasDefinition getAliasDefinition(String aliasName) throws ContentFileProcessingException, AliasException {
-		AliasDefinition aliasDefinition = null;
-		String scenarioName = scenarioName();
-		List<String> groupNames = groupNames();
-		
-		for(AliasDefinitionsFile aliasDefinitionsFile : AliasingUtility.scopeAliasDefinitionFiles(bundlableNode)) {
-			AliasDefinition nextAliasDefinition = aliasDefinitionsFile.getAliasDefinition(aliasName, scenarioName, groupNames);
-			
-			if (nextAliasDefinition != null)
-			{    			
-    			if (aliasDefinition != null && nextAliasDefinition != null) {
-    				throw new AmbiguousAliasException(getUnderlyingFile(), aliasName, scenarioName);
-    			}
-			
-				aliasDefinition = nextAliasDefinition;
-			}
-		}
-		
-		return aliasDefinition;
+		return aliasIndex().getAliasDefinition(getUnderlyingFile(), aliasName);
 	}
 	
 	public void write() throws ContentFileProcessingException {
@@ -116,21 +102,21 @@ public class AliasesFile {
 	}
 	
 	private AliasOverride getGroupAliasOverride(String aliasName) throws ContentFileProcessingException, AmbiguousAliasException {
-		AliasOverride aliasOverride = null;
+		return aliasIndex().getGroupAliasOverride(aliasName);
+	}
+	
+	private AliasIndex aliasIndex() throws ContentFileProcessingException {
+		String scenarioName = scenarioName();
 		List<String> groupNames = groupNames();
+		AliasIndex index = aliasIndex.value(() -> {
+			return new AliasIndex(getUnderlyingFile(), AliasingUtility.scopeAliasDefinitionFiles(bundlableNode), scenarioName, groupNames);
+		});
 		
-		for(AliasDefinitionsFile aliasDefinitionsFile : AliasingUtility.scopeAliasDefinitionFiles(bundlableNode)) {
-			AliasOverride nextAliasOverride = aliasDefinitionsFile.getGroupOverride(aliasName, groupNames);
-			if(aliasOverride != null && nextAliasOverride != null) {
-				throw new AmbiguousAliasException(getUnderlyingFile(), aliasName, groupNames);
-			}
-			
-			if (nextAliasOverride != null)
-			{
-				aliasOverride = nextAliasOverride;
-			}
+		// the scenario and groups can be changed in memory before the aliases file is written
+		if(!index.isIndexOf(scenarioName, groupNames)) {
+			index = new AliasIndex(getUnderlyingFile(), AliasingUtility.scopeAliasDefinitionFiles(bundlableNode), scenarioName, groupNames);
 		}
 		
-		return aliasOverride;
+		return index;
 	}
 }
@@ -115,7 +115,7 @@ public class AliasesReader {
 		aliasesData.aliasOverrides.add(new AliasOverride(aliasName, aliasClass));
 	}
 	
-	private static boolean xmlnsWarningLogged(BRJS brjs, MemoizedFile file) {
+	private static synchronized boolean xmlnsWarningLogged(BRJS brjs, MemoizedFile file) {
 		@SuppressWarnings("unchecked")
 		Set<MemoizedFile> loggedWarnings = getNodeProperty(brjs, AliasesReader.class.getSimpleName(), Set.class, 
 				() -> { return new LinkedHashSet<MemoizedFile>(); });
@@ -106,17 +106,19 @@ public class AliasingUtility
 	@SuppressWarnings("unchecked")
 	static <OT extends Object> OT getNodeProperty(Node node, String propertyKey, Class<? extends OT> valueType, Getter<Exception> valueGetter) {
 		NodeProperties nodeProperties = node.nodeProperties(AliasingUtility.class.getSimpleName());
-		Object nodeProperty = nodeProperties.getTransientProperty(propertyKey);
-		if (nodeProperty != null && nodeProperty.getClass().isAssignableFrom(valueType)) {
-			return (OT) nodeProperty;
-		} else {
-			try {
-				nodeProperty = valueGetter.get();
-			} catch (Exception ex) {
-				throw new RuntimeException(ex);
+		synchronized (nodeProperties) {
+			Object nodeProperty = nodeProperties.getTransientProperty(propertyKey);
+			if (nodeProperty != null && nodeProperty.getClass().isAssignableFrom(valueType)) {
+				return (OT) nodeProperty;
+			} else {
+				try {
+					nodeProperty = valueGetter.get();
+				} catch (Exception ex) {
+					throw new RuntimeException(ex);
+				}
+				nodeProperties.setTransientProperty(propertyKey, nodeProperty);
+				return (OT) nodeProperty;
 			}
-			nodeProperties.setTransientProperty(propertyKey, nodeProperty);
-			return (OT) nodeProperty;
 		}
 	}
 	
@@ -4,10 +4,13 @@ import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.bladerunnerjs.api.Asset;
 import org.bladerunnerjs.api.memoization.Getter;
@@ -22,11 +25,18 @@ import org.bladerunnerjs.api.utility.RequirePathUtility;
 import org.bladerunnerjs.model.AssetContainer;
 import org.bladerunnerjs.api.BundlableNode;
 import org.bladerunnerjs.model.SourceModulePatch;
+import org.bladerunnerjs.utility.DependencyExtractionIndex;
 import org.bladerunnerjs.utility.UnicodeReader;
 
 import com.Ostermiller.util.ConcatReader;
 
 public class DefaultCommonJsSourceModule implements CommonJsSourceModule {
+	private static final String DEPENDENCY_EXTRACTOR_NAME = "DefaultCommonJsSourceModule";
+	private static final String PRE_EXPORT_DEFINE_TIME_SECTION = "preExportDefineTime";
+	private static final String POST_EXPORT_DEFINE_TIME_SECTION = "postExportDefineTime";
+	private static final String USE_TIME_SECTION = "useTime";
+	private static final String ALIASES_SECTION = "aliases";
+	
 	private MemoizedFile assetFile;
 	
 	private SourceModulePatch patch;
@@ -154,8 +164,23 @@ public class DefaultCommonJsSourceModule implements CommonJsSourceModule {
 			@Override
 			public Object get() throws ModelOperationException {
 				ComputedValue computedValue = new ComputedValue();
+				DependencyExtractionIndex dependencyExtractionIndex = assetContainer.root().dependencyExtractionIndex();
 				
 				try {
+					String indexKey;
+					try(Reader reader = getUnalteredContentReader()) {
+						indexKey = dependencyExtractionIndex.contentKey(DEPENDENCY_EXTRACTOR_NAME, IOUtils.toString(reader));
+					}
+					
+					Map<String, List<String>> indexEntry = dependencyExtractionIndex.getEntry(indexKey, PRE_EXPORT_DEFINE_TIME_SECTION, POST_EXPORT_DEFINE_TIME_SECTION, USE_TIME_SECTION, ALIASES_SECTION);
+					if (indexEntry != null) {
+						computedValue.preExportDefineTimeRequirePaths.addAll( indexEntry.get(PRE_EXPORT_DEFINE_TIME_SECTION) );
+						computedValue.postExportDefineTimeRequirePaths.addAll( indexEntry.get(POST_EXPORT_DEFINE_TIME_SECTION) );
+						computedValue.useTimeRequirePaths.addAll( indexEntry.get(USE_TIME_SECTION) );
+						computedValue.aliases.addAll( indexEntry.get(ALIASES_SECTION) );
+						return computedValue;
+					}
+					
 					try(Reader reader = new CommonJsPreExportDefineTimeDependenciesReader(sourceModule)) 
 					{
 						RequirePathUtility.addRequirePathsFromReader(reader, computedValue.preExportDefineTimeRequirePaths, computedValue.aliases);
@@ -170,6 +195,13 @@ public class DefaultCommonJsSourceModule implements CommonJsSourceModule {
 					{
 						RequirePathUtility.addRequirePathsFromReader(reader, computedValue.useTimeRequirePaths, computedValue.aliases);
 					}
+					
+					indexEntry = new LinkedHashMap<>();
+					indexEntry.put(PRE_EXPORT_DEFINE_TIME_SECTION, new ArrayList<>(computedValue.preExportDefineTimeRequirePaths));
+					indexEntry.put(POST_EXPORT_DEFINE_TIME_SECTION, new ArrayList<>(computedValue.postExportDefineTimeRequirePaths));
+					indexEntry.put(USE_TIME_SECTION, new ArrayList<>(computedValue.useTimeRequirePaths));
+					indexEntry.put(ALIASES_SECTION, computedValue.aliases);
+					dependencyExtractionIndex.putEntry(indexKey, indexEntry);
 				}
 				catch(IOException e) {
 					throw new ModelOperationException(e);
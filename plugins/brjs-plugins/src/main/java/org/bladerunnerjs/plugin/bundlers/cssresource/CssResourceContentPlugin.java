@@ -1,6 +1,5 @@
 package org.bladerunnerjs.plugin.bundlers.cssresource;
 
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.ArrayList;
@@ -24,7 +23,7 @@ import org.bladerunnerjs.api.model.exception.ConfigException;
 import org.bladerunnerjs.api.model.exception.request.ContentProcessingException;
 import org.bladerunnerjs.api.model.exception.request.MalformedRequestException;
 import org.bladerunnerjs.api.model.exception.request.MalformedTokenException;
-import org.bladerunnerjs.api.plugin.BinaryResponseContent;
+import org.bladerunnerjs.api.plugin.FileResponseContent;
 import org.bladerunnerjs.api.plugin.Locale;
 import org.bladerunnerjs.api.plugin.ResponseContent;
 import org.bladerunnerjs.api.plugin.RoutableContentPlugin;
@@ -250,7 +249,11 @@ public class CssResourceContentPlugin extends AbstractContentPlugin implements R
 				String relativePath = brjs.dir().getRelativePath(resourceFile);
 				throw new FileNotFoundException("The file at '"+relativePath+"' is ignored by the BRJS configuration so cannot be served");
 			}
-			return new BinaryResponseContent( new FileInputStream(resourceFile) );	
+			if (!resourceFile.isFile()) {
+				String relativePath = brjs.dir().getRelativePath(resourceFile);
+				throw new FileNotFoundException("The file at '"+relativePath+"' does not exist or is not a file");
+			}
+			return new FileResponseContent(resourceFile);
 		}
 		catch (FileNotFoundException | ConfigException ex)
 		{
@@ -18,6 +18,7 @@ import org.bladerunnerjs.api.model.exception.request.ContentProcessingException;
 import org.bladerunnerjs.api.model.exception.request.MalformedRequestException;
 import org.bladerunnerjs.api.model.exception.request.MalformedTokenException;
 import org.bladerunnerjs.api.plugin.BinaryResponseContent;
+import org.bladerunnerjs.api.plugin.FileResponseContent;
 import org.bladerunnerjs.api.plugin.Locale;
 import org.bladerunnerjs.api.plugin.ResponseContent;
 import org.bladerunnerjs.api.plugin.RoutableContentPlugin;
@@ -146,7 +147,11 @@ public class UnbundledResourcesContentPlugin extends AbstractContentPlugin imple
 		{
 			String requestedFilePathRelativeToRoot = app.dir().getParentFile().getRelativePath(requestedFile);
 			throw new ContentProcessingException("The requested unbundled resource at '"+requestedFilePathRelativeToRoot+"' does not exist or is not a file.");
-		}	
+		}
+		if (contentAccessor.writesFileContentsUnchanged(requestedFilePathRelativeToApp))
+		{
+			return new FileResponseContent(requestedFile);
+		}
 		ByteArrayOutputStream outputBuffer = new ByteArrayOutputStream();
 		contentAccessor.handleRequest(requestedFilePathRelativeToApp, outputBuffer);
 		return new BinaryResponseContent( new ByteArrayInputStream(outputBuffer.toByteArray()) );
@@ -39,8 +39,9 @@ public class XMLAsset extends LinkedFileAsset {
 				}
 				return extractedRequirePaths;
 			});
-			calculatedRequirePaths.add(getPrimaryRequirePath());
-			return calculatedRequirePaths;
+			List<String> assetRequirePaths = new ArrayList<>(calculatedRequirePaths);
+			assetRequirePaths.add(getPrimaryRequirePath());
+			return assetRequirePaths;
 		}
 		catch(IOException e) {
 			throw new RuntimeException(e);
@@ -31,6 +31,7 @@ public class DepInsightCommand extends JSAPArgsParsingCommandPlugin
 		argsParser.registerParameter(new Switch("prefix").setShortFlag('p').setLongFlag("prefix").setDefault("false").setHelp("display dependencies for all source modules starting with the given require path"));
 		argsParser.registerParameter(new Switch("alias").setShortFlag('a').setLongFlag("alias").setDefault("false").setHelp("display dependencies for an alias rather than a require path"));
 		argsParser.registerParameter(new Switch("all").setShortFlag('A').setLongFlag("all").setDefault("false").setHelp("show all ocurrences of a dependency"));
+		argsParser.registerParameter(new Switch("why").setShortFlag('w').setLongFlag("why").setDefault("false").setHelp("show the shortest chain of dependencies that causes the source module to be bundled, and the cost of including it"));
 	}
 	
 	@Override
@@ -60,11 +61,13 @@ public class DepInsightCommand extends JSAPArgsParsingCommandPlugin
 		boolean isRequirePrefix = parsedArgs.getBoolean("prefix");
 		boolean isAlias = parsedArgs.getBoolean("alias");
 		boolean showAllDependencies = parsedArgs.getBoolean("all");
+		boolean showInclusionReason = parsedArgs.getBoolean("why");
 		
 		App app = brjs.app(appName);
 		Aspect aspect = app.aspect(aspectName);
 		
 		if(isRequirePrefix && isAlias) throw new CommandArgumentsException("The --prefix and --alias switches can't both be used at the same time", this);
+		if(isRequirePrefix && showInclusionReason) throw new CommandArgumentsException("The --prefix and --why switches can't both be used at the same time", this);
 		if(!app.dirExists()) throw new NodeDoesNotExistException(app, this);
 		if(!aspect.dirExists()) throw new NodeDoesNotExistException(aspect, this);
 		
@@ -76,7 +79,13 @@ public class DepInsightCommand extends JSAPArgsParsingCommandPlugin
 				if (isAlias && !requirePathOrAlias.contains("!")) {
 					requirePathOrAlias = "alias!"+requirePathOrAlias;
 				}
-				logger.println(DependencyGraphReportBuilder.createReport(aspect, requirePathOrAlias, showAllDependencies));
+				
+				if(showInclusionReason) {
+					logger.println(DependencyGraphReportBuilder.createInclusionReport(aspect, requirePathOrAlias));
+				}
+				else {
+					logger.println(DependencyGraphReportBuilder.createReport(aspect, requirePathOrAlias, showAllDependencies));
+				}
 			}
 		}
 		catch (ModelOperationException e) {
@@ -2,7 +2,6 @@ package org.bladerunnerjs.plugin.require;
 
 import org.bladerunnerjs.api.Asset;
 import org.bladerunnerjs.api.BRJS;
-import org.bladerunnerjs.api.model.exception.AmbiguousRequirePathException;
 import org.bladerunnerjs.api.model.exception.OutOfBundleScopeRequirePathException;
 import org.bladerunnerjs.api.model.exception.RequirePathException;
 import org.bladerunnerjs.api.model.exception.UnresolvableRequirePathException;
@@ -24,22 +23,7 @@ public class DefaultRequirePlugin extends AbstractRequirePlugin implements Requi
 
 	@Override
 	public Asset getAsset(BundlableNode bundlableNode, String requirePathSuffix) throws RequirePathException {
-		Asset asset = null;
-		
-		for(AssetContainer assetContainer : bundlableNode.scopeAssetContainers()) {
-			Asset locationAsset = assetContainer.asset(requirePathSuffix);
-			
-			if(locationAsset != null) {
-				if(asset == null) {
-					asset = locationAsset;
-				}
-				else {
-					throw new AmbiguousRequirePathException("'" + asset.getAssetPath() + "' and '" +
-						locationAsset.getAssetPath() + "' source files both available via require path '" +
-						requirePathSuffix + "'.");
-				}
-			}
-		}
+		Asset asset = bundlableNode.scopeAsset(requirePathSuffix);
 		
 		if(asset == null) {
 			for (AssetContainer assetContainer : bundlableNode.app().getAllAssetContainers()) {
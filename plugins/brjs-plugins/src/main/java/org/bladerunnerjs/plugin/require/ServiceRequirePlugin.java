@@ -28,7 +28,7 @@ public class ServiceRequirePlugin extends AbstractRequirePlugin implements Requi
 		return getSourceModule(bundlableNode, requirePathSuffix);
 	}
 	
-	private ServiceCommonJsSourceModule getSourceModule(BundlableNode bundlableNode, String requirePath) {
+	private synchronized ServiceCommonJsSourceModule getSourceModule(BundlableNode bundlableNode, String requirePath) {
 		if(!sourceModules.containsKey(requirePath)) {
 			sourceModules.put(requirePath, new ServiceCommonJsSourceModule(bundlableNode, requirePath));
 		}
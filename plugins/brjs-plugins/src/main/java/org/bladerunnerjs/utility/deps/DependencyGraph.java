@@ -0,0 +1,551 @@
+package org.bladerunnerjs.utility.deps;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.bladerunnerjs.api.LinkedAsset;
+import org.bladerunnerjs.api.memoization.MemoizedFile;
+import org.bladerunnerjs.model.DirectoryLinkedAsset;
+
+/**
+ * A compact representation of a dependency graph, where each asset is identified by an integer and the dependencies of every asset are
+ * held within a single array, so that the graph can be traversed, queried and saved to disk without holding on to the model.
+ *
+ * <p>As well as the dependencies themselves the graph can answer which assets depend on a given asset, the shortest chain of
+ * dependencies that causes an asset to be bundled, and how many bytes would no longer be bundled if the asset were no longer required.
+ * The latter is calculated for every asset at once using the dominator tree of the graph.</p>
+ */
+public class DependencyGraph
+{
+	/* increment this whenever the format below changes so that previously saved graphs are ignored */
+	private static final int FORMAT_VERSION = 1;
+
+	private static final int SEED_FILE = 1;
+	private static final int DIRECTORY_ASSET = 2;
+	private static final int ALIAS_DEP = 4;
+	private static final int SERVICE_DEP = 8;
+
+	private final String fingerprint;
+	private final String[] assetPaths;
+	private final String[] requirePaths;
+	private final int[] assetFlags;
+	private final long[] assetSizes;
+	private final int[] dependencyOffsets;
+	private final int[] dependencies;
+	private final BitSet staticDependencies;
+	private final int[] bundleAssets;
+	private final int[] seedAssets;
+	private Map<LinkedAsset, Integer> linkedAssetIds;
+	private Map<String, Integer> requirePathIds;
+	private int[] dependentOffsets;
+	private int[] dependents;
+	private long[] includeCosts;
+	private int[] includeCounts;
+
+	public static DependencyGraph create(DependencyInfo dependencyInfo, List<? extends LinkedAsset> bundleAssets, List<? extends LinkedAsset> seedAssets, String fingerprint) {
+		Map<LinkedAsset, Integer> assetIds = new LinkedHashMap<>();
+		addAssets(assetIds, bundleAssets);
+		addAssets(assetIds, seedAssets);
+		addAssets(assetIds, dependencyInfo.seedAssets);
+		for(LinkedAsset linkedAsset : dependencyInfo.map.keySet()) {
+			addAsset(assetIds, linkedAsset);
+			addAssets(assetIds, dependencyInfo.map.get(linkedAsset));
+		}
+
+		int assetCount = assetIds.size();
+		String[] assetPaths = new String[assetCount];
+		String[] requirePaths = new String[assetCount];
+		int[] assetFlags = new int[assetCount];
+		long[] assetSizes = new long[assetCount];
+		int[] dependencyOffsets = new int[assetCount + 1];
+		List<Integer> dependencies = new ArrayList<>();
+		BitSet staticDependencies = new BitSet();
+
+		for(LinkedAsset linkedAsset : assetIds.keySet()) {
+			int assetId = assetIds.get(linkedAsset);
+			MemoizedFile assetFile = linkedAsset.file();
+
+			assetPaths[assetId] = linkedAsset.getAssetPath();
+			requirePaths[assetId] = linkedAsset.getPrimaryRequirePath();
+			assetFlags[assetId] = assetFlags(linkedAsset, dependencyInfo);
+			assetSizes[assetId] = (assetFile != null && assetFile.isFile()) ? assetFile.length() : 0;
+
+			dependencyOffsets[assetId] = dependencies.size();
+			Set<LinkedAsset> assetDependencies = dependencyInfo.map.get(linkedAsset);
+			Set<LinkedAsset> assetStaticDependencies = dependencyInfo.staticDeps.get(linkedAsset);
+			if(assetDependencies != null) {
+				for(LinkedAsset dependentAsset : assetDependencies) {
+					if((assetStaticDependencies != null) && assetStaticDependencies.contains(dependentAsset)) {
+						staticDependencies.set(dependencies.size());
+					}
+					dependencies.add(assetIds.get(dependentAsset));
+				}
+			}
+		}
+		dependencyOffsets[assetCount] = dependencies.size();
+
+		DependencyGraph dependencyGraph = new DependencyGraph(fingerprint, assetPaths, requirePaths, assetFlags, assetSizes, dependencyOffsets,
+			toIntArray(dependencies), staticDependencies, assetIds(assetIds, bundleAssets), assetIds(assetIds, seedAssets));
+		dependencyGraph.linkedAssetIds = assetIds;
+
+		return dependencyGraph;
+	}
+
+	public static DependencyGraph read(File graphFile) throws IOException {
+		try(DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(graphFile)))) {
+			if(input.readInt() != FORMAT_VERSION) {
+				return null;
+			}
+
+			String fingerprint = input.readUTF();
+			int assetCount = input.readInt();
+			String[] assetPaths = new String[assetCount];
+			String[] requirePaths = new String[assetCount];
+			int[] assetFlags = new int[assetCount];
+			long[] assetSizes = new long[assetCount];
+			for(int i = 0; i < assetCount; ++i) {
+				assetPaths[i] = input.readUTF();
+				requirePaths[i] = input.readUTF();
+				assetFlags[i] = input.readInt();
+				assetSizes[i] = input.readLong();
+			}
+
+			int[] dependencyOffsets = readIntArray(input);
+			int[] dependencies = readIntArray(input);
+			BitSet staticDependencies = new BitSet();
+			for(int staticDependency : readIntArray(input)) {
+				staticDependencies.set(staticDependency);
+			}
+			int[] bundleAssets = readIntArray(input);
+			int[] seedAssets = readIntArray(input);
+
+			return new DependencyGraph(fingerprint, assetPaths, requirePaths, assetFlags, assetSizes, dependencyOffsets, dependencies,
+				staticDependencies, bundleAssets, seedAssets);
+		}
+	}
+
+	private DependencyGraph(String fingerprint, String[] assetPaths, String[] requirePaths, int[] assetFlags, long[] assetSizes,
+		int[] dependencyOffsets, int[] dependencies, BitSet staticDependencies, int[] bundleAssets, int[] seedAssets) {
+		this.fingerprint = fingerprint;
+		this.assetPaths = assetPaths;
+		this.requirePaths = requirePaths;
+		this.assetFlags = assetFlags;
+		this.assetSizes = assetSizes;
+		this.dependencyOffsets = dependencyOffsets;
+		this.dependencies = dependencies;
+		this.staticDependencies = staticDependencies;
+		this.bundleAssets = bundleAssets;
+		this.seedAssets = seedAssets;
+	}
+
+	public void write(File graphFile) throws IOException {
+		graphFile.getParentFile().mkdirs();
+		File tempFile = File.createTempFile(graphFile.getName(), ".tmp", graphFile.getParentFile());
+
+		try {
+			try(DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+				output.writeInt(FORMAT_VERSION);
+				output.writeUTF(fingerprint);
+				output.writeInt(assetPaths.length);
+				for(int i = 0; i < assetPaths.length; ++i) {
+					output.writeUTF(assetPaths[i]);
+					output.writeUTF(requirePaths[i]);
+					output.writeInt(assetFlags[i]);
+					output.writeLong(assetSizes[i]);
+				}
+
+				writeIntArray(output, dependencyOffsets);
+				writeIntArray(output, dependencies);
+				List<Integer> staticDependencyIndexes = new ArrayList<>();
+				for(int i = staticDependencies.nextSetBit(0); i >= 0; i = staticDependencies.nextSetBit(i + 1)) {
+					staticDependencyIndexes.add(i);
+				}
+				writeIntArray(output, toIntArray(staticDependencyIndexes));
+				writeIntArray(output, bundleAssets);
+				writeIntArray(output, seedAssets);
+			}
+			Files.move(tempFile.toPath(), graphFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		finally {
+			tempFile.delete();
+		}
+	}
+
+	public String getFingerprint() {
+		return fingerprint;
+	}
+
+	public int assetCount() {
+		return assetPaths.length;
+	}
+
+	public int[] bundleAssets() {
+		return bundleAssets.clone();
+	}
+
+	public int[] seedAssets() {
+		return seedAssets.clone();
+	}
+
+	public synchronized int assetId(String requirePath) {
+		if(requirePathIds == null) {
+			requirePathIds = new HashMap<>();
+			for(int i = 0; i < requirePaths.length; ++i) {
+				if(!requirePathIds.containsKey(requirePaths[i])) {
+					requirePathIds.put(requirePaths[i], i);
+				}
+			}
+		}
+
+		Integer assetId = requirePathIds.get(requirePath);
+		return (assetId == null) ? -1 : assetId;
+	}
+
+	/**
+	 * Returns the identifier of the given asset, or -1 if the asset isn't part of the graph or the graph was read from disk.
+	 */
+	public int assetId(LinkedAsset linkedAsset) {
+		Integer assetId = (linkedAssetIds == null) ? null : linkedAssetIds.get(linkedAsset);
+		return (assetId == null) ? -1 : assetId;
+	}
+
+	public String getAssetPath(int assetId) {
+		return assetPaths[assetId];
+	}
+
+	public String getRequirePath(int assetId) {
+		return requirePaths[assetId];
+	}
+
+	public long getAssetSize(int assetId) {
+		return assetSizes[assetId];
+	}
+
+	public boolean isSeedFile(int assetId) {
+		return (assetFlags[assetId] & SEED_FILE) != 0;
+	}
+
+	public boolean isDirectoryAsset(int assetId) {
+		return (assetFlags[assetId] & DIRECTORY_ASSET) != 0;
+	}
+
+	public boolean isAliasDependency(int assetId) {
+		return (assetFlags[assetId] & ALIAS_DEP) != 0;
+	}
+
+	public boolean isServiceDependency(int assetId) {
+		return (assetFlags[assetId] & SERVICE_DEP) != 0;
+	}
+
+	public int dependencyCount(int assetId) {
+		return dependencyOffsets[assetId + 1] - dependencyOffsets[assetId];
+	}
+
+	public int getDependency(int assetId, int dependencyIndex) {
+		return dependencies[dependencyOffsets[assetId] + dependencyIndex];
+	}
+
+	public boolean isStaticDependency(int assetId, int dependencyIndex) {
+		return staticDependencies.get(dependencyOffsets[assetId] + dependencyIndex);
+	}
+
+	/**
+	 * Returns the assets that directly or indirectly depend on the given asset, nearest first.
+	 */
+	public int[] dependentAssets(int assetId) {
+		calculateDependents();
+
+		BitSet visitedAssets = new BitSet(assetCount());
+		int[] queue = new int[assetCount()];
+		int queueStart = 0, queueEnd = 0;
+
+		visitedAssets.set(assetId);
+		queue[queueEnd++] = assetId;
+		while(queueStart < queueEnd) {
+			int currentAsset = queue[queueStart++];
+			for(int i = dependentOffsets[currentAsset]; i < dependentOffsets[currentAsset + 1]; ++i) {
+				int dependentAsset = dependents[i];
+				if(!visitedAssets.get(dependentAsset)) {
+					visitedAssets.set(dependentAsset);
+					queue[queueEnd++] = dependentAsset;
+				}
+			}
+		}
+
+		return Arrays.copyOfRange(queue, 1, queueEnd);
+	}
+
+	/**
+	 * Returns the shortest chain of dependencies from one of the seed assets to the given asset, or an empty array if the asset can't be
+	 * reached from any of the seed assets.
+	 */
+	public int[] inclusionPath(int assetId) {
+		int[] referringAssets = new int[assetCount()];
+		Arrays.fill(referringAssets, -2);
+		int[] queue = new int[assetCount()];
+		int queueStart = 0, queueEnd = 0;
+
+		for(int seedAsset : seedAssets) {
+			if(referringAssets[seedAsset] == -2) {
+				referringAssets[seedAsset] = -1;
+				queue[queueEnd++] = seedAsset;
+			}
+		}
+
+		while((queueStart < queueEnd) && (referringAssets[assetId] == -2)) {
+			int currentAsset = queue[queueStart++];
+			for(int i = dependencyOffsets[currentAsset]; i < dependencyOffsets[currentAsset + 1]; ++i) {
+				int dependentAsset = dependencies[i];
+				if(referringAssets[dependentAsset] == -2) {
+					referringAssets[dependentAsset] = currentAsset;
+					queue[queueEnd++] = dependentAsset;
+				}
+			}
+		}
+
+		if(referringAssets[assetId] == -2) {
+			return new int[0];
+		}
+
+		List<Integer> inclusionPath = new ArrayList<>();
+		for(int currentAsset = assetId; currentAsset != -1; currentAsset = referringAssets[currentAsset]) {
+			inclusionPath.add(0, currentAsset);
+		}
+		return toIntArray(inclusionPath);
+	}
+
+	/**
+	 * Returns the number of bytes that are only bundled because of the given asset, including the asset itself, or -1 if the asset isn't
+	 * bundled (i.e. it can't be reached from the seed assets).
+	 */
+	public long includeCost(int assetId) {
+		calculateIncludeCosts();
+		return includeCosts[assetId];
+	}
+
+	/**
+	 * Returns the number of assets that are only bundled because of the given asset, including the asset itself, or -1 if the asset isn't
+	 * bundled (i.e. it can't be reached from the seed assets).
+	 */
+	public int includeCount(int assetId) {
+		calculateIncludeCosts();
+		return includeCounts[assetId];
+	}
+
+	private synchronized void calculateDependents() {
+		if(dependents != null) {
+			return;
+		}
+
+		int[] offsets = new int[assetCount() + 1];
+		for(int dependency : dependencies) {
+			offsets[dependency + 1]++;
+		}
+		for(int i = 0; i < assetCount(); ++i) {
+			offsets[i + 1] += offsets[i];
+		}
+
+		int[] nextDependent = Arrays.copyOf(offsets, assetCount());
+		int[] reverseDependencies = new int[dependencies.length];
+		for(int assetId = 0; assetId < assetCount(); ++assetId) {
+			for(int i = dependencyOffsets[assetId]; i < dependencyOffsets[assetId + 1]; ++i) {
+				reverseDependencies[nextDependent[dependencies[i]]++] = assetId;
+			}
+		}
+
+		dependentOffsets = offsets;
+		dependents = reverseDependencies;
+	}
+
+	/* uses the iterative dominator algorithm of Cooper, Harvey & Kennedy, with a virtual root that depends on each of the seed assets */
+	private synchronized void calculateIncludeCosts() {
+		if(includeCosts != null) {
+			return;
+		}
+		calculateDependents();
+
+		int root = assetCount();
+		int[] reversePostOrder = reversePostOrder(root);
+		int[] postOrderNumbers = new int[assetCount() + 1];
+		Arrays.fill(postOrderNumbers, -1);
+		for(int i = 0; i < reversePostOrder.length; ++i) {
+			postOrderNumbers[reversePostOrder[i]] = reversePostOrder.length - 1 - i;
+		}
+
+		BitSet seeds = new BitSet(assetCount());
+		for(int seedAsset : seedAssets) {
+			seeds.set(seedAsset);
+		}
+
+		int[] dominators = new int[assetCount() + 1];
+		Arrays.fill(dominators, -1);
+		dominators[root] = root;
+
+		boolean changed = true;
+		while(changed) {
+			changed = false;
+			for(int i = 1; i < reversePostOrder.length; ++i) {
+				int assetId = reversePostOrder[i];
+				int newDominator = seeds.get(assetId) ? root : -1;
+
+				for(int j = dependentOffsets[assetId]; j < dependentOffsets[assetId + 1]; ++j) {
+					int dependentAsset = dependents[j];
+					if(dominators[dependentAsset] != -1) {
+						newDominator = (newDominator == -1) ? dependentAsset : intersect(dependentAsset, newDominator, dominators, postOrderNumbers);
+					}
+				}
+
+				if(dominators[assetId] != newDominator) {
+					dominators[assetId] = newDominator;
+					changed = true;
+				}
+			}
+		}
+
+		long[] costs = new long[assetCount() + 1];
+		int[] counts = new int[assetCount() + 1];
+		for(int i = reversePostOrder.length - 1; i > 0; --i) {
+			int assetId = reversePostOrder[i];
+			costs[assetId] += assetSizes[assetId];
+			counts[assetId]++;
+			costs[dominators[assetId]] += costs[assetId];
+			counts[dominators[assetId]] += counts[assetId];
+		}
+		for(int assetId = 0; assetId < assetCount(); ++assetId) {
+			if(postOrderNumbers[assetId] == -1) {
+				costs[assetId] = -1;
+				counts[assetId] = -1;
+			}
+		}
+
+		includeCosts = costs;
+		includeCounts = counts;
+	}
+
+	private int[] reversePostOrder(int root) {
+		int[] postOrder = new int[assetCount() + 1];
+		int postOrderSize = 0;
+		BitSet visitedAssets = new BitSet(assetCount() + 1);
+		int[] stack = new int[assetCount() + 1];
+		int[] stackPositions = new int[assetCount() + 1];
+		int stackSize = 0;
+
+		visitedAssets.set(root);
+		stack[stackSize++] = root;
+		while(stackSize > 0) {
+			int assetId = stack[stackSize - 1];
+			int position = stackPositions[stackSize - 1]++;
+			int dependencyCount = (assetId == root) ? seedAssets.length : dependencyCount(assetId);
+
+			if(position < dependencyCount) {
+				int dependentAsset = (assetId == root) ? seedAssets[position] : getDependency(assetId, position);
+				if(!visitedAssets.get(dependentAsset)) {
+					visitedAssets.set(dependentAsset);
+					stackPositions[stackSize] = 0;
+					stack[stackSize++] = dependentAsset;
+				}
+			}
+			else {
+				postOrder[postOrderSize++] = assetId;
+				stackSize--;
+			}
+		}
+
+		int[] reversePostOrder = new int[postOrderSize];
+		for(int i = 0; i < postOrderSize; ++i) {
+			reversePostOrder[i] = postOrder[postOrderSize - 1 - i];
+		}
+		return reversePostOrder;
+	}
+
+	private static int intersect(int asset1, int asset2, int[] dominators, int[] postOrderNumbers) {
+		while(asset1 != asset2) {
+			while(postOrderNumbers[asset1] < postOrderNumbers[asset2]) {
+				asset1 = dominators[asset1];
+			}
+			while(postOrderNumbers[asset2] < postOrderNumbers[asset1]) {
+				asset2 = dominators[asset2];
+			}
+		}
+		return asset1;
+	}
+
+	private static int assetFlags(LinkedAsset linkedAsset, DependencyInfo dependencyInfo) {
+		int flags = 0;
+		String requirePath = linkedAsset.getPrimaryRequirePath();
+
+		if(dependencyInfo.seedAssets.contains(linkedAsset)) {
+			flags |= SEED_FILE;
+		}
+		if(linkedAsset instanceof DirectoryLinkedAsset) {
+			flags |= DIRECTORY_ASSET;
+		}
+		if(requirePath.startsWith("alias!")) {
+			flags |= ALIAS_DEP;
+		}
+		if(requirePath.startsWith("service!")) {
+			flags |= SERVICE_DEP;
+		}
+
+		return flags;
+	}
+
+	private static void addAssets(Map<LinkedAsset, Integer> assetIds, Iterable<? extends LinkedAsset> linkedAssets) {
+		for(LinkedAsset linkedAsset : linkedAssets) {
+			addAsset(assetIds, linkedAsset);
+		}
+	}
+
+	private static void addAsset(Map<LinkedAsset, Integer> assetIds, LinkedAsset linkedAsset) {
+		if(!assetIds.containsKey(linkedAsset)) {
+			assetIds.put(linkedAsset, assetIds.size());
+		}
+	}
+
+	private static int[] assetIds(Map<LinkedAsset, Integer> assetIds, List<? extends LinkedAsset> linkedAssets) {
+		int[] ids = new int[linkedAssets.size()];
+		for(int i = 0; i < ids.length; ++i) {
+			ids[i] = assetIds.get(linkedAssets.get(i));
+		}
+		return ids;
+	}
+
+	static int[] toIntArray(List<Integer> values) {
+		int[] array = new int[values.size()];
+		for(int i = 0; i < array.length; ++i) {
+			array[i] = values.get(i);
+		}
+		return array;
+	}
+
+	private static int[] readIntArray(DataInputStream input) throws IOException {
+		int[] array = new int[input.readInt()];
+		for(int i = 0; i < array.length; ++i) {
+			array[i] = input.readInt();
+		}
+		return array;
+	}
+
+	private static void writeIntArray(DataOutputStream output, int[] array) throws IOException {
+		output.writeInt(array.length);
+		for(int value : array) {
+			output.writeInt(value);
+		}
+	}
+}
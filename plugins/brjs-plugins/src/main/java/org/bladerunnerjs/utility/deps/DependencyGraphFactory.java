@@ -0,0 +1,135 @@
+package org.bladerunnerjs.utility.deps;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.bladerunnerjs.api.BRJS;
+import org.bladerunnerjs.api.BundlableNode;
+import org.bladerunnerjs.api.BundleSet;
+import org.bladerunnerjs.api.LinkedAsset;
+import org.bladerunnerjs.api.SourceModule;
+import org.bladerunnerjs.api.model.exception.ModelOperationException;
+import org.bladerunnerjs.api.plugin.Plugin;
+import org.bladerunnerjs.utility.ContentHasher;
+
+/**
+ * Creates {@link DependencyGraph} instances for bundlable nodes.
+ *
+ * <p>Forward dependency graphs are saved beneath the BRJS storage directory, together with a fingerprint of the name, size and
+ * modification time of every file the graph could have been built from, so that subsequent commands can re-use the graph rather than
+ * re-calculating the bundle set. Saving the graph is purely an optimisation; any failure to read or write the graph is treated as a
+ * cache miss.</p>
+ */
+public class DependencyGraphFactory {
+	public static final String GRAPH_DIR_NAME = "dependency-graph";
+
+	public static DependencyGraph buildForwardDependencyGraph(BundlableNode bundlableNode) throws ModelOperationException {
+		String fingerprint = fingerprint(bundlableNode);
+		File graphFile = graphFile(bundlableNode);
+		DependencyGraph dependencyGraph = readGraph(graphFile, fingerprint);
+
+		if(dependencyGraph == null) {
+			BundleSet bundleSet = bundlableNode.getBundleSet();
+			dependencyGraph = DependencyGraph.create(DependencyInfoFactory.buildForwardDependencyMap(bundlableNode),
+				bundleSet.assets(LinkedAsset.class), bundleSet.seedAssets(), fingerprint);
+			writeGraph(graphFile, dependencyGraph);
+		}
+
+		return dependencyGraph;
+	}
+
+	public static DependencyGraph buildReverseDependencyGraph(BundlableNode bundlableNode, SourceModule sourceModule) throws ModelOperationException {
+		BundleSet bundleSet = bundlableNode.getBundleSet();
+		return DependencyGraph.create(DependencyInfoFactory.buildReverseDependencyMap(bundlableNode, sourceModule),
+			bundleSet.assets(LinkedAsset.class), bundleSet.seedAssets(), "");
+	}
+
+	private static File graphFile(BundlableNode bundlableNode) {
+		String graphFileName = ContentHasher.hash(bundlableNode.getClass().getName(), bundlableNode.dir().getAbsolutePath()) + ".graph";
+		return new File(bundlableNode.root().storageDir(GRAPH_DIR_NAME).getUnderlyingFile(), graphFileName);
+	}
+
+	private static DependencyGraph readGraph(File graphFile, String fingerprint) {
+		if(!graphFile.isFile()) {
+			return null;
+		}
+
+		try {
+			DependencyGraph dependencyGraph = DependencyGraph.read(graphFile);
+			return ((dependencyGraph != null) && dependencyGraph.getFingerprint().equals(fingerprint)) ? dependencyGraph : null;
+		}
+		catch(IOException | RuntimeException e) {
+			return null;
+		}
+	}
+
+	private static void writeGraph(File graphFile, DependencyGraph dependencyGraph) {
+		try {
+			dependencyGraph.write(graphFile);
+		}
+		catch(IOException | RuntimeException e) {
+			// the saved graph is only an optimisation so we carry on without it
+		}
+	}
+
+	private static String fingerprint(BundlableNode bundlableNode) {
+		BRJS brjs = bundlableNode.root();
+		ContentHasher hasher = new ContentHasher();
+
+		for(Plugin plugin : brjs.plugins().assetPlugins()) {
+			hasher.add(plugin.getPluginClass().getName());
+		}
+		for(Plugin plugin : brjs.plugins().requirePlugins()) {
+			hasher.add(plugin.getPluginClass().getName());
+		}
+
+		List<File> sourceDirs = new ArrayList<>();
+		addSourceDir(sourceDirs, bundlableNode.app().dir());
+		addSourceDir(sourceDirs, bundlableNode.dir());
+		addSourceDir(sourceDirs, brjs.sdkJsLibsDir().dir());
+		addSourceDir(sourceDirs, brjs.jsPatches().dir());
+		addSourceDir(sourceDirs, brjs.conf().dir());
+
+		for(File sourceDir : sourceDirs) {
+			hasher.add(sourceDir.getAbsolutePath());
+			addFiles(hasher, sourceDir, "");
+		}
+
+		return hasher.hash();
+	}
+
+	private static void addSourceDir(List<File> sourceDirs, File sourceDir) {
+		String sourceDirPath = sourceDir.getAbsolutePath() + File.separator;
+
+		for(File existingSourceDir : sourceDirs) {
+			if(sourceDirPath.startsWith(existingSourceDir.getAbsolutePath() + File.separator)) {
+				return;
+			}
+		}
+		sourceDirs.add(sourceDir);
+	}
+
+	private static void addFiles(ContentHasher hasher, File dir, String relativePath) {
+		String[] fileNames = dir.list();
+		if(fileNames == null) {
+			return;
+		}
+
+		Arrays.sort(fileNames);
+		for(String fileName : fileNames) {
+			File file = new File(dir, fileName);
+			String filePath = relativePath + "/" + fileName;
+
+			if(file.isDirectory()) {
+				hasher.add(filePath + "/");
+				addFiles(hasher, file, filePath);
+			}
+			else {
+				hasher.add(filePath + ":" + file.length() + ":" + file.lastModified());
+			}
+		}
+	}
+}
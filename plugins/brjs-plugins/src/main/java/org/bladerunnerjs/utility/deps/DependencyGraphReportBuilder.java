@@ -1,10 +1,8 @@
 package org.bladerunnerjs.utility.deps;
 
 import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.LinkedHashSet;
+import java.util.BitSet;
 import java.util.List;
-import java.util.Set;
 
 import org.apache.commons.lang3.mutable.MutableBoolean;
 import org.bladerunnerjs.api.Aspect;
@@ -16,40 +14,42 @@ import org.bladerunnerjs.api.model.exception.RequirePathException;
 import org.bladerunnerjs.api.BrowsableNode;
 import org.bladerunnerjs.api.BundlableNode;
 import org.bladerunnerjs.api.BladeWorkbench;
-import org.bladerunnerjs.model.DirectoryLinkedAsset;
 
 public class DependencyGraphReportBuilder {
-	private final List<LinkedAsset> linkedAssets;
+	private final int[] linkedAssets;
 	private final boolean showAllDependencies;
-	private final DependencyInfo dependencyInfo;
-	private final Set<LinkedAsset> manyLinkedAssets;
+	private final DependencyGraph dependencyGraph;
+	private final BitSet manyLinkedAssets;
 	private final StringBuilder reportBuilder;
 	private final MutableBoolean hasOmittedDependencies;
-	private BundleSet bundleSet;
 	
 	public static String createReport(BundlableNode bundlableNode, boolean showAllDependencies) throws ModelOperationException {
+		DependencyGraph dependencyGraph = DependencyGraphFactory.buildForwardDependencyGraph(bundlableNode);
 		return "Bundle '" + bundlableNode.root().dir().getRelativePath(bundlableNode.dir()) + "' dependencies found:\n" +
-			new DependencyGraphReportBuilder(bundlableNode.getBundleSet(), bundlableNode.getBundleSet().seedAssets(), DependencyInfoFactory.buildForwardDependencyMap(bundlableNode), showAllDependencies).createReport();
+			new DependencyGraphReportBuilder(dependencyGraph, dependencyGraph.seedAssets(), showAllDependencies).createReport();
 	}
 	
 	public static String createReport(Aspect aspect, boolean showAllDependencies) throws ModelOperationException {
+		DependencyGraph dependencyGraph = DependencyGraphFactory.buildForwardDependencyGraph(aspect);
 		return "Aspect '" + aspect.getName() + "' dependencies found:\n" +
-			new DependencyGraphReportBuilder(aspect.getBundleSet(), aspect.getBundleSet().seedAssets(), DependencyInfoFactory.buildForwardDependencyMap(aspect), showAllDependencies).createReport();
+			new DependencyGraphReportBuilder(dependencyGraph, dependencyGraph.seedAssets(), showAllDependencies).createReport();
 	}
 	
 	public static String createReport(BladeWorkbench workbench, boolean showAllDependencies) throws ModelOperationException {
+		DependencyGraph dependencyGraph = DependencyGraphFactory.buildForwardDependencyGraph(workbench);
 		return "Workbench dependencies found:\n" +
-			new DependencyGraphReportBuilder(workbench.getBundleSet(), workbench.getBundleSet().seedAssets(), DependencyInfoFactory.buildForwardDependencyMap(workbench), showAllDependencies).createReport();
+			new DependencyGraphReportBuilder(dependencyGraph, dependencyGraph.seedAssets(), showAllDependencies).createReport();
 	}
 	
 	public static String createReport(BrowsableNode browsableNode, String requirePath, boolean showAllDependencies) throws ModelOperationException {
 		try {
 			SourceModule sourceModule =  (SourceModule)browsableNode.getLinkedAsset(requirePath);
-			List<LinkedAsset> linkedAssets = new ArrayList<>();
-			linkedAssets.add(sourceModule);
+			DependencyGraph dependencyGraph = DependencyGraphFactory.buildReverseDependencyGraph(browsableNode, sourceModule);
+			int sourceModuleId = dependencyGraph.assetId(sourceModule);
+			int[] linkedAssets = (sourceModuleId == -1) ? new int[0] : new int[] {sourceModuleId};
 			
 			return "Source module '" + sourceModule.getPrimaryRequirePath() + "' dependencies found:\n" +
-			new DependencyGraphReportBuilder(browsableNode.getBundleSet(), linkedAssets, DependencyInfoFactory.buildReverseDependencyMap(browsableNode, sourceModule), showAllDependencies).createReport();
+			new DependencyGraphReportBuilder(dependencyGraph, linkedAssets, showAllDependencies).createReport();
 		}
 		catch(RequirePathException e) {
 			return e.getMessage();
@@ -57,33 +57,56 @@ public class DependencyGraphReportBuilder {
 	}
 	
 	public static String createReportForRequirePrefix(BrowsableNode browsableNode, String requirePathPrefix, boolean showAllDependencies) throws ModelOperationException {
-		List<LinkedAsset> linkedAssets = new ArrayList<>();
+		BundleSet bundleSet = browsableNode.getBundleSet();
+		DependencyGraph dependencyGraph = DependencyGraphFactory.buildReverseDependencyGraph(browsableNode, null);
+		List<Integer> linkedAssets = new ArrayList<>();
 		
-		for(SourceModule sourceModule : browsableNode.getBundleSet().sourceModules()) {
+		for(SourceModule sourceModule : bundleSet.sourceModules()) {
 			if(sourceModule.getPrimaryRequirePath().startsWith(requirePathPrefix)) {
-				linkedAssets.add(sourceModule);
+				linkedAssets.add(dependencyGraph.assetId(sourceModule));
 			}
 		}
 		
 		return "Require path prefix '" + requirePathPrefix + "' dependencies found:\n" +
-		new DependencyGraphReportBuilder(browsableNode.getBundleSet(), linkedAssets, DependencyInfoFactory.buildReverseDependencyMap(browsableNode, null), showAllDependencies).createReport();
+		new DependencyGraphReportBuilder(dependencyGraph, DependencyGraph.toIntArray(linkedAssets), showAllDependencies).createReport();
 	}
 	
-	private DependencyGraphReportBuilder(BundleSet bundleSet, List<LinkedAsset> linkedAssets, DependencyInfo dependencyInfo, boolean showAllDependencies) throws ModelOperationException {
-		this.bundleSet = bundleSet;
+	public static String createInclusionReport(BundlableNode bundlableNode, String requirePath) throws ModelOperationException {
+		DependencyGraph dependencyGraph = DependencyGraphFactory.buildForwardDependencyGraph(bundlableNode);
+		int assetId = dependencyGraph.assetId(requirePath);
+		
+		if(assetId == -1) {
+			try {
+				requirePath = bundlableNode.getLinkedAsset(requirePath).getPrimaryRequirePath();
+				assetId = dependencyGraph.assetId(requirePath);
+			}
+			catch(RequirePathException e) {
+				return e.getMessage();
+			}
+		}
+		
+		int[] inclusionPath = (assetId == -1) ? new int[0] : dependencyGraph.inclusionPath(assetId);
+		if(inclusionPath.length == 0) {
+			return "Source module '" + requirePath + "' is not bundled.";
+		}
+		
+		return new DependencyGraphReportBuilder(dependencyGraph, new int[0], false).createInclusionReport(requirePath, assetId, inclusionPath);
+	}
+	
+	private DependencyGraphReportBuilder(DependencyGraph dependencyGraph, int[] linkedAssets, boolean showAllDependencies) throws ModelOperationException {
+		this.dependencyGraph = dependencyGraph;
 		this.linkedAssets = linkedAssets;
-		this.dependencyInfo = dependencyInfo;
 		this.showAllDependencies = showAllDependencies;
 		
-		manyLinkedAssets = determineManyLinkedAssets(new LinkedHashSet<LinkedAsset>());
+		manyLinkedAssets = determineManyLinkedAssets(new BitSet(dependencyGraph.assetCount()));
 		reportBuilder = new StringBuilder();
 		hasOmittedDependencies = new MutableBoolean(false);
 	}
 	
 	private String createReport() throws ModelOperationException {
-		HashSet<LinkedAsset> processedAssets = new LinkedHashSet<>();
-		for(LinkedAsset linkedAsset : bundleSet.assets(LinkedAsset.class)) {
-			addDependency(linkedAsset, null, processedAssets, 1);
+		BitSet processedAssets = new BitSet(dependencyGraph.assetCount());
+		for(int linkedAsset : dependencyGraph.bundleAssets()) {
+			addDependency(linkedAsset, -1, -1, processedAssets, 1);
 		}
 		
 		if(!showAllDependencies && !manyLinkedAssets.isEmpty()) {
@@ -96,47 +119,63 @@ public class DependencyGraphReportBuilder {
 		return reportBuilder.toString();
 	}
 	
-	private Set<LinkedAsset> determineManyLinkedAssets(HashSet<LinkedAsset> processedAssets) {
-		Set<LinkedAsset> manyLinkedAssets = new LinkedHashSet<>();
-		for(LinkedAsset linkedAsset : linkedAssets) {
+	private String createInclusionReport(String requirePath, int assetId, int[] inclusionPath) {
+		reportBuilder.append("Source module '" + requirePath + "' is bundled because of:\n");
+		for(int i = 0; i < inclusionPath.length; ++i) {
+			int referringAsset = (i == 0) ? -1 : inclusionPath[i - 1];
+			appendAssetPath(inclusionPath[i], referringAsset, dependencyIndex(referringAsset, inclusionPath[i]), i + 1, false);
+		}
+		
+		reportBuilder.append("\n    Assets that depend on '" + requirePath + "': " + dependencyGraph.dependentAssets(assetId).length);
+		reportBuilder.append("\n    Assets only bundled because of '" + requirePath + "': " + dependencyGraph.includeCount(assetId) +
+			" (" + dependencyGraph.includeCost(assetId) + " bytes)");
+		
+		return reportBuilder.toString();
+	}
+	
+	private BitSet determineManyLinkedAssets(BitSet processedAssets) {
+		BitSet manyLinkedAssets = new BitSet(dependencyGraph.assetCount());
+		for(int linkedAsset : linkedAssets) {
 			buildManyLinkedAssets(linkedAsset, processedAssets, manyLinkedAssets);
 		}
 		
 		return manyLinkedAssets;
 	}
 	
-	private void buildManyLinkedAssets(LinkedAsset linkedAsset, Set<LinkedAsset> processedAssets, Set<LinkedAsset> manyLinkedAssets) {
-		List<LinkedAsset> assetDependencies = getDependencies(linkedAsset);
-		if(processedAssets.add(linkedAsset)) {
-			for(LinkedAsset dependentAsset : assetDependencies) {
-				buildManyLinkedAssets(dependentAsset, processedAssets, manyLinkedAssets);
+	private void buildManyLinkedAssets(int linkedAsset, BitSet processedAssets, BitSet manyLinkedAssets) {
+		if(!processedAssets.get(linkedAsset)) {
+			processedAssets.set(linkedAsset);
+			for(int i = 0; i < dependencyGraph.dependencyCount(linkedAsset); ++i) {
+				buildManyLinkedAssets(dependencyGraph.getDependency(linkedAsset, i), processedAssets, manyLinkedAssets);
 			}
 		}
 		else {
-			manyLinkedAssets.add(linkedAsset);
+			manyLinkedAssets.set(linkedAsset);
 		}
 	}
 	
-	private void addDependency(LinkedAsset linkedAsset, LinkedAsset referringAsset, Set<LinkedAsset> processedAssets, int indentLevel) throws ModelOperationException {
-		if(showAllDependencies || !processedAssets.contains(linkedAsset)) {
-			appendAssetPath(linkedAsset, referringAsset, indentLevel, processedAssets.contains(linkedAsset));
+	private void addDependency(int linkedAsset, int referringAsset, int dependencyIndex, BitSet processedAssets, int indentLevel) throws ModelOperationException {
+		boolean alreadyProcessedDependency = processedAssets.get(linkedAsset);
+		
+		if(showAllDependencies || !alreadyProcessedDependency) {
+			appendAssetPath(linkedAsset, referringAsset, dependencyIndex, indentLevel, alreadyProcessedDependency);
 		}
 		
-		List<LinkedAsset> assetDependencies = getDependencies(linkedAsset);
-		if(processedAssets.add(linkedAsset)) {
-			for(LinkedAsset dependentAsset : assetDependencies) {
-				addDependency(dependentAsset, linkedAsset, processedAssets, indentLevel + 1);
+		if(!alreadyProcessedDependency) {
+			processedAssets.set(linkedAsset);
+			for(int i = 0; i < dependencyGraph.dependencyCount(linkedAsset); ++i) {
+				addDependency(dependencyGraph.getDependency(linkedAsset, i), linkedAsset, i, processedAssets, indentLevel + 1);
 			}
 		}
-		else if(assetDependencies.size() > 0) {
+		else if(dependencyGraph.dependencyCount(linkedAsset) > 0) {
 			hasOmittedDependencies.setValue(true);
 		}
 	}
 	
-	private void appendAssetPath(LinkedAsset linkedAsset, LinkedAsset referringAsset, int indentLevel, boolean alreadyProcessedDependency) {
+	private void appendAssetPath(int linkedAsset, int referringAsset, int dependencyIndex, int indentLevel, boolean alreadyProcessedDependency) {
 		
 		
-		if (linkedAsset instanceof DirectoryLinkedAsset) {
+		if (dependencyGraph.isDirectoryAsset(linkedAsset)) {
 			return;
 		}
 		
@@ -157,35 +196,37 @@ public class DependencyGraphReportBuilder {
 			}
 		}
 		
-		reportBuilder.append("'" + linkedAsset.getAssetPath() + "'");
+		reportBuilder.append("'" + dependencyGraph.getAssetPath(linkedAsset) + "'");
 		
-		if(dependencyInfo.seedAssets.contains(linkedAsset)) {
+		if(dependencyGraph.isSeedFile(linkedAsset)) {
 			reportBuilder.append(" (seed file)");
 		}
-		else if((dependencyInfo.staticDeps.get(referringAsset) != null) && dependencyInfo.staticDeps.get(referringAsset).contains(linkedAsset)) {
+		else if((referringAsset != -1) && dependencyGraph.isStaticDependency(referringAsset, dependencyIndex)) {
 			reportBuilder.append(" (static dep.)");
 		}
-		else if(linkedAsset.getPrimaryRequirePath().startsWith("alias!")) {
+		else if(dependencyGraph.isAliasDependency(linkedAsset)) {
 			reportBuilder.append(" (alias dep.)");
 		}
-		else if(linkedAsset.getPrimaryRequirePath().startsWith("service!")) {
+		else if(dependencyGraph.isServiceDependency(linkedAsset)) {
 			reportBuilder.append(" (service dep.)");
 		}
 		
-		if((showAllDependencies && alreadyProcessedDependency) || (!showAllDependencies && manyLinkedAssets.contains(linkedAsset))) {
+		if((showAllDependencies && alreadyProcessedDependency) || (!showAllDependencies && manyLinkedAssets.get(linkedAsset))) {
 			reportBuilder.append(" (*)");
 		}
 		
 		reportBuilder.append("\n");
 	}
 	
-	private List<LinkedAsset> getDependencies(LinkedAsset linkedAsset) {
-		List<LinkedAsset> dependencies =  new ArrayList<>();
-		
-		if(dependencyInfo.map.containsKey(linkedAsset)) {
-			dependencies.addAll(dependencyInfo.map.get(linkedAsset));
+	private int dependencyIndex(int referringAsset, int linkedAsset) {
+		if(referringAsset != -1) {
+			for(int i = 0; i < dependencyGraph.dependencyCount(referringAsset); ++i) {
+				if(dependencyGraph.getDependency(referringAsset, i) == linkedAsset) {
+					return i;
+				}
+			}
 		}
 		
-		return dependencies;
+		return -1;
 	}
 }
@@ -326,4 +326,18 @@ public class ApplicationDepsCommandTest extends SpecTest {
 			"    |    \\--- 'src/appns/Class1.js'");
 	}
 	
+	@Test
+	public void changesMadeSinceTheCommandWasLastRunAreShown() throws Exception {
+		given(aspect).indexPageRequires("appns/Class1")
+			.and(aspect).hasClasses("appns/Class1", "appns/Class2")
+			.and(brjs).commandHasBeenRun("app-deps", "app")
+			.and(aspect).classRequires("appns/Class1", "./Class2");
+		when(brjs).runCommand("app-deps", "app");
+		then(logging).containsConsoleText(
+			"Aspect 'default' dependencies found:",
+			"    +--- 'default-aspect/index.html' (seed file)",
+			"    |    \\--- 'default-aspect/src/appns/Class1.js'",
+			"    |    |    \\--- 'default-aspect/src/appns/Class2.js'");
+	}
+	
 }
@@ -377,4 +377,38 @@ public class DepInsightCommandTest extends SpecTest {
 			"    +--- 'src/appns/Class1.js'");
 	}
 	
+	@Test
+	public void exceptionIsThrownIfPrefixAndWhySwitchesAreUsedSimultaneously() throws Exception {
+		given(aspect).hasBeenCreated();
+		when(brjs).runCommand("dep-insight", "app", "require-path", "--prefix", "--why");
+		then(exceptions).verifyException(CommandArgumentsException.class, unquoted("The --prefix and --why switches can't both be used at the same time"));
+	}
+	
+	@Test
+	public void theShortestReasonForASourceModuleBeingBundledAndTheCostOfIncludingItCanBeShown() throws Exception {
+		given(aspect).indexPageRequires("appns/Class1", "appns/Class3")
+			.and(aspect).hasClasses("appns/Class1", "appns/Class2", "appns/Class3", "appns/Class4")
+			.and(aspect).classRequires("appns/Class1", "./Class2")
+			.and(aspect).classRequires("appns/Class2", "./Class4")
+			.and(aspect).classRequires("appns/Class3", "./Class1");
+		when(brjs).runCommand("dep-insight", "app", "appns/Class2", "--why");
+		then(logging).containsConsoleText(
+			"Source module 'appns/Class2' is bundled because of:",
+			"    +--- 'default-aspect/index.html' (seed file)",
+			"    |    \\--- 'default-aspect/src/appns/Class1.js'",
+			"    |    |    \\--- 'default-aspect/src/appns/Class2.js' (static dep.)",
+			"",
+			"    Assets that depend on 'appns/Class2': 3",
+			"    Assets only bundled because of 'appns/Class2': 2 (136 bytes)");
+	}
+	
+	@Test
+	public void sourceModulesThatArentBundledAreReportedAsSuchWhenAskingWhyTheyAreBundled() throws Exception {
+		given(aspect).indexPageRequires("appns/Class1")
+			.and(aspect).hasClasses("appns/Class1", "appns/Class2");
+		when(brjs).runCommand("dep-insight", "app", "appns/Class2", "--why");
+		then(logging).containsConsoleText(
+			"Source module 'appns/Class2' is not bundled.");
+	}
+	
 }